@@ -0,0 +1,34 @@
+package com.pjb.benchmark;
+
+import com.pjb.SpringBootRedisApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试使用的Spring上下文
+ * Redis服务器通过系统属性 redis.host、redis.port 指定，默认连接本地 redis-server
+ * @author pan_junbiao
+ **/
+public final class BenchmarkContext
+{
+    private BenchmarkContext()
+    {
+    }
+
+    /**
+     * 启动Spring上下文
+     */
+    public static ConfigurableApplicationContext start()
+    {
+        return new SpringApplicationBuilder(SpringBootRedisApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.redis.host=" + System.getProperty("redis.host", "127.0.0.1"),
+                        "spring.redis.port=" + System.getProperty("redis.port", "6379"),
+                        "myenvironment.redis-project-key=PJB_BENCH",
+                        "myenvironment.redis-metrics.jmx-enabled=false")
+                .run();
+    }
+}
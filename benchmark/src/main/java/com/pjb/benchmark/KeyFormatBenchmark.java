@@ -0,0 +1,64 @@
+package com.pjb.benchmark;
+
+import com.pjb.common.RedisKeyEnum;
+import com.pjb.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis键格式化的基准测试（不需要Redis服务器）
+ * @author pan_junbiao
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyFormatBenchmark
+{
+    private RedisUtils redisUtils;
+
+    private long userId = 123456789L;
+
+    @Setup
+    public void setUp()
+    {
+        redisUtils = new RedisUtils();
+        redisUtils.setRedisProjectKey("PJB");
+    }
+
+    @Benchmark
+    public String businessKey()
+    {
+        return redisUtils.getRedisKey(RedisKeyEnum.USER_INFO);
+    }
+
+    @Benchmark
+    public String businessKeyWithLongId()
+    {
+        return redisUtils.getRedisKey(RedisKeyEnum.USER_INFO, userId);
+    }
+
+    @Benchmark
+    public byte[] businessKeyBytesWithLongId()
+    {
+        return redisUtils.getRedisKeyBytes(RedisKeyEnum.USER_INFO, userId);
+    }
+
+    /**
+     * 原有实现：使用 String.format 格式化，作为对比基准
+     */
+    @Benchmark
+    public String businessKeyWithStringFormat()
+    {
+        return String.format("%s_%s::%s", "PJB", RedisKeyEnum.USER_INFO, Long.toString(userId));
+    }
+
+    @Benchmark
+    public String businessKeyWithStringId()
+    {
+        return redisUtils.getRedisKey(RedisKeyEnum.USER_INFO, "pan_junbiao");
+    }
+}
@@ -0,0 +1,94 @@
+package com.pjb.benchmark;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.clients.jedis.Jedis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KEYS命令与SCAN命令在不同键空间大小下的基准测试（需要Redis服务器）
+ * 键空间中只有 1% 的键与查询的模式匹配
+ * @author pan_junbiao
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeysScanBenchmark
+{
+    private static final String KEY_PREFIX = "BENCH::SCAN::";
+
+    @Param({"10000", "100000", "1000000"})
+    private int keyspaceSize;
+
+    private ConfigurableApplicationContext context;
+
+    private RedisUtils redisUtils;
+
+    private String pattern;
+
+    @Setup
+    public void setUp() throws RedisException
+    {
+        context = BenchmarkContext.start();
+        redisUtils = context.getBean(RedisUtils.class);
+        pattern = KEY_PREFIX + "MATCH::*";
+
+        Map<String, Object> keyValueMap = new LinkedHashMap<>();
+        for (int i = 0; i < keyspaceSize; i++)
+        {
+            String key = (i % 100 == 0 ? KEY_PREFIX + "MATCH::" : KEY_PREFIX + "OTHER::") + i;
+            keyValueMap.put(key, i);
+            if (keyValueMap.size() >= 10000)
+            {
+                redisUtils.mset(keyValueMap);
+                keyValueMap.clear();
+            }
+        }
+        redisUtils.mset(keyValueMap);
+    }
+
+    @TearDown
+    public void tearDown() throws RedisException
+    {
+        redisUtils.delAllByKey(KEY_PREFIX + "*");
+        context.close();
+    }
+
+    /**
+     * 原始的KEYS命令，会阻塞Redis服务器直到遍历完整个键空间
+     */
+    @Benchmark
+    public int keysCommand()
+    {
+        try (Jedis jedis = redisUtils.getJedis())
+        {
+            return jedis.keys(pattern).size();
+        }
+    }
+
+    /**
+     * 基于SCAN命令的 keys() 方法
+     */
+    @Benchmark
+    public int keys() throws RedisException
+    {
+        return redisUtils.keys(pattern).size();
+    }
+
+    /**
+     * 基于SCAN命令的流式查询
+     */
+    @Benchmark
+    public long scanStream()
+    {
+        return redisUtils.scan(pattern).count();
+    }
+}
@@ -0,0 +1,66 @@
+package com.pjb.benchmark;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个JedisPool与分段连接池在不同线程数下的吞吐量对比（需要Redis服务器）
+ * @author pan_junbiao
+ **/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PoolContentionBenchmark
+{
+    @Param({"default", "striped"})
+    private String poolMode;
+
+    private ConfigurableApplicationContext context;
+
+    private RedisUtils redisUtils;
+
+    @Setup
+    public void setUp() throws RedisException
+    {
+        System.setProperty("myenvironment.redis-pool.mode", poolMode);
+        context = BenchmarkContext.start();
+        redisUtils = context.getBean(RedisUtils.class);
+        redisUtils.set("BENCH::POOL", "pan_junbiao的博客");
+    }
+
+    @TearDown
+    public void tearDown() throws RedisException
+    {
+        redisUtils.del("BENCH::POOL");
+        context.close();
+        System.clearProperty("myenvironment.redis-pool.mode");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads1() throws RedisException
+    {
+        return redisUtils.get("BENCH::POOL");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String threads8() throws RedisException
+    {
+        return redisUtils.get("BENCH::POOL");
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String threads64() throws RedisException
+    {
+        return redisUtils.get("BENCH::POOL");
+    }
+}
@@ -0,0 +1,115 @@
+package com.pjb.benchmark;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisBatch;
+import com.pjb.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐条执行与管道批量执行的基准测试（需要Redis服务器）
+ * 每次调用读写 batchSize 个键
+ * @author pan_junbiao
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoundTripBenchmark
+{
+    @Param({"10", "100"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private RedisUtils redisUtils;
+
+    private List<String> keys;
+
+    private Map<String, Object> keyValueMap;
+
+    @Setup
+    public void setUp() throws RedisException
+    {
+        context = BenchmarkContext.start();
+        redisUtils = context.getBean(RedisUtils.class);
+        keys = new ArrayList<>(batchSize);
+        keyValueMap = new LinkedHashMap<>();
+        for (int i = 0; i < batchSize; i++)
+        {
+            String key = "BENCH::ROUND_TRIP::" + i;
+            keys.add(key);
+            keyValueMap.put(key, "pan_junbiao的博客_" + i);
+        }
+        redisUtils.mset(keyValueMap);
+    }
+
+    @TearDown
+    public void tearDown() throws RedisException
+    {
+        redisUtils.delAllByKey("BENCH::ROUND_TRIP::*");
+        context.close();
+    }
+
+    @Benchmark
+    public int singleGet() throws RedisException
+    {
+        int size = 0;
+        for (String key : keys)
+        {
+            size += redisUtils.get(key).length();
+        }
+        return size;
+    }
+
+    @Benchmark
+    public List<String> mget() throws RedisException
+    {
+        return redisUtils.mget(keys);
+    }
+
+    @Benchmark
+    public List<Object> pipelinedGet() throws RedisException
+    {
+        RedisBatch batch = redisUtils.batch();
+        for (String key : keys)
+        {
+            batch.get(key);
+        }
+        return batch.execute();
+    }
+
+    @Benchmark
+    public void singleSet() throws RedisException
+    {
+        for (Map.Entry<String, Object> entry : keyValueMap.entrySet())
+        {
+            redisUtils.set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public String mset() throws RedisException
+    {
+        return redisUtils.mset(keyValueMap);
+    }
+
+    @Benchmark
+    public List<Object> pipelinedSet() throws RedisException
+    {
+        RedisBatch batch = redisUtils.batch();
+        for (Map.Entry<String, Object> entry : keyValueMap.entrySet())
+        {
+            batch.set(entry.getKey(), entry.getValue());
+        }
+        return batch.execute();
+    }
+}
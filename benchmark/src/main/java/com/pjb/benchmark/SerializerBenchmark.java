@@ -0,0 +1,72 @@
+package com.pjb.benchmark;
+
+import com.pjb.config.RedisConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisConfig.redisTemplate 中配置的Jackson序列化器的基准测试（不需要Redis服务器）
+ * @author pan_junbiao
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark
+{
+    @SuppressWarnings("rawtypes")
+    private Jackson2JsonRedisSerializer serializer;
+
+    private UserInfo userInfo;
+
+    private byte[] userInfoBytes;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setUp()
+    {
+        serializer = RedisConfig.jackson2JsonRedisSerializer();
+        userInfo = new UserInfo(1L, "pan_junbiao的博客", "https://blog.csdn.net/pan_junbiao", "您好，欢迎访问 pan_junbiao的博客");
+        userInfoBytes = serializer.serialize(userInfo);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Benchmark
+    public byte[] serialize()
+    {
+        return serializer.serialize(userInfo);
+    }
+
+    @Benchmark
+    public Object deserialize()
+    {
+        return serializer.deserialize(userInfoBytes);
+    }
+
+    /**
+     * 用户信息
+     */
+    public static class UserInfo
+    {
+        private long userId;
+        private String userName;
+        private String blogUrl;
+        private String blogRemark;
+
+        public UserInfo()
+        {
+        }
+
+        public UserInfo(long userId, String userName, String blogUrl, String blogRemark)
+        {
+            this.userId = userId;
+            this.userName = userName;
+            this.blogUrl = blogUrl;
+            this.blogRemark = blogRemark;
+        }
+    }
+}
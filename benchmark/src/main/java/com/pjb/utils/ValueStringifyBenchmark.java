@@ -0,0 +1,63 @@
+package com.pjb.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * set/hset/sadd等方法中值转换为字符串的基准测试（不需要Redis服务器）
+ * 位于 com.pjb.utils 包中，以便访问包内的转换方法
+ * @author pan_junbiao
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueStringifyBenchmark
+{
+    private Object longValue = 123456789L;
+
+    private Object doubleValue = 12345.6789D;
+
+    private Object stringValue = "pan_junbiao的博客";
+
+    private Map<String, Object> fieldMap;
+
+    @Setup
+    public void setUp()
+    {
+        fieldMap = new HashMap<>();
+        fieldMap.put("userId", 1L);
+        fieldMap.put("userName", "pan_junbiao的博客");
+        fieldMap.put("blogUrl", "https://blog.csdn.net/pan_junbiao");
+        fieldMap.put("blogRemark", "您好，欢迎访问 pan_junbiao的博客");
+    }
+
+    @Benchmark
+    public String longToString()
+    {
+        return RedisUtils.toValueString(longValue);
+    }
+
+    @Benchmark
+    public String doubleToString()
+    {
+        return RedisUtils.toValueString(doubleValue);
+    }
+
+    @Benchmark
+    public String stringToString()
+    {
+        return RedisUtils.toValueString(stringValue);
+    }
+
+    @Benchmark
+    public Map<String, String> fieldMapToString()
+    {
+        return RedisUtils.toValueStringMap(fieldMap);
+    }
+}
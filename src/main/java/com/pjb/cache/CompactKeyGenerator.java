@@ -0,0 +1,140 @@
+package com.pjb.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑的缓存键生成器
+ * 键格式：方法ID:参数1:参数2...
+ * 方法ID由类名与方法签名计算哈希得到，每个方法只计算一次并缓存，不同进程中结果相同；
+ * 参数之间使用“:”分隔，参数中的“:”与“\”转义，null 编码为“~”，避免 (1,23) 与 (12,3) 这类拼接歧义；
+ * 参数部分超过最大长度时使用其SHA-1摘要代替。
+ * @author pan_junbiao
+ **/
+public class CompactKeyGenerator implements KeyGenerator
+{
+    private static final char DELIMITER = ':';
+
+    private static final char ESCAPE = '\\';
+
+    private static final String NULL_PARAM = "~";
+
+    //摘要前缀，转义后的参数不会以它开头
+    private static final char DIGEST_MARK = '#';
+
+    //参数部分的最大长度，超过时使用摘要
+    private final int maxParamsLength;
+
+    //方法ID缓存，按目标类与方法区分（子类继承的方法与父类使用不同的ID）
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Method, String>> methodIds = new ConcurrentHashMap<>();
+
+    public CompactKeyGenerator(int maxParamsLength)
+    {
+        this.maxParamsLength = maxParamsLength;
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params)
+    {
+        Class<?> targetClass = target.getClass();
+        String methodId = methodIds.computeIfAbsent(targetClass, type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> methodId(targetClass, m));
+        if (params.length == 0)
+        {
+            return methodId;
+        }
+
+        StringBuilder sb = new StringBuilder(methodId.length() + 16 * params.length);
+        sb.append(methodId);
+        int paramsStart = sb.length();
+        for (Object param : params)
+        {
+            sb.append(DELIMITER);
+            appendParam(sb, param);
+        }
+        if (sb.length() - paramsStart > maxParamsLength)
+        {
+            String digest = digest(sb.substring(paramsStart));
+            sb.setLength(paramsStart);
+            sb.append(DELIMITER).append(DIGEST_MARK).append(digest);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 写入单个参数
+     */
+    private static void appendParam(StringBuilder sb, Object param)
+    {
+        if (param == null)
+        {
+            sb.append(NULL_PARAM);
+            return;
+        }
+        if (param instanceof Long || param instanceof Integer || param instanceof Short || param instanceof Byte)
+        {
+            sb.append(((Number) param).longValue());
+            return;
+        }
+        if (param instanceof Enum)
+        {
+            sb.append(((Enum<?>) param).name());
+            return;
+        }
+        String value = param.toString();
+        int start = sb.length();
+        for (int i = 0, size = value.length(); i < size; i++)
+        {
+            char ch = value.charAt(i);
+            if (ch == DELIMITER || ch == ESCAPE)
+            {
+                sb.append(ESCAPE);
+            }
+            sb.append(ch);
+        }
+        //与 null、摘要的编码区分
+        if (sb.length() > start && (sb.charAt(start) == NULL_PARAM.charAt(0) || sb.charAt(start) == DIGEST_MARK))
+        {
+            sb.insert(start, ESCAPE);
+        }
+    }
+
+    /**
+     * 计算方法ID：类名与方法签名的SHA-1摘要的前8个字节，Base64编码后共11个字符
+     */
+    private static String methodId(Class<?> targetClass, Method method)
+    {
+        StringBuilder signature = new StringBuilder(targetClass.getName()).append('#').append(method.getName()).append('(');
+        for (Class<?> parameterType : method.getParameterTypes())
+        {
+            signature.append(parameterType.getName()).append(',');
+        }
+        signature.append(')');
+        byte[] hash = sha1(signature.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 8));
+    }
+
+    private static String digest(String value)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha1(value));
+    }
+
+    private static byte[] sha1(String value)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
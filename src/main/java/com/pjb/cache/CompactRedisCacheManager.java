@@ -0,0 +1,100 @@
+package com.pjb.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Redis缓存管理器
+ * 在 RedisCacheManager 的基础上，不允许缓存 null 值的缓存遇到 null 时直接跳过写入，
+ * 而不是像 RedisCache 那样抛出异常；并提供所有缓存的统计数据。
+ * @author pan_junbiao
+ **/
+public class CompactRedisCacheManager extends RedisCacheManager
+{
+    private final RedisCacheWriter cacheWriter;
+
+    private final RedisCacheConfiguration defaultCacheConfiguration;
+
+    public CompactRedisCacheManager(RedisCacheWriter cacheWriter, RedisCacheConfiguration defaultCacheConfiguration,
+                                    Map<String, RedisCacheConfiguration> initialCacheConfigurations)
+    {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations, true);
+        this.cacheWriter = cacheWriter;
+        this.defaultCacheConfiguration = defaultCacheConfiguration;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig)
+    {
+        return new SkipNullRedisCache(name, cacheWriter, cacheConfig != null ? cacheConfig : defaultCacheConfiguration);
+    }
+
+    /**
+     * 获取所有缓存的统计数据，键为缓存名称
+     */
+    public Map<String, CacheStatistics> getStatistics()
+    {
+        Map<String, CacheStatistics> result = new LinkedHashMap<>();
+        for (String cacheName : getCacheNames())
+        {
+            RedisCache cache = (RedisCache) getCache(cacheName);
+            if (cache != null)
+            {
+                result.put(cacheName, cache.getStatistics());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 清空所有缓存的统计数据
+     */
+    public void clearStatistics()
+    {
+        for (String cacheName : getCacheNames())
+        {
+            RedisCache cache = (RedisCache) getCache(cacheName);
+            if (cache != null)
+            {
+                cache.clearStatistics();
+            }
+        }
+    }
+
+    /**
+     * 不缓存 null 值时跳过写入的RedisCache
+     */
+    private static class SkipNullRedisCache extends RedisCache
+    {
+        SkipNullRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfig)
+        {
+            super(name, cacheWriter, cacheConfig);
+        }
+
+        @Override
+        public void put(Object key, Object value)
+        {
+            if (value == null && !isAllowNullValues())
+            {
+                return;
+            }
+            super.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value)
+        {
+            if (value == null && !isAllowNullValues())
+            {
+                return get(key);
+            }
+            return super.putIfAbsent(key, value);
+        }
+    }
+}
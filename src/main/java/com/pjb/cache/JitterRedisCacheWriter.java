@@ -0,0 +1,94 @@
+package com.pjb.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 过期时间随机抖动的缓存写入器
+ * 写入缓存时在配置的过期时间上随机增加 0 ~ ttl*jitter 的时间，
+ * 避免同一批写入的缓存在同一时刻集中过期，造成Redis与数据库的瞬时压力。
+ * 其余操作直接委托给原始写入器。
+ * @author pan_junbiao
+ **/
+public class JitterRedisCacheWriter implements RedisCacheWriter
+{
+    private final RedisCacheWriter delegate;
+
+    //抖动比例，例如 0.1 表示最多延长10%的过期时间
+    private final double jitter;
+
+    public JitterRedisCacheWriter(RedisCacheWriter delegate, double jitter)
+    {
+        this.delegate = delegate;
+        this.jitter = Math.max(0, jitter);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl)
+    {
+        delegate.put(name, key, value, jitter(ttl));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key)
+    {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl)
+    {
+        return delegate.putIfAbsent(name, key, value, jitter(ttl));
+    }
+
+    @Override
+    public void remove(String name, byte[] key)
+    {
+        delegate.remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern)
+    {
+        delegate.clean(name, pattern);
+    }
+
+    @Override
+    public void clearStatistics(String name)
+    {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector)
+    {
+        return new JitterRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector), jitter);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName)
+    {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    /**
+     * 计算抖动后的过期时间，永不过期（null、0或负数）时保持不变
+     */
+    private Duration jitter(Duration ttl)
+    {
+        if (ttl == null || ttl.isZero() || ttl.isNegative() || jitter == 0)
+        {
+            return ttl;
+        }
+        long maxJitterMillis = (long) (ttl.toMillis() * jitter);
+        if (maxJitterMillis <= 0)
+        {
+            return ttl;
+        }
+        return ttl.plusMillis(ThreadLocalRandom.current().nextLong(maxJitterMillis + 1));
+    }
+}
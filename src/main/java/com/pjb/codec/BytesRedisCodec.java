@@ -0,0 +1,36 @@
+package com.pjb.codec;
+
+/**
+ * 字节数组编解码器
+ * 原样写入与读取字节数组，适用于调用方自行序列化的数据
+ * @author pan_junbiao
+ **/
+public class BytesRedisCodec implements RedisCodec
+{
+    private static final byte[] EMPTY = new byte[0];
+
+    @Override
+    public byte[] encode(Object value)
+    {
+        if (value == null)
+        {
+            return EMPTY;
+        }
+        if (!(value instanceof byte[]))
+        {
+            throw new IllegalArgumentException("字节数组编解码器只支持 byte[] 类型：" + value.getClass().getName());
+        }
+        return (byte[]) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] bytes, Class<T> type)
+    {
+        if (type != byte[].class && type != Object.class)
+        {
+            throw new IllegalArgumentException("字节数组编解码器只支持 byte[] 类型：" + type.getName());
+        }
+        return (T) bytes;
+    }
+}
@@ -0,0 +1,55 @@
+package com.pjb.codec;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * CBOR二进制编解码器
+ * 使用Jackson将对象序列化为CBOR格式，保留数值、布尔等类型信息，
+ * 体积比JSON文本更小，解码也更快
+ * @author pan_junbiao
+ **/
+public class CborRedisCodec implements RedisCodec
+{
+    private final ObjectMapper objectMapper;
+
+    public CborRedisCodec()
+    {
+        this.objectMapper = new ObjectMapper(new CBORFactory());
+        this.objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        this.objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public byte[] encode(Object value)
+    {
+        try
+        {
+            return objectMapper.writeValueAsBytes(value);
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException("CBOR编码失败", ex);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type)
+    {
+        try
+        {
+            return objectMapper.readValue(bytes, type);
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException("CBOR解码失败", ex);
+        }
+    }
+}
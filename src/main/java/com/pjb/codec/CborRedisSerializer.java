@@ -0,0 +1,101 @@
+package com.pjb.codec;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * CBOR二进制序列化器，供Spring缓存使用
+ * 所有类型（包括 Long、String 等final类型）都写入类名，以便还原为原始类型，体积比JDK序列化与JSON文本更小。
+ * 反序列化时只允许实例化受信任的类型：基本类型的包装类、String、数组、java.util 与 java.time 中的类型，
+ * 以及受信任包（默认为 com.pjb.）中的类型，防止缓存数据指定任意类进行实例化。
+ * 缓存的空值（NullValue）编码为单字节的CBOR null。
+ * @author pan_junbiao
+ **/
+public class CborRedisSerializer implements RedisSerializer<Object>
+{
+    //CBOR编码的 null
+    private static final byte[] NULL_VALUE = new byte[]{(byte) 0xF6};
+
+    private final ObjectMapper objectMapper;
+
+    public CborRedisSerializer()
+    {
+        this(Collections.singletonList("com.pjb."));
+    }
+
+    /**
+     * @param trustedPackages 受信任的包名前缀，如 com.pjb.
+     */
+    public CborRedisSerializer(Collection<String> trustedPackages)
+    {
+        BasicPolymorphicTypeValidator.Builder validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType(Number.class)
+                .allowIfSubType(String.class)
+                .allowIfSubType(Boolean.class)
+                .allowIfSubType(Character.class)
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubTypeIsArray();
+        for (String trustedPackage : trustedPackages)
+        {
+            validator.allowIfSubType(trustedPackage);
+        }
+
+        this.objectMapper = new ObjectMapper(new CBORFactory());
+        this.objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        this.objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.objectMapper.activateDefaultTyping(validator.build(),
+                ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException
+    {
+        if (value == null || value instanceof NullValue)
+        {
+            return NULL_VALUE;
+        }
+        try
+        {
+            return objectMapper.writeValueAsBytes(value);
+        }
+        catch (Exception ex)
+        {
+            throw new SerializationException("CBOR序列化失败", ex);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException
+    {
+        if (bytes == null || bytes.length == 0)
+        {
+            return null;
+        }
+        if (Arrays.equals(bytes, NULL_VALUE))
+        {
+            return NullValue.INSTANCE;
+        }
+        try
+        {
+            return objectMapper.readValue(bytes, Object.class);
+        }
+        catch (Exception ex)
+        {
+            throw new SerializationException("CBOR反序列化失败", ex);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.pjb.codec;
+
+/**
+ * Redis值编解码器
+ * 将Java对象编码为字节数组写入Redis，或从Redis读取的字节数组解码为Java对象
+ * @author pan_junbiao
+ **/
+public interface RedisCodec
+{
+    /**
+     * 编码
+     * @param value 值，可以为 null
+     * @return 字节数组
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码
+     * @param bytes 字节数组，不为 null
+     * @param type 值的类型
+     * @return 值
+     */
+    <T> T decode(byte[] bytes, Class<T> type);
+}
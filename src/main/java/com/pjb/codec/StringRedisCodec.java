@@ -0,0 +1,48 @@
+package com.pjb.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字符串编解码器
+ * 与 RedisUtils 原有的 set/get 方法兼容：写入时使用 toString() 的UTF-8编码，
+ * 读取时支持解码为字符串、数值与布尔类型
+ * @author pan_junbiao
+ **/
+public class StringRedisCodec implements RedisCodec
+{
+    private static final byte[] EMPTY = new byte[0];
+
+    @Override
+    public byte[] encode(Object value)
+    {
+        return value != null ? value.toString().getBytes(StandardCharsets.UTF_8) : EMPTY;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] bytes, Class<T> type)
+    {
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        if (type == String.class || type == Object.class || type == CharSequence.class)
+        {
+            return (T) value;
+        }
+        if (type == Long.class || type == long.class)
+        {
+            return (T) Long.valueOf(value);
+        }
+        if (type == Integer.class || type == int.class)
+        {
+            return (T) Integer.valueOf(value);
+        }
+        if (type == Double.class || type == double.class)
+        {
+            return (T) Double.valueOf(value);
+        }
+        if (type == Boolean.class || type == boolean.class)
+        {
+            return (T) Boolean.valueOf(value);
+        }
+        throw new IllegalArgumentException("字符串编解码器不支持的类型：" + type.getName());
+    }
+}
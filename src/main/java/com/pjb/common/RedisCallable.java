@@ -0,0 +1,13 @@
+package com.pjb.common;
+
+import com.pjb.exception.RedisException;
+
+/**
+ * 可抛出 RedisException 的Redis操作
+ * @author pan_junbiao
+ **/
+@FunctionalInterface
+public interface RedisCallable<T>
+{
+    T call() throws RedisException;
+}
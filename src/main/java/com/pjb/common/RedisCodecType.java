@@ -0,0 +1,29 @@
+package com.pjb.common;
+
+import com.pjb.codec.BytesRedisCodec;
+import com.pjb.codec.CborRedisCodec;
+import com.pjb.codec.RedisCodec;
+import com.pjb.codec.StringRedisCodec;
+
+/**
+ * Redis值编解码器类型枚举
+ * @author pan_junbiao
+ **/
+public enum RedisCodecType
+{
+    STRING(new StringRedisCodec()), //字符串，与原有的 toString() 写入方式兼容
+    BYTES(new BytesRedisCodec()), //字节数组，原样写入与读取
+    CBOR(new CborRedisCodec()); //CBOR二进制格式，保留类型信息且体积更小
+
+    private final RedisCodec codec;
+
+    RedisCodecType(RedisCodec codec)
+    {
+        this.codec = codec;
+    }
+
+    public RedisCodec getCodec()
+    {
+        return codec;
+    }
+}
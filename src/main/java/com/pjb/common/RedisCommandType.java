@@ -0,0 +1,61 @@
+package com.pjb.common;
+
+/**
+ * Redis命令类型枚举
+ * 用于统计各命令的执行耗时、异常次数与数据大小
+ * @author pan_junbiao
+ **/
+public enum RedisCommandType
+{
+    //字符串（String）
+    SET,
+    GET,
+    DEL,
+    STRLEN,
+    EXISTS,
+    TYPE,
+    RENAME,
+    INCR,
+    INCRBY,
+    DECR,
+    DECRBY,
+    APPEND,
+
+    //哈希（Hash）
+    HSET,
+    HGET,
+    HINCRBY,
+    HGETALL,
+    HDEL,
+    HLEN,
+    HKEYS,
+    HMGET,
+    HSCAN,
+
+    //集合（Set）
+    SADD,
+    SRANDMEMBER,
+
+    //有序集合（Sorted Set）
+    ZADD,
+    ZRANGE,
+    ZREVRANGE,
+    ZREMRANGEBYRANK,
+    ZINCRBY,
+    ZREM,
+    ZREVRANK,
+    ZSCORE,
+
+    //批量操作
+    MGET,
+    MSET,
+    SCAN,
+    DEL_BY_PATTERN,
+    HDEL_BY_PATTERN,
+    PIPELINE,
+
+    //脚本与锁
+    EVAL,
+    SET_NX,
+    SUBSCRIBE
+}
@@ -6,5 +6,31 @@ package com.pjb.common;
  **/
 public enum RedisKeyEnum
 {
-    USER_INFO //用户信息
+    USER_INFO(false, RedisCodecType.STRING); //用户信息
+
+    /**
+     * 是否启用本地近端缓存（需同时开启 myenvironment.redis-near-cache.enabled）
+     */
+    private final boolean nearCache;
+
+    /**
+     * 值编解码器类型，用于 RedisUtils 中以业务键读写对象的方法
+     */
+    private final RedisCodecType codecType;
+
+    RedisKeyEnum(boolean nearCache, RedisCodecType codecType)
+    {
+        this.nearCache = nearCache;
+        this.codecType = codecType;
+    }
+
+    public boolean isNearCache()
+    {
+        return nearCache;
+    }
+
+    public RedisCodecType getCodecType()
+    {
+        return codecType;
+    }
 }
@@ -3,23 +3,47 @@ package com.pjb.config;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pjb.cache.CompactKeyGenerator;
+import com.pjb.cache.CompactRedisCacheManager;
+import com.pjb.cache.JitterRedisCacheWriter;
+import com.pjb.codec.CborRedisSerializer;
+import com.pjb.pool.RedisReplicaPool;
+import com.pjb.pool.DeadlineJedisPool;
+import com.pjb.pool.RedisCircuitBreaker;
+import com.pjb.pool.StripedJedisPool;
+import com.pjb.properties.RedisCacheProperties;
 import com.pjb.properties.RedisProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
-import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Redis配置类
@@ -33,12 +57,104 @@ public class RedisConfig extends CachingConfigurerSupport
 
     /**
      * Jedis连接池
+     * 设置连接超时与读取超时，避免Redis变慢时调用线程无限期阻塞
      */
     @Bean("jedis.pool")
     @Autowired
     public JedisPool jedisPool(@Qualifier("jedis.pool.config") JedisPoolConfig config)
     {
-        return new JedisPool(config, redisProperties.getHost(), redisProperties.getPort());
+        String password = redisProperties.getPassword();
+        return new DeadlineJedisPool(config, redisProperties.getHost(), redisProperties.getPort(),
+                (int) redisProperties.getConnectTimeout().toMillis(), (int) redisProperties.getTimeout().toMillis(),
+                password == null || password.isEmpty() ? null : password, redisProperties.getDatabase());
+    }
+
+    /**
+     * 分段Jedis连接池
+     * 配置 myenvironment.redis-pool.mode=striped 时启用，RedisUtils 将优先使用该连接池
+     */
+    @Bean(name = "jedis.striped.pool", destroyMethod = "close")
+    @ConditionalOnProperty(name = "myenvironment.redis-pool.mode", havingValue = "striped")
+    public StripedJedisPool stripedJedisPool(@Qualifier("jedis.pool.config") JedisPoolConfig config,
+                                             @Value("${myenvironment.redis-pool.stripes:4}") int stripes,
+                                             @Value("${myenvironment.redis-pool.max-total-limit:32}") int maxTotalLimit,
+                                             @Value("${myenvironment.redis-pool.adaptive:true}") boolean adaptive,
+                                             @Value("${myenvironment.redis-pool.target-wait:1ms}") Duration targetWait)
+    {
+        StripedJedisPool stripedJedisPool = new StripedJedisPool(config, redisProperties.getHost(), redisProperties.getPort(), stripes, maxTotalLimit,
+                (int) redisProperties.getConnectTimeout().toMillis(), (int) redisProperties.getTimeout().toMillis());
+        if (adaptive)
+        {
+            //每秒根据平均获取等待耗时调整一次总连接数
+            stripedJedisPool.enableAdaptive(1, TimeUnit.SECONDS, targetWait.toNanos(), 2);
+        }
+        return stripedJedisPool;
+    }
+
+    /**
+     * Redis只读副本连接池
+     * 配置 spring.redis.replicas 时启用，RedisUtils 的只读命令将优先使用副本
+     */
+    @Bean(name = "jedis.replica.pool", destroyMethod = "close")
+    @ConditionalOnProperty(name = "spring.redis.replicas")
+    public RedisReplicaPool redisReplicaPool(@Qualifier("jedis.pool.config") JedisPoolConfig config,
+                                             @Value("${myenvironment.redis-replica.load-balance:round-robin}") String loadBalance,
+                                             @Value("${myenvironment.redis-replica.probe-interval:1s}") Duration probeInterval)
+    {
+        List<HostAndPort> nodes = new ArrayList<>();
+        for (String replica : redisProperties.getReplicas())
+        {
+            if (!replica.trim().isEmpty())
+            {
+                nodes.add(HostAndPort.parseString(replica.trim()));
+            }
+        }
+        RedisReplicaPool.LoadBalance policy = RedisReplicaPool.LoadBalance.valueOf(loadBalance.trim().toUpperCase().replace('-', '_'));
+        return new RedisReplicaPool(config, nodes, policy, probeInterval.toMillis(),
+                (int) redisProperties.getConnectTimeout().toMillis(), (int) redisProperties.getTimeout().toMillis());
+    }
+
+    /**
+     * Redis断路器
+     * 配置 myenvironment.redis-circuit-breaker.enabled=true 时启用，
+     * 失败率或慢调用率达到阈值时 RedisUtils 获取连接直接失败（RedisFailFastException）
+     */
+    @Bean("redis.circuit.breaker")
+    @ConditionalOnProperty(name = "myenvironment.redis-circuit-breaker.enabled", havingValue = "true")
+    public RedisCircuitBreaker redisCircuitBreaker(@Value("${myenvironment.redis-circuit-breaker.window-size:100}") int windowSize,
+                                                   @Value("${myenvironment.redis-circuit-breaker.minimum-calls:20}") int minimumCalls,
+                                                   @Value("${myenvironment.redis-circuit-breaker.failure-rate:0.5}") double failureRate,
+                                                   @Value("${myenvironment.redis-circuit-breaker.slow-call-rate:0.8}") double slowCallRate,
+                                                   @Value("${myenvironment.redis-circuit-breaker.slow-call-threshold:500ms}") Duration slowCallThreshold,
+                                                   @Value("${myenvironment.redis-circuit-breaker.open-duration:5s}") Duration openDuration,
+                                                   @Value("${myenvironment.redis-circuit-breaker.half-open-calls:5}") int halfOpenCalls)
+    {
+        return new RedisCircuitBreaker(windowSize, minimumCalls, failureRate, slowCallRate,
+                slowCallThreshold.toMillis(), openDuration.toMillis(), halfOpenCalls);
+    }
+
+    /**
+     * Redis集群
+     * 配置 myenvironment.redis-cluster.enabled=true 时启用，供 RedisClusterUtils 使用
+     * JedisCluster 按槽位路由命令，并在遇到 MOVED/ASK 重定向时刷新槽位缓存后重试
+     */
+    @Bean(name = "jedis.cluster", destroyMethod = "close")
+    @ConditionalOnProperty(name = "myenvironment.redis-cluster.enabled", havingValue = "true")
+    public JedisCluster jedisCluster(@Qualifier("jedis.pool.config") JedisPoolConfig config,
+                                     @Value("${myenvironment.redis-cluster.nodes}") String nodes,
+                                     @Value("${myenvironment.redis-cluster.max-attempts:5}") int maxAttempts,
+                                     @Value("${myenvironment.redis-cluster.timeout:2s}") Duration timeout)
+    {
+        Set<HostAndPort> clusterNodes = new HashSet<>();
+        for (String node : nodes.split(","))
+        {
+            if (!node.trim().isEmpty())
+            {
+                clusterNodes.add(HostAndPort.parseString(node.trim()));
+            }
+        }
+        int timeoutMillis = (int) timeout.toMillis();
+        return new JedisCluster(clusterNodes, timeoutMillis, timeoutMillis, maxAttempts, config);
     }
 
     /**
@@ -67,37 +183,57 @@ public class RedisConfig extends CachingConfigurerSupport
     /**
      * 缓存对象集合中，缓存是以key-value形式保存的,
      * 当不指定缓存的key时，SpringBoot会使用keyGenerator生成Key。
+     * 键格式：方法ID:参数1:参数2...，方法ID为类名与方法签名的短哈希
      */
     @Bean
-    public KeyGenerator keyGenerator()
+    public KeyGenerator keyGenerator(RedisCacheProperties cacheProperties)
     {
-        return new KeyGenerator()
-        {
-            @Override
-            public Object generate(Object target, Method method, Object... params) {
-                StringBuilder sb = new StringBuilder();
-                //类名+方法名
-                sb.append(target.getClass().getName());
-                sb.append(method.getName());
-                for (Object obj : params) {
-                    sb.append(obj.toString());
-                }
-                return sb.toString();
-            }
-        };
+        return new CompactKeyGenerator(cacheProperties.getMaxKeyParamsLength());
     }
 
     /**
      * 缓存管理器
+     * 按 myenvironment.redis-cache 配置每个缓存的过期时间（带随机抖动）、键前缀简称与 null 值策略，
+     * 值使用CBOR二进制序列化
      */
-    @SuppressWarnings("rawtypes")
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory)
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, RedisCacheProperties cacheProperties)
     {
-        RedisCacheManager cacheManager = RedisCacheManager.create(connectionFactory);
-        //设置缓存过期时间
+        RedisCacheWriter cacheWriter = new JitterRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), cacheProperties.getTtlJitter());
+        if (cacheProperties.isStatistics())
+        {
+            cacheWriter = cacheWriter.withStatisticsCollector(CacheStatisticsCollector.create());
+        }
+
+        //缓存键格式：键前缀 + 缓存简称 + ":" + 键，替代默认的“缓存名称::键”
+        Map<String, RedisCacheProperties.CacheSpec> caches = cacheProperties.getCaches();
+        CacheKeyPrefix keyPrefix = cacheName ->
+        {
+            RedisCacheProperties.CacheSpec spec = caches.get(cacheName);
+            String alias = spec != null && spec.getAlias() != null ? spec.getAlias() : cacheName;
+            return cacheProperties.getKeyPrefix() + alias + ":";
+        };
+
+        RedisCacheConfiguration defaultConfig = cacheConfiguration(RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new CborRedisSerializer(cacheProperties.getTrustedPackages())))
+                .computePrefixWith(keyPrefix), cacheProperties.getDefaultTtl(), cacheProperties.isCacheNullValues());
+
+        Map<String, RedisCacheConfiguration> cacheConfigs = new LinkedHashMap<>();
+        caches.forEach((cacheName, spec) -> cacheConfigs.put(cacheName, cacheConfiguration(defaultConfig,
+                spec.getTtl() != null ? spec.getTtl() : cacheProperties.getDefaultTtl(),
+                spec.getCacheNullValues() != null ? spec.getCacheNullValues() : cacheProperties.isCacheNullValues())));
+
+        return new CompactRedisCacheManager(cacheWriter, defaultConfig, cacheConfigs);
+    }
 
-        return cacheManager;
+    /**
+     * 设置缓存的过期时间与 null 值策略
+     */
+    private static RedisCacheConfiguration cacheConfiguration(RedisCacheConfiguration config, Duration ttl, boolean cacheNullValues)
+    {
+        RedisCacheConfiguration result = config.entryTtl(ttl != null ? ttl : Duration.ZERO);
+        return cacheNullValues ? result : result.disableCachingNullValues();
     }
 
     /**
@@ -107,13 +243,22 @@ public class RedisConfig extends CachingConfigurerSupport
     public RedisTemplate<String, String> redisTemplate(RedisConnectionFactory factory)
     {
         StringRedisTemplate template = new StringRedisTemplate(factory);
+        template.setValueSerializer(jackson2JsonRedisSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * 创建RedisTemplate使用的Jackson序列化器
+     */
+    @SuppressWarnings({"rawtypes", "unchecked", "deprecation"})
+    public static Jackson2JsonRedisSerializer jackson2JsonRedisSerializer()
+    {
         Jackson2JsonRedisSerializer jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer(Object.class);
         ObjectMapper om = new ObjectMapper();
         om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
         om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
         jackson2JsonRedisSerializer.setObjectMapper(om);
-        template.setValueSerializer(jackson2JsonRedisSerializer);
-        template.afterPropertiesSet();
-        return template;
+        return jackson2JsonRedisSerializer;
     }
 }
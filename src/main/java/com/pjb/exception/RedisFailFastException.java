@@ -0,0 +1,14 @@
+package com.pjb.exception;
+
+/**
+ * Redis快速失败异常类
+ * 断路器打开或调用已超过截止时间时，不访问Redis直接抛出
+ * @author pan_junbiao
+ **/
+public class RedisFailFastException extends RedisRuntimeException
+{
+    public RedisFailFastException(String message)
+    {
+        super(message);
+    }
+}
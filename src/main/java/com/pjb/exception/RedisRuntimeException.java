@@ -0,0 +1,24 @@
+package com.pjb.exception;
+
+/**
+ * Redis运行时异常类
+ * 用于迭代器、流等无法抛出受检异常的场景
+ * @author pan_junbiao
+ **/
+public class RedisRuntimeException extends RuntimeException
+{
+    public RedisRuntimeException(String message, Throwable cause)
+    {
+        super("Redis服务异常：" + message, cause);
+    }
+
+    public RedisRuntimeException(String message)
+    {
+        super("Redis服务异常：" + message);
+    }
+
+    public RedisRuntimeException(Throwable cause)
+    {
+        super("Redis服务异常：", cause);
+    }
+}
@@ -0,0 +1,142 @@
+package com.pjb.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁直方图
+ * 采用对数-线性分桶（每个2的幂区间再线性划分为8个子桶，相对误差不超过12.5%），
+ * 桶数组在创建时一次性分配，记录数据时不产生任何对象分配。
+ * @author pan_junbiao
+ **/
+public class RedisHistogram
+{
+    //每个2的幂区间的子桶数量（2^3）
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    //桶的数量，可覆盖 long 的全部正数范围
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值，负数按0处理
+     */
+    public void record(long value)
+    {
+        if (value < 0)
+        {
+            value = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value))
+        {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * 记录的数量
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * 记录的总和
+     */
+    public long getSum()
+    {
+        return sum.get();
+    }
+
+    /**
+     * 记录的最大值
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * 平均值
+     */
+    public double getMean()
+    {
+        long total = count.get();
+        return total > 0 ? (double) sum.get() / total : 0;
+    }
+
+    /**
+     * 获取百分位值
+     * @param percentile 百分位（0~100）
+     * @return 百分位所在桶的下界
+     */
+    public long getPercentile(double percentile)
+    {
+        long total = count.get();
+        if (total == 0)
+        {
+            return 0;
+        }
+        long threshold = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            accumulated += buckets.get(i);
+            if (accumulated >= threshold)
+            {
+                return Math.min(bucketValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset()
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    private static int bucketIndex(long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+        {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long bucketValue(int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        return (long) (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+}
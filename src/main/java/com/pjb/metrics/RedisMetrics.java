@@ -0,0 +1,656 @@
+package com.pjb.metrics;
+
+import com.pjb.cache.CompactRedisCacheManager;
+import com.pjb.common.RedisCommandType;
+import com.pjb.pool.RedisCircuitBreaker;
+import com.pjb.pool.StripedJedisPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPool;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Redis指标统计
+ * 按命令统计执行耗时、异常次数与数据大小，并统计从连接池获取连接的等待耗时。
+ * 所有统计数据在启动时按命令类型预先分配，记录时不产生对象分配。
+ * 指标通过JMX（com.pjb:type=RedisMetrics）以及 RedisMetricsExporter 导出。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisMetrics implements RedisMetricsMXBean
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisMetrics.class);
+
+    private static final String OBJECT_NAME = "com.pjb:type=RedisMetrics";
+
+    private static final RedisCommandType[] COMMAND_TYPES = RedisCommandType.values();
+
+    //当前线程持有的只读副本连接数量，大于0时命令的结果不记录到断路器（断路器只统计主节点）
+    private static final ThreadLocal<int[]> REPLICA_CONNECTIONS = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Autowired
+    private JedisPool jedisPool;
+
+    @Autowired(required = false)
+    private StripedJedisPool stripedJedisPool;
+
+    //断路器，配置 myenvironment.redis-circuit-breaker.enabled=true 时启用，主节点命令的结果同时记录到断路器
+    @Autowired(required = false)
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    //Spring缓存管理器，用于导出缓存统计
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+
+    //指标导出器
+    @Autowired(required = false)
+    private List<RedisMetricsExporter> exporters = Collections.emptyList();
+
+    //是否启用指标统计
+    @Value("${myenvironment.redis-metrics.enabled:true}")
+    private boolean enabled;
+
+    //是否注册JMX
+    @Value("${myenvironment.redis-metrics.jmx-enabled:true}")
+    private boolean jmxEnabled;
+
+    //指标导出的间隔时间
+    @Value("${myenvironment.redis-metrics.export-interval:60s}")
+    private Duration exportInterval;
+
+    //各命令的执行耗时（纳秒）
+    private final RedisHistogram[] commandLatency = newHistograms();
+
+    //各命令的数据大小（字节）
+    private final RedisHistogram[] payloadSize = newHistograms();
+
+    //各命令的异常次数
+    private final AtomicLongArray commandErrors = new AtomicLongArray(COMMAND_TYPES.length);
+
+    //各异常类型的异常次数
+    private final ConcurrentHashMap<Class<?>, LongAdder> errorCounts = new ConcurrentHashMap<>();
+
+    //从连接池获取连接的等待耗时（纳秒）
+    private final RedisHistogram poolWait = new RedisHistogram();
+
+    //值压缩前后的总字节数
+    private final LongAdder compressionRawBytes = new LongAdder();
+    private final LongAdder compressionStoredBytes = new LongAdder();
+
+    //值压缩与解压的耗时（纳秒）
+    private final RedisHistogram compressionTime = new RedisHistogram();
+    private final RedisHistogram decompressionTime = new RedisHistogram();
+
+    //对冲读取的次数，以及对冲请求先返回的次数
+    private final LongAdder hedgedReads = new LongAdder();
+    private final LongAdder hedgedReadWins = new LongAdder();
+
+    private ObjectName objectName;
+
+    private ScheduledExecutorService exportScheduler;
+
+    @PostConstruct
+    public void init()
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+
+        if (this.jmxEnabled)
+        {
+            try
+            {
+                MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+                this.objectName = new ObjectName(OBJECT_NAME);
+                if (mBeanServer.isRegistered(this.objectName))
+                {
+                    mBeanServer.unregisterMBean(this.objectName);
+                }
+                mBeanServer.registerMBean(this, this.objectName);
+            }
+            catch (Exception ex)
+            {
+                this.objectName = null;
+                logger.warn("Redis指标注册JMX失败：{}", ex.getMessage());
+            }
+        }
+
+        if (!this.exporters.isEmpty() && !this.exportInterval.isZero() && !this.exportInterval.isNegative())
+        {
+            this.exportScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, "redis-metrics-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = this.exportInterval.toMillis();
+            this.exportScheduler.scheduleAtFixedRate(this::export, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        if (this.exportScheduler != null)
+        {
+            this.exportScheduler.shutdown();
+        }
+        if (this.objectName != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+            }
+            catch (Exception ex)
+            {
+                logger.warn("Redis指标注销JMX失败：{}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 记录命令执行耗时
+     * @param command 命令类型
+     * @param startTime 开始时间（System.nanoTime()）
+     */
+    public void recordCommand(RedisCommandType command, long startTime)
+    {
+        RedisCircuitBreaker circuitBreaker = primaryCircuitBreaker();
+        if (this.enabled || circuitBreaker != null)
+        {
+            long duration = System.nanoTime() - startTime;
+            if (this.enabled)
+            {
+                commandLatency[command.ordinal()].record(duration);
+            }
+            if (circuitBreaker != null)
+            {
+                circuitBreaker.onSuccess(duration);
+            }
+        }
+    }
+
+    /**
+     * 记录命令异常
+     * @param command 命令类型
+     * @param ex 异常
+     */
+    public void recordError(RedisCommandType command, Throwable ex)
+    {
+        if (this.enabled)
+        {
+            commandErrors.incrementAndGet(command.ordinal());
+            errorCounts.computeIfAbsent(ex.getClass(), type -> new LongAdder()).increment();
+        }
+        RedisCircuitBreaker circuitBreaker = primaryCircuitBreaker();
+        if (circuitBreaker != null)
+        {
+            circuitBreaker.onError(ex);
+        }
+    }
+
+    /**
+     * 当前线程借用了只读副本的连接，归还之前记录的命令结果不计入主节点的断路器
+     */
+    public void replicaAcquired()
+    {
+        REPLICA_CONNECTIONS.get()[0]++;
+    }
+
+    /**
+     * 当前线程归还了只读副本的连接
+     */
+    public void replicaReleased()
+    {
+        int[] connections = REPLICA_CONNECTIONS.get();
+        if (connections[0] > 0)
+        {
+            connections[0]--;
+        }
+    }
+
+    /**
+     * 当前线程使用主节点连接时返回断路器，使用只读副本连接或未启用断路器时返回 null
+     * 副本变慢或不可用不应打开主节点的断路器
+     */
+    private RedisCircuitBreaker primaryCircuitBreaker()
+    {
+        if (this.redisCircuitBreaker == null || REPLICA_CONNECTIONS.get()[0] > 0)
+        {
+            return null;
+        }
+        return this.redisCircuitBreaker;
+    }
+
+    /**
+     * 记录命令的数据大小
+     * @param command 命令类型
+     * @param value 数据
+     */
+    public void recordPayload(RedisCommandType command, String value)
+    {
+        if (this.enabled && value != null)
+        {
+            payloadSize[command.ordinal()].record(utf8Length(value));
+        }
+    }
+
+    /**
+     * 记录命令的数据大小
+     * @param command 命令类型
+     * @param bytes 数据大小（字节）
+     */
+    public void recordPayload(RedisCommandType command, long bytes)
+    {
+        if (this.enabled)
+        {
+            payloadSize[command.ordinal()].record(bytes);
+        }
+    }
+
+    /**
+     * 记录从连接池获取连接的等待耗时
+     * @param startTime 开始时间（System.nanoTime()）
+     */
+    public void recordPoolWait(long startTime)
+    {
+        if (this.enabled)
+        {
+            poolWait.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 记录值压缩
+     * @param rawBytes 压缩前的字节数
+     * @param storedBytes 实际保存的字节数（压缩无效时与压缩前相同）
+     * @param startTime 开始时间（System.nanoTime()）
+     */
+    public void recordCompression(long rawBytes, long storedBytes, long startTime)
+    {
+        if (this.enabled)
+        {
+            compressionTime.record(System.nanoTime() - startTime);
+            compressionRawBytes.add(rawBytes);
+            compressionStoredBytes.add(storedBytes);
+        }
+    }
+
+    /**
+     * 记录值解压
+     * @param startTime 开始时间（System.nanoTime()）
+     */
+    public void recordDecompression(long startTime)
+    {
+        if (this.enabled)
+        {
+            decompressionTime.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 记录对冲读取
+     * @param hedgeWon 是否由对冲请求先返回
+     */
+    public void recordHedgedRead(boolean hedgeWon)
+    {
+        if (this.enabled)
+        {
+            hedgedReads.increment();
+            if (hedgeWon)
+            {
+                hedgedReadWins.increment();
+            }
+        }
+    }
+
+    /**
+     * 获取命令执行耗时直方图（纳秒）
+     */
+    public RedisHistogram getCommandLatency(RedisCommandType command)
+    {
+        return commandLatency[command.ordinal()];
+    }
+
+    /**
+     * 获取命令数据大小直方图（字节）
+     */
+    public RedisHistogram getPayloadSize(RedisCommandType command)
+    {
+        return payloadSize[command.ordinal()];
+    }
+
+    /**
+     * 获取从连接池获取连接的等待耗时直方图（纳秒）
+     */
+    public RedisHistogram getPoolWait()
+    {
+        return poolWait;
+    }
+
+    /************************ JMX *************************/
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts()
+    {
+        return toLongMap(commandLatency, RedisHistogram::getCount, 1);
+    }
+
+    @Override
+    public Map<String, Double> getCommandMeanMicros()
+    {
+        return toDoubleMap(commandLatency, RedisHistogram::getMean, 1000.0);
+    }
+
+    @Override
+    public Map<String, Long> getCommandP99Micros()
+    {
+        return toLongMap(commandLatency, histogram -> histogram.getPercentile(99), 1000);
+    }
+
+    @Override
+    public Map<String, Long> getCommandMaxMicros()
+    {
+        return toLongMap(commandLatency, RedisHistogram::getMax, 1000);
+    }
+
+    @Override
+    public Map<String, Long> getCommandErrorCounts()
+    {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (RedisCommandType command : COMMAND_TYPES)
+        {
+            long errors = commandErrors.get(command.ordinal());
+            if (errors > 0)
+            {
+                result.put(command.name(), errors);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts()
+    {
+        Map<String, Long> result = new LinkedHashMap<>();
+        errorCounts.forEach((type, counter) -> result.put(type.getName(), counter.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getPayloadMeanBytes()
+    {
+        return toDoubleMap(payloadSize, RedisHistogram::getMean, 1.0);
+    }
+
+    @Override
+    public long getPoolWaitCount()
+    {
+        return poolWait.getCount();
+    }
+
+    @Override
+    public double getPoolWaitMeanMicros()
+    {
+        return poolWait.getMean() / 1000.0;
+    }
+
+    @Override
+    public long getPoolWaitP99Micros()
+    {
+        return poolWait.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getPoolWaitMaxMicros()
+    {
+        return poolWait.getMax() / 1000;
+    }
+
+    @Override
+    public int getPoolNumActive()
+    {
+        return stripedJedisPool != null ? stripedJedisPool.getNumActive() : jedisPool.getNumActive();
+    }
+
+    @Override
+    public int getPoolNumIdle()
+    {
+        return stripedJedisPool != null ? stripedJedisPool.getNumIdle() : jedisPool.getNumIdle();
+    }
+
+    @Override
+    public int getPoolNumWaiters()
+    {
+        return stripedJedisPool != null ? stripedJedisPool.getNumWaiters() : jedisPool.getNumWaiters();
+    }
+
+    @Override
+    public long getCompressionCount()
+    {
+        return compressionTime.getCount();
+    }
+
+    @Override
+    public double getCompressionRatio()
+    {
+        long rawBytes = compressionRawBytes.sum();
+        return rawBytes > 0 ? (double) compressionStoredBytes.sum() / rawBytes : 1.0;
+    }
+
+    @Override
+    public double getCompressionMeanMicros()
+    {
+        return compressionTime.getMean() / 1000.0;
+    }
+
+    @Override
+    public long getDecompressionCount()
+    {
+        return decompressionTime.getCount();
+    }
+
+    @Override
+    public double getDecompressionMeanMicros()
+    {
+        return decompressionTime.getMean() / 1000.0;
+    }
+
+    @Override
+    public String getCircuitBreakerState()
+    {
+        return redisCircuitBreaker != null ? redisCircuitBreaker.getState().name() : "DISABLED";
+    }
+
+    @Override
+    public long getCircuitBreakerOpenCount()
+    {
+        return redisCircuitBreaker != null ? redisCircuitBreaker.getOpenCount() : 0;
+    }
+
+    @Override
+    public long getCircuitBreakerRejectedCount()
+    {
+        return redisCircuitBreaker != null ? redisCircuitBreaker.getRejectedCount() : 0;
+    }
+
+    @Override
+    public long getHedgedReadCount()
+    {
+        return hedgedReads.sum();
+    }
+
+    @Override
+    public long getHedgedReadWinCount()
+    {
+        return hedgedReadWins.sum();
+    }
+
+    @Override
+    public Map<String, Long> getCacheHitCounts()
+    {
+        return toCacheMap(CacheStatistics::getHits);
+    }
+
+    @Override
+    public Map<String, Long> getCacheMissCounts()
+    {
+        return toCacheMap(CacheStatistics::getMisses);
+    }
+
+    @Override
+    public Map<String, Long> getCachePutCounts()
+    {
+        return toCacheMap(CacheStatistics::getPuts);
+    }
+
+    @Override
+    public void reset()
+    {
+        for (int i = 0; i < COMMAND_TYPES.length; i++)
+        {
+            commandLatency[i].reset();
+            payloadSize[i].reset();
+            commandErrors.set(i, 0);
+        }
+        errorCounts.clear();
+        poolWait.reset();
+        compressionRawBytes.reset();
+        compressionStoredBytes.reset();
+        compressionTime.reset();
+        decompressionTime.reset();
+        hedgedReads.reset();
+        hedgedReadWins.reset();
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        if (cacheManager instanceof CompactRedisCacheManager)
+        {
+            ((CompactRedisCacheManager) cacheManager).clearStatistics();
+        }
+    }
+
+    /**
+     * 计算字符串的UTF-8编码字节数，不进行实际编码
+     */
+    public static long utf8Length(String value)
+    {
+        long length = 0;
+        for (int i = 0, size = value.length(); i < size; i++)
+        {
+            char ch = value.charAt(i);
+            if (ch < 0x80)
+            {
+                length += 1;
+            }
+            else if (ch < 0x800)
+            {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(ch) && i + 1 < size && Character.isLowSurrogate(value.charAt(i + 1)))
+            {
+                length += 4;
+                i++;
+            }
+            else
+            {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void export()
+    {
+        for (RedisMetricsExporter exporter : this.exporters)
+        {
+            try
+            {
+                exporter.export(this);
+            }
+            catch (Exception ex)
+            {
+                logger.warn("Redis指标导出失败：{}", ex.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Long> toCacheMap(ToLongFunction<CacheStatistics> getter)
+    {
+        Map<String, Long> result = new LinkedHashMap<>();
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        if (cacheManager instanceof CompactRedisCacheManager)
+        {
+            ((CompactRedisCacheManager) cacheManager).getStatistics()
+                    .forEach((cacheName, statistics) -> result.put(cacheName, getter.applyAsLong(statistics)));
+        }
+        return result;
+    }
+
+    private static RedisHistogram[] newHistograms()
+    {
+        RedisHistogram[] histograms = new RedisHistogram[COMMAND_TYPES.length];
+        for (int i = 0; i < histograms.length; i++)
+        {
+            histograms[i] = new RedisHistogram();
+        }
+        return histograms;
+    }
+
+    private static Map<String, Long> toLongMap(RedisHistogram[] histograms, ToLongFunction<RedisHistogram> getter, long divisor)
+    {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (RedisCommandType command : COMMAND_TYPES)
+        {
+            RedisHistogram histogram = histograms[command.ordinal()];
+            if (histogram.getCount() > 0)
+            {
+                result.put(command.name(), getter.applyAsLong(histogram) / divisor);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Double> toDoubleMap(RedisHistogram[] histograms, ToDoubleFunction<RedisHistogram> getter, double divisor)
+    {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (RedisCommandType command : COMMAND_TYPES)
+        {
+            RedisHistogram histogram = histograms[command.ordinal()];
+            if (histogram.getCount() > 0)
+            {
+                result.put(command.name(), getter.applyAsDouble(histogram) / divisor);
+            }
+        }
+        return result;
+    }
+}
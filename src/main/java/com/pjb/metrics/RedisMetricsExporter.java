@@ -0,0 +1,17 @@
+package com.pjb.metrics;
+
+/**
+ * Redis指标导出接口
+ * 实现该接口并注册为Spring Bean，即可按 myenvironment.redis-metrics.export-interval
+ * 定期将指标导出到外部指标系统（如Micrometer、Prometheus等）。
+ * @author pan_junbiao
+ **/
+@FunctionalInterface
+public interface RedisMetricsExporter
+{
+    /**
+     * 导出指标
+     * @param metrics Redis指标
+     */
+    void export(RedisMetrics metrics);
+}
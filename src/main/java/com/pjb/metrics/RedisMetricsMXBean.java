@@ -0,0 +1,157 @@
+package com.pjb.metrics;
+
+import java.util.Map;
+
+/**
+ * Redis指标JMX接口
+ * 对象名称：com.pjb:type=RedisMetrics
+ * 耗时单位均为微秒
+ * @author pan_junbiao
+ **/
+public interface RedisMetricsMXBean
+{
+    /**
+     * 是否启用指标统计
+     */
+    boolean isEnabled();
+
+    /**
+     * 各命令的执行次数
+     */
+    Map<String, Long> getCommandCounts();
+
+    /**
+     * 各命令执行耗时的平均值
+     */
+    Map<String, Double> getCommandMeanMicros();
+
+    /**
+     * 各命令执行耗时的P99值
+     */
+    Map<String, Long> getCommandP99Micros();
+
+    /**
+     * 各命令执行耗时的最大值
+     */
+    Map<String, Long> getCommandMaxMicros();
+
+    /**
+     * 各命令的异常次数
+     */
+    Map<String, Long> getCommandErrorCounts();
+
+    /**
+     * 各异常类型的异常次数
+     */
+    Map<String, Long> getErrorCounts();
+
+    /**
+     * 各命令数据大小（字节）的平均值
+     */
+    Map<String, Double> getPayloadMeanBytes();
+
+    /**
+     * 从连接池获取连接的等待次数
+     */
+    long getPoolWaitCount();
+
+    /**
+     * 从连接池获取连接的平均等待耗时
+     */
+    double getPoolWaitMeanMicros();
+
+    /**
+     * 从连接池获取连接等待耗时的P99值
+     */
+    long getPoolWaitP99Micros();
+
+    /**
+     * 从连接池获取连接等待耗时的最大值
+     */
+    long getPoolWaitMaxMicros();
+
+    /**
+     * 连接池中正在使用的连接数
+     */
+    int getPoolNumActive();
+
+    /**
+     * 连接池中的空闲连接数
+     */
+    int getPoolNumIdle();
+
+    /**
+     * 正在等待获取连接的线程数
+     */
+    int getPoolNumWaiters();
+
+    /**
+     * 值压缩的次数
+     */
+    long getCompressionCount();
+
+    /**
+     * 值压缩率：实际保存的字节数 / 压缩前的字节数
+     */
+    double getCompressionRatio();
+
+    /**
+     * 值压缩的平均耗时
+     */
+    double getCompressionMeanMicros();
+
+    /**
+     * 值解压的次数
+     */
+    long getDecompressionCount();
+
+    /**
+     * 值解压的平均耗时
+     */
+    double getDecompressionMeanMicros();
+
+    /**
+     * 断路器状态：CLOSED、OPEN、HALF_OPEN，未启用时为 DISABLED
+     */
+    String getCircuitBreakerState();
+
+    /**
+     * 断路器打开的次数
+     */
+    long getCircuitBreakerOpenCount();
+
+    /**
+     * 断路器打开期间被拒绝的调用次数
+     */
+    long getCircuitBreakerRejectedCount();
+
+    /**
+     * 发出对冲请求的读取次数
+     */
+    long getHedgedReadCount();
+
+    /**
+     * 对冲请求先返回的次数
+     */
+    long getHedgedReadWinCount();
+
+    /**
+     * Spring缓存各缓存的命中次数
+     */
+    Map<String, Long> getCacheHitCounts();
+
+    /**
+     * Spring缓存各缓存的未命中次数
+     */
+    Map<String, Long> getCacheMissCounts();
+
+    /**
+     * Spring缓存各缓存的写入次数
+     */
+    Map<String, Long> getCachePutCounts();
+
+    /**
+     * 清空所有统计数据
+     */
+    void reset();
+}
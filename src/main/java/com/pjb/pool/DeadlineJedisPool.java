@@ -0,0 +1,69 @@
+package com.pjb.pool;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisExhaustedPoolException;
+
+import java.util.NoSuchElementException;
+
+/**
+ * 支持按调用指定等待时间的Jedis连接池
+ * getResource() 按连接池配置的 maxWait 等待，getResource(maxWaitMillis) 最多等待指定的时间，
+ * 用于调用有截止时间时，获取连接的等待时间不超过剩余时间。
+ * @author pan_junbiao
+ **/
+public class DeadlineJedisPool extends JedisPool
+{
+    /**
+     * @param config 连接池配置
+     * @param host Redis服务器地址
+     * @param port Redis服务器连接端口
+     * @param connectionTimeout 连接超时时间（毫秒）
+     * @param soTimeout 读取超时时间（毫秒）
+     */
+    public DeadlineJedisPool(JedisPoolConfig config, String host, int port, int connectionTimeout, int soTimeout)
+    {
+        this(config, host, port, connectionTimeout, soTimeout, null, Protocol.DEFAULT_DATABASE);
+    }
+
+    /**
+     * @param config 连接池配置
+     * @param host Redis服务器地址
+     * @param port Redis服务器连接端口
+     * @param connectionTimeout 连接超时时间（毫秒）
+     * @param soTimeout 读取超时时间（毫秒）
+     * @param password Redis服务器连接密码，没有密码时为 null
+     * @param database Redis数据库索引
+     */
+    public DeadlineJedisPool(JedisPoolConfig config, String host, int port, int connectionTimeout, int soTimeout,
+                             String password, int database)
+    {
+        super(config, host, port, connectionTimeout, soTimeout, password, database, null);
+    }
+
+    /**
+     * 获取Jedis对象，最多等待指定的时间
+     * 使用完毕后调用 Jedis.close() 归还
+     * @param maxWaitMillis 最大等待时间（毫秒），负数表示一直等待
+     */
+    public Jedis getResource(long maxWaitMillis)
+    {
+        try
+        {
+            Jedis jedis = internalPool.borrowObject(maxWaitMillis);
+            jedis.setDataSource(this);
+            return jedis;
+        }
+        catch (NoSuchElementException ex)
+        {
+            throw new JedisExhaustedPoolException("Could not get a resource from the pool within " + maxWaitMillis + "ms", ex);
+        }
+        catch (Exception ex)
+        {
+            throw new JedisConnectionException("Could not get a resource from the pool", ex);
+        }
+    }
+}
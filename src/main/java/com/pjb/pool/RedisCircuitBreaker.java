@@ -0,0 +1,326 @@
+package com.pjb.pool;
+
+import com.pjb.exception.RedisFailFastException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisExhaustedPoolException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis断路器
+ * 按最近 windowSize 次调用的结果统计失败率与慢调用率，任一比例达到阈值时打开断路器，
+ * 打开期间获取连接直接失败，不再等待已经变慢或不可用的Redis；
+ * 打开 openDuration 之后进入半开状态，放行 halfOpenCalls 次试探调用，全部成功时关闭，任一失败时重新打开；
+ * 试探调用放行完之后超过 openDuration 仍未全部返回结果（如订阅连接一直不返回），重新放行一轮试探调用。
+ * 只有连接异常、超时与连接池耗尽计为失败，命令错误（如 WRONGTYPE）说明Redis已正常响应，计为成功。
+ * 记录调用结果使用原子变量，不加锁，只有状态切换时加锁。
+ * @author pan_junbiao
+ **/
+public class RedisCircuitBreaker
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    /**
+     * 断路器状态
+     */
+    public enum State
+    {
+        CLOSED, //关闭：正常放行
+        OPEN, //打开：快速失败
+        HALF_OPEN //半开：放行少量试探调用
+    }
+
+    //调用结果，槽位初始值0表示没有调用
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    private static final int SLOW = 3;
+
+    //统计的调用次数
+    private final int windowSize;
+
+    //失败率阈值（0~1）
+    private final double failureRateThreshold;
+
+    //慢调用率阈值（0~1）
+    private final double slowRateThreshold;
+
+    //慢调用耗时阈值（纳秒）
+    private final long slowCallNanos;
+
+    //最少调用次数，达到后才计算比例
+    private final int minimumCalls;
+
+    //打开状态的持续时间，同时作为半开状态等待试探结果的超时时间（纳秒）
+    private final long openNanos;
+
+    //半开状态的试探调用次数
+    private final int halfOpenCalls;
+
+    private volatile State state = State.CLOSED;
+
+    //关闭状态的统计窗口，关闭时整体替换
+    private volatile Window window;
+
+    //半开状态的一轮试探，进入半开状态或重新放行时整体替换
+    private volatile Probe probe;
+
+    //进入打开状态的时间
+    private volatile long openedAt;
+
+    //打开次数与被拒绝的调用次数
+    private final LongAdder openCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param windowSize 统计的调用次数
+     * @param minimumCalls 最少调用次数
+     * @param failureRateThreshold 失败率阈值（0~1）
+     * @param slowRateThreshold 慢调用率阈值（0~1）
+     * @param slowCallMillis 慢调用耗时阈值（毫秒）
+     * @param openMillis 打开状态的持续时间（毫秒）
+     * @param halfOpenCalls 半开状态的试探调用次数
+     */
+    public RedisCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowRateThreshold,
+                               long slowCallMillis, long openMillis, int halfOpenCalls)
+    {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowRateThreshold = slowRateThreshold;
+        this.slowCallNanos = slowCallMillis * 1_000_000L;
+        this.openNanos = openMillis * 1_000_000L;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.window = new Window(this.windowSize);
+    }
+
+    /**
+     * 获取调用许可
+     * @return false：断路器打开，调用方应快速失败
+     */
+    public boolean tryAcquire()
+    {
+        if (state == State.CLOSED)
+        {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (state == State.OPEN && now - openedAt >= openNanos)
+        {
+            synchronized (this)
+            {
+                if (state == State.OPEN && now - openedAt >= openNanos)
+                {
+                    transition(State.HALF_OPEN);
+                }
+            }
+        }
+        if (state == State.HALF_OPEN)
+        {
+            Probe current = probe;
+            if (current.permits.getAndDecrement() > 0)
+            {
+                return true;
+            }
+            if (now - current.startedAt >= openNanos)
+            {
+                //本轮试探调用未全部返回结果，重新放行一轮
+                synchronized (this)
+                {
+                    if (state == State.HALF_OPEN && probe == current)
+                    {
+                        logger.warn("Redis断路器半开状态等待试探结果超时，重新放行 " + halfOpenCalls + " 次试探调用");
+                        probe = new Probe(halfOpenCalls);
+                    }
+                }
+                if (state == State.HALF_OPEN && probe.permits.getAndDecrement() > 0)
+                {
+                    return true;
+                }
+            }
+        }
+        if (state == State.CLOSED)
+        {
+            return true;
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    /**
+     * 记录调用成功
+     * @param durationNanos 调用耗时（纳秒）
+     */
+    public void onSuccess(long durationNanos)
+    {
+        record(durationNanos >= slowCallNanos ? SLOW : SUCCESS);
+    }
+
+    /**
+     * 记录调用异常，连接异常、超时与连接池耗尽计为失败，其他异常说明Redis已正常响应，计为成功
+     * 快速失败的调用没有访问Redis，不计入
+     */
+    public void onError(Throwable ex)
+    {
+        if (ex instanceof RedisFailFastException)
+        {
+            return;
+        }
+        if (ex instanceof JedisConnectionException || ex instanceof JedisExhaustedPoolException)
+        {
+            record(FAILURE);
+        }
+        else
+        {
+            record(SUCCESS);
+        }
+    }
+
+    public State getState()
+    {
+        return state;
+    }
+
+    public long getOpenCount()
+    {
+        return openCount.sum();
+    }
+
+    public long getRejectedCount()
+    {
+        return rejectedCount.sum();
+    }
+
+    private void record(int outcome)
+    {
+        State current = state;
+        if (current == State.OPEN)
+        {
+            //打开之前已放行的调用，结果不再统计
+            return;
+        }
+        if (current == State.HALF_OPEN)
+        {
+            Probe currentProbe = probe;
+            if (outcome != SUCCESS)
+            {
+                transitionFrom(State.HALF_OPEN, State.OPEN);
+            }
+            else if (currentProbe.successes.incrementAndGet() >= halfOpenCalls)
+            {
+                transitionFrom(State.HALF_OPEN, State.CLOSED);
+            }
+            return;
+        }
+
+        Window currentWindow = window;
+        currentWindow.add(outcome);
+        int calls = currentWindow.calls();
+        if (calls >= minimumCalls
+                && ((double) currentWindow.failures.get() / calls >= failureRateThreshold
+                || (double) currentWindow.slows.get() / calls >= slowRateThreshold))
+        {
+            transitionFrom(State.CLOSED, State.OPEN);
+        }
+    }
+
+    private synchronized void transitionFrom(State expected, State target)
+    {
+        if (state == expected)
+        {
+            transition(target);
+        }
+    }
+
+    private void transition(State target)
+    {
+        Window current = window;
+        logger.warn("Redis断路器状态：" + state + " -> " + target
+                + "（失败 " + current.failures.get() + "，慢调用 " + current.slows.get() + "，共 " + current.calls() + " 次）");
+        if (target == State.OPEN)
+        {
+            openedAt = System.nanoTime();
+            openCount.increment();
+        }
+        else if (target == State.HALF_OPEN)
+        {
+            probe = new Probe(halfOpenCalls);
+        }
+        else
+        {
+            window = new Window(windowSize);
+        }
+        state = target;
+    }
+
+    /**
+     * 最近调用结果的环形缓冲区
+     * 每次调用占用一个槽位，替换槽位中的旧结果时同步调整失败与慢调用计数
+     */
+    private static final class Window
+    {
+        private final AtomicIntegerArray slots;
+
+        private final AtomicLong sequence = new AtomicLong();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger slows = new AtomicInteger();
+
+        Window(int size)
+        {
+            this.slots = new AtomicIntegerArray(size);
+        }
+
+        void add(int outcome)
+        {
+            int index = (int) (sequence.getAndIncrement() % slots.length());
+            int removed = slots.getAndSet(index, outcome);
+            if (removed == FAILURE)
+            {
+                failures.decrementAndGet();
+            }
+            else if (removed == SLOW)
+            {
+                slows.decrementAndGet();
+            }
+            if (outcome == FAILURE)
+            {
+                failures.incrementAndGet();
+            }
+            else if (outcome == SLOW)
+            {
+                slows.incrementAndGet();
+            }
+        }
+
+        int calls()
+        {
+            return (int) Math.min(sequence.get(), slots.length());
+        }
+    }
+
+    /**
+     * 半开状态的一轮试探
+     */
+    private static final class Probe
+    {
+        //剩余的试探调用许可
+        private final AtomicInteger permits;
+
+        //已成功的试探调用次数
+        private final AtomicInteger successes = new AtomicInteger();
+
+        //本轮试探开始的时间
+        private final long startedAt = System.nanoTime();
+
+        Probe(int permits)
+        {
+            this.permits = new AtomicInteger(permits);
+        }
+    }
+}
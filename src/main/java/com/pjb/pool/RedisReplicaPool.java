@@ -0,0 +1,256 @@
+package com.pjb.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis只读副本连接池
+ * 为每个副本维护一个连接池，按负载均衡策略选择副本，供只读命令使用。
+ * 后台线程定期对每个副本执行PING，记录往返耗时的指数移动平均值，并将无法连接的副本标记为不可用；
+ * 所有副本都不可用时 getResource() 返回 null，由调用方改用主节点。
+ * @author pan_junbiao
+ **/
+public class RedisReplicaPool implements Closeable
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisReplicaPool.class);
+
+    //往返耗时的指数移动平均权重
+    private static final double EWMA_ALPHA = 0.3;
+
+    /**
+     * 负载均衡策略
+     */
+    public enum LoadBalance
+    {
+        ROUND_ROBIN, //轮询
+        LEAST_LATENCY //最小往返耗时
+    }
+
+    private final Replica[] replicas;
+
+    private final LoadBalance loadBalance;
+
+    //轮询计数器
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private final ScheduledExecutorService probeScheduler;
+
+    /**
+     * @param config 连接池配置，每个副本使用相同的配置
+     * @param nodes 副本地址
+     * @param loadBalance 负载均衡策略
+     * @param probeIntervalMillis 探测副本的间隔时间（毫秒）
+     */
+    public RedisReplicaPool(JedisPoolConfig config, List<HostAndPort> nodes, LoadBalance loadBalance, long probeIntervalMillis)
+    {
+        this(config, nodes, loadBalance, probeIntervalMillis, Protocol.DEFAULT_TIMEOUT, Protocol.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param config 连接池配置，每个副本使用相同的配置
+     * @param nodes 副本地址
+     * @param loadBalance 负载均衡策略
+     * @param probeIntervalMillis 探测副本的间隔时间（毫秒）
+     * @param connectionTimeout 连接超时时间（毫秒）
+     * @param soTimeout 读取超时时间（毫秒）
+     */
+    public RedisReplicaPool(JedisPoolConfig config, List<HostAndPort> nodes, LoadBalance loadBalance, long probeIntervalMillis,
+                            int connectionTimeout, int soTimeout)
+    {
+        this.loadBalance = loadBalance;
+        this.replicas = new Replica[nodes.size()];
+        for (int i = 0; i < replicas.length; i++)
+        {
+            HostAndPort node = nodes.get(i);
+            this.replicas[i] = new Replica(node, new DeadlineJedisPool(config, node.getHost(), node.getPort(),
+                    connectionTimeout, soTimeout));
+        }
+        this.probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "redis-replica-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.probeScheduler.scheduleWithFixedDelay(this::probe, 0, probeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 按负载均衡策略获取副本的Jedis对象
+     * 使用完毕后调用 Jedis.close() 归还
+     * @return Jedis对象，没有可用的副本时返回 null
+     */
+    public Jedis getResource()
+    {
+        return getResource(-1);
+    }
+
+    /**
+     * 按负载均衡策略获取副本的Jedis对象，获取连接最多等待指定的时间
+     * 使用完毕后调用 Jedis.close() 归还
+     * @param maxWaitMillis 最大等待时间（毫秒），负数表示按连接池配置的 maxWait 等待
+     * @return Jedis对象，没有可用的副本时返回 null
+     */
+    public Jedis getResource(long maxWaitMillis)
+    {
+        Replica replica = select();
+        if (replica == null)
+        {
+            return null;
+        }
+        try
+        {
+            return maxWaitMillis < 0 ? replica.pool.getResource() : replica.pool.getResource(maxWaitMillis);
+        }
+        catch (JedisConnectionException ex)
+        {
+            //连接失败，等待下一次探测成功后恢复
+            markDown(replica, ex);
+            return null;
+        }
+        catch (RuntimeException ex)
+        {
+            //连接池耗尽等不代表副本不可用，本次改为从主节点读取
+            logger.debug("Redis副本{}获取连接失败：{}", replica.node, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 是否为副本的连接
+     */
+    public boolean isReplica(Jedis jedis)
+    {
+        String host = jedis.getClient().getHost();
+        int port = jedis.getClient().getPort();
+        for (Replica replica : replicas)
+        {
+            if (replica.node.getPort() == port && replica.node.getHost().equals(host))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 可用的副本数量
+     */
+    public int getAvailableCount()
+    {
+        int count = 0;
+        for (Replica replica : replicas)
+        {
+            if (replica.available)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close()
+    {
+        this.probeScheduler.shutdown();
+        for (Replica replica : replicas)
+        {
+            replica.pool.close();
+        }
+    }
+
+    private Replica select()
+    {
+        if (loadBalance == LoadBalance.LEAST_LATENCY)
+        {
+            Replica best = null;
+            for (Replica replica : replicas)
+            {
+                if (replica.available && (best == null || replica.latencyNanos < best.latencyNanos))
+                {
+                    best = replica;
+                }
+            }
+            return best;
+        }
+
+        int start = counter.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.length; i++)
+        {
+            Replica replica = replicas[(start + i) % replicas.length];
+            if (replica.available)
+            {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 探测所有副本的往返耗时与可用状态
+     */
+    private void probe()
+    {
+        for (Replica replica : replicas)
+        {
+            try (Jedis jedis = replica.pool.getResource())
+            {
+                long startTime = System.nanoTime();
+                jedis.ping();
+                long elapsed = System.nanoTime() - startTime;
+                replica.latencyNanos = replica.latencyNanos == 0 ? elapsed : (long) (EWMA_ALPHA * elapsed + (1 - EWMA_ALPHA) * replica.latencyNanos);
+                if (!replica.available)
+                {
+                    replica.available = true;
+                    logger.info("Redis副本{}恢复可用", replica.node);
+                }
+            }
+            catch (Exception ex)
+            {
+                markDown(replica, ex);
+            }
+        }
+    }
+
+    private static void markDown(Replica replica, Exception ex)
+    {
+        if (replica.available)
+        {
+            replica.available = false;
+            logger.warn("Redis副本{}不可用：{}", replica.node, ex.getMessage());
+        }
+    }
+
+    /**
+     * 副本
+     */
+    private static final class Replica
+    {
+        private final HostAndPort node;
+
+        private final DeadlineJedisPool pool;
+
+        //是否可用
+        private volatile boolean available = true;
+
+        //往返耗时的指数移动平均值（纳秒）
+        private volatile long latencyNanos;
+
+        Replica(HostAndPort node, DeadlineJedisPool pool)
+        {
+            this.node = node;
+            this.pool = pool;
+        }
+    }
+}
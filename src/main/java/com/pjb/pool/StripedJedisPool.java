@@ -0,0 +1,339 @@
+package com.pjb.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisExhaustedPoolException;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分段Jedis连接池
+ * 将连接分散到多个子连接池中，线程按线程ID固定映射到其中一个子连接池，
+ * 避免所有线程竞争同一个连接池的锁与空闲对象队列。
+ * 子连接池耗尽时不阻塞，依次尝试其他子连接池；总连接数由信号量统一限制。
+ * 开启自适应后，根据观测到的平均获取等待耗时，在初始连接数与上限之间动态调整总连接数。
+ * @author pan_junbiao
+ **/
+public class StripedJedisPool implements Closeable
+{
+    private static final Logger logger = LoggerFactory.getLogger(StripedJedisPool.class);
+
+    //子连接池
+    private final Stripe[] stripes;
+
+    //总连接数许可
+    private final AdjustableSemaphore permits;
+
+    //获取连接的最大等待时间（毫秒），负数表示一直等待
+    private final long maxWaitMillis;
+
+    //初始总连接数（自适应缩容的下限）
+    private final int initialTotal;
+
+    //总连接数上限（自适应扩容的上限）
+    private final int maxTotalLimit;
+
+    //当前总连接数
+    private volatile int currentTotal;
+
+    //已借出的连接，确保每个连接只归还一次许可
+    private final Set<Jedis> borrowed = ConcurrentHashMap.newKeySet();
+
+    //获取连接的等待耗时统计，用于自适应调整
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+
+    private ScheduledExecutorService adjustScheduler;
+
+    /**
+     * @param config 连接池配置，maxTotal 作为初始总连接数
+     * @param host Redis服务器地址
+     * @param port Redis服务器连接端口
+     * @param stripeCount 子连接池数量
+     * @param maxTotalLimit 总连接数上限
+     */
+    public StripedJedisPool(JedisPoolConfig config, String host, int port, int stripeCount, int maxTotalLimit)
+    {
+        this(config, host, port, stripeCount, maxTotalLimit, Protocol.DEFAULT_TIMEOUT, Protocol.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param config 连接池配置，maxTotal 作为初始总连接数
+     * @param host Redis服务器地址
+     * @param port Redis服务器连接端口
+     * @param stripeCount 子连接池数量
+     * @param maxTotalLimit 总连接数上限
+     * @param connectionTimeout 连接超时时间（毫秒）
+     * @param soTimeout 读取超时时间（毫秒）
+     */
+    public StripedJedisPool(JedisPoolConfig config, String host, int port, int stripeCount, int maxTotalLimit,
+                            int connectionTimeout, int soTimeout)
+    {
+        int count = Math.max(1, stripeCount);
+        this.initialTotal = config.getMaxTotal() > 0 ? config.getMaxTotal() : Math.max(count, maxTotalLimit);
+        this.maxTotalLimit = Math.max(this.initialTotal, maxTotalLimit);
+        this.currentTotal = this.initialTotal;
+        this.maxWaitMillis = config.getMaxWaitMillis();
+        this.permits = new AdjustableSemaphore(this.initialTotal);
+
+        //每个子连接池的容量按上限划分，实际使用量由信号量限制
+        int stripeMaxTotal = (this.maxTotalLimit + count - 1) / count;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++)
+        {
+            JedisPoolConfig stripeConfig = new JedisPoolConfig();
+            stripeConfig.setMaxTotal(stripeMaxTotal);
+            stripeConfig.setMaxIdle(Math.max(1, config.getMaxIdle() / count));
+            stripeConfig.setMinIdle(Math.max(0, config.getMinIdle() / count));
+            stripeConfig.setTestOnBorrow(config.getTestOnBorrow());
+            stripeConfig.setTestOnReturn(config.getTestOnReturn());
+            stripeConfig.setTestWhileIdle(config.getTestWhileIdle());
+            stripeConfig.setBlockWhenExhausted(false);
+            this.stripes[i] = new Stripe(stripeConfig, host, port, connectionTimeout, soTimeout);
+        }
+    }
+
+    /**
+     * 开启自适应调整
+     * @param interval 调整间隔
+     * @param targetWaitNanos 目标平均等待耗时（纳秒），超过时扩容，远低于时缩容
+     * @param step 每次调整的连接数
+     */
+    public void enableAdaptive(long interval, TimeUnit unit, long targetWaitNanos, int step)
+    {
+        this.adjustScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "redis-striped-pool-adjuster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.adjustScheduler.scheduleWithFixedDelay(() -> adjust(targetWaitNanos, Math.max(1, step)), interval, interval, unit);
+    }
+
+    /**
+     * 获取Jedis对象
+     * 使用完毕后调用 Jedis.close() 归还
+     */
+    public Jedis getResource()
+    {
+        return getResource(maxWaitMillis);
+    }
+
+    /**
+     * 获取Jedis对象，最多等待指定的时间
+     * 使用完毕后调用 Jedis.close() 归还
+     * @param maxWaitMillis 最大等待时间（毫秒），负数表示一直等待
+     */
+    public Jedis getResource(long maxWaitMillis)
+    {
+        long startTime = System.nanoTime();
+        acquirePermit(maxWaitMillis);
+        waitNanos.add(System.nanoTime() - startTime);
+        waitCount.increment();
+
+        int home = (int) (Thread.currentThread().getId() % stripes.length);
+        for (int i = 0; i < stripes.length; i++)
+        {
+            Stripe stripe = stripes[(home + i) % stripes.length];
+            try
+            {
+                Jedis jedis = stripe.getResource();
+                borrowed.add(jedis);
+                return jedis;
+            }
+            catch (JedisExhaustedPoolException ex)
+            {
+                //当前子连接池已满，尝试下一个
+            }
+            catch (RuntimeException ex)
+            {
+                permits.release();
+                throw ex;
+            }
+        }
+        permits.release();
+        throw new JedisExhaustedPoolException("Could not get a resource since the pool is exhausted");
+    }
+
+    /**
+     * 当前总连接数
+     */
+    public int getCurrentTotal()
+    {
+        return currentTotal;
+    }
+
+    /**
+     * 正在使用的连接数
+     */
+    public int getNumActive()
+    {
+        int active = 0;
+        for (Stripe stripe : stripes)
+        {
+            active += stripe.getNumActive();
+        }
+        return active;
+    }
+
+    /**
+     * 空闲连接数
+     */
+    public int getNumIdle()
+    {
+        int idle = 0;
+        for (Stripe stripe : stripes)
+        {
+            idle += stripe.getNumIdle();
+        }
+        return idle;
+    }
+
+    /**
+     * 正在等待获取连接的线程数
+     */
+    public int getNumWaiters()
+    {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void close()
+    {
+        if (this.adjustScheduler != null)
+        {
+            this.adjustScheduler.shutdown();
+        }
+        for (Stripe stripe : stripes)
+        {
+            stripe.close();
+        }
+    }
+
+    private void acquirePermit(long maxWaitMillis)
+    {
+        try
+        {
+            if (maxWaitMillis < 0)
+            {
+                permits.acquire();
+            }
+            else if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS))
+            {
+                throw new JedisExhaustedPoolException("Could not get a resource since the pool is exhausted");
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new JedisConnectionException("Interrupted while waiting for a resource", ex);
+        }
+    }
+
+    /**
+     * 归还总连接数许可
+     * 归还连接失败时 returnResource 会再调用 returnBrokenResource，此处保证只归还一次
+     */
+    private void releasePermit(Jedis resource)
+    {
+        if (resource != null && borrowed.remove(resource))
+        {
+            permits.release();
+        }
+    }
+
+    /**
+     * 根据平均等待耗时调整总连接数
+     */
+    private void adjust(long targetWaitNanos, int step)
+    {
+        long count = waitCount.sumThenReset();
+        long total = waitNanos.sumThenReset();
+        if (count == 0)
+        {
+            return;
+        }
+        long meanWaitNanos = total / count;
+        if (meanWaitNanos > targetWaitNanos && currentTotal < maxTotalLimit)
+        {
+            int delta = Math.min(step, maxTotalLimit - currentTotal);
+            currentTotal += delta;
+            permits.release(delta);
+            logger.info("Redis分段连接池扩容：平均等待{}微秒，总连接数调整为{}", meanWaitNanos / 1000, currentTotal);
+        }
+        else if (meanWaitNanos < targetWaitNanos / 4 && currentTotal > initialTotal)
+        {
+            int delta = Math.min(step, currentTotal - initialTotal);
+            currentTotal -= delta;
+            permits.reducePermits(delta);
+            logger.info("Redis分段连接池缩容：平均等待{}微秒，总连接数调整为{}", meanWaitNanos / 1000, currentTotal);
+        }
+    }
+
+    /**
+     * 子连接池
+     * 归还连接时同时归还总连接数许可
+     */
+    private class Stripe extends JedisPool
+    {
+        Stripe(JedisPoolConfig config, String host, int port, int connectionTimeout, int soTimeout)
+        {
+            super(config, host, port, connectionTimeout, soTimeout, null, Protocol.DEFAULT_DATABASE, null);
+        }
+
+        @Override
+        public void returnResource(Jedis resource)
+        {
+            try
+            {
+                super.returnResource(resource);
+            }
+            finally
+            {
+                releasePermit(resource);
+            }
+        }
+
+        @Override
+        public void returnBrokenResource(Jedis resource)
+        {
+            try
+            {
+                super.returnBrokenResource(resource);
+            }
+            finally
+            {
+                releasePermit(resource);
+            }
+        }
+    }
+
+    /**
+     * 可减少许可数量的信号量
+     */
+    private static class AdjustableSemaphore extends Semaphore
+    {
+        AdjustableSemaphore(int permits)
+        {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction)
+        {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.pjb.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis缓存管理器属性类
+ * 对应 myenvironment.redis-cache 配置，缓存名称到单个缓存配置的映射无法使用 @Value 读取，
+ * 因此使用 @ConfigurationProperties 绑定
+ * @author pan_junbiao
+ **/
+@Component
+@ConfigurationProperties(prefix = "myenvironment.redis-cache")
+public class RedisCacheProperties
+{
+    /**
+     * 默认过期时间，0表示永不过期
+     */
+    private Duration defaultTtl = Duration.ofMinutes(30);
+
+    /**
+     * 过期时间的随机抖动比例
+     */
+    private double ttlJitter = 0.1;
+
+    /**
+     * 是否缓存 null 值
+     */
+    private boolean cacheNullValues = false;
+
+    /**
+     * 缓存键的前缀
+     */
+    private String keyPrefix = "";
+
+    /**
+     * KeyGenerator生成的缓存键中参数部分的最大长度，超过时使用摘要
+     */
+    private int maxKeyParamsLength = 64;
+
+    /**
+     * 是否开启缓存统计
+     */
+    private boolean statistics = true;
+
+    /**
+     * 缓存值反序列化时受信任的包名前缀，只有这些包中的类型（以及JDK的基本类型与集合）可以被实例化
+     */
+    private List<String> trustedPackages = new ArrayList<>(Collections.singletonList("com.pjb."));
+
+    /**
+     * 单个缓存的配置，键为缓存名称
+     */
+    private Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+    public Duration getDefaultTtl()
+    {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl)
+    {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public double getTtlJitter()
+    {
+        return ttlJitter;
+    }
+
+    public void setTtlJitter(double ttlJitter)
+    {
+        this.ttlJitter = ttlJitter;
+    }
+
+    public boolean isCacheNullValues()
+    {
+        return cacheNullValues;
+    }
+
+    public void setCacheNullValues(boolean cacheNullValues)
+    {
+        this.cacheNullValues = cacheNullValues;
+    }
+
+    public String getKeyPrefix()
+    {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix)
+    {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public int getMaxKeyParamsLength()
+    {
+        return maxKeyParamsLength;
+    }
+
+    public void setMaxKeyParamsLength(int maxKeyParamsLength)
+    {
+        this.maxKeyParamsLength = maxKeyParamsLength;
+    }
+
+    public boolean isStatistics()
+    {
+        return statistics;
+    }
+
+    public void setStatistics(boolean statistics)
+    {
+        this.statistics = statistics;
+    }
+
+    public List<String> getTrustedPackages()
+    {
+        return trustedPackages;
+    }
+
+    public void setTrustedPackages(List<String> trustedPackages)
+    {
+        this.trustedPackages = trustedPackages;
+    }
+
+    public Map<String, CacheSpec> getCaches()
+    {
+        return caches;
+    }
+
+    public void setCaches(Map<String, CacheSpec> caches)
+    {
+        this.caches = caches;
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    public static class CacheSpec
+    {
+        /**
+         * 过期时间，未配置时使用默认过期时间
+         */
+        private Duration ttl;
+
+        /**
+         * 缓存名称在Redis键中的简称，未配置时使用缓存名称
+         */
+        private String alias;
+
+        /**
+         * 是否缓存 null 值，未配置时使用全局配置
+         */
+        private Boolean cacheNullValues;
+
+        public Duration getTtl()
+        {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl)
+        {
+            this.ttl = ttl;
+        }
+
+        public String getAlias()
+        {
+            return alias;
+        }
+
+        public void setAlias(String alias)
+        {
+            this.alias = alias;
+        }
+
+        public Boolean getCacheNullValues()
+        {
+            return cacheNullValues;
+        }
+
+        public void setCacheNullValues(Boolean cacheNullValues)
+        {
+            this.cacheNullValues = cacheNullValues;
+        }
+    }
+}
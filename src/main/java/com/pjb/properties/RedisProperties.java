@@ -33,7 +33,7 @@ public class RedisProperties
     /**
      * Redis服务器连接密码
      */
-    @Value("${spring.redis.port}")
+    @Value("${spring.redis.password:}")
     private String password;
 
     /**
@@ -60,6 +60,24 @@ public class RedisProperties
     @Value("${spring.redis.jedis.pool.min-idle}")
     private int minIdle;
 
+    /**
+     * 读取超时时间（Socket超时）
+     */
+    @Value("${spring.redis.timeout:2s}")
+    private Duration timeout;
+
+    /**
+     * 连接超时时间
+     */
+    @Value("${spring.redis.connect-timeout:1s}")
+    private Duration connectTimeout;
+
+    /**
+     * Redis只读副本地址，格式：host:port
+     */
+    @Value("${spring.redis.replicas:}")
+    private String[] replicas;
+
     public int getDatabase()
     {
         return database;
@@ -139,4 +157,34 @@ public class RedisProperties
     {
         this.minIdle = minIdle;
     }
+
+    public Duration getTimeout()
+    {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    public Duration getConnectTimeout()
+    {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout)
+    {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public String[] getReplicas()
+    {
+        return replicas;
+    }
+
+    public void setReplicas(String[] replicas)
+    {
+        this.replicas = replicas;
+    }
 }
@@ -0,0 +1,240 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCallable;
+import com.pjb.exception.RedisException;
+import com.pjb.properties.RedisProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis异步工具类
+ * 与 RedisUtils 的操作一一对应，返回 CompletableFuture 结果，
+ * 调用方可以同时发起多个相互独立的查询后再统一等待结果。
+ * 执行线程池的大小与连接池最大连接数一致，队列满时由调用线程执行，形成背压。
+ * 操作失败时，CompletableFuture 以 RedisException 异常完成。
+ * @author pan_junbiao
+ **/
+@Component
+public class AsyncRedisUtils
+{
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisProperties redisProperties;
+
+    //异步执行队列的容量
+    @Value("${myenvironment.redis-async.queue-capacity:1024}")
+    private int queueCapacity;
+
+    //异步执行线程池
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init()
+    {
+        int poolSize = redisProperties.getMaxActive() > 0 ? redisProperties.getMaxActive() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                runnable ->
+                {
+                    Thread thread = new Thread(runnable, "redis-async-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        this.executor.shutdown();
+    }
+
+    /**
+     * 获取异步执行线程池
+     */
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
+    /**
+     * 异步执行Redis操作
+     */
+    public <T> CompletableFuture<T> supplyAsync(RedisCallable<T> callable)
+    {
+        return CompletableFuture.supplyAsync(() ->
+        {
+            try
+            {
+                return callable.call();
+            }
+            catch (RedisException ex)
+            {
+                throw new CompletionException(ex);
+            }
+        }, this.executor);
+    }
+
+    /************************ 字符串（String） *************************/
+
+    public CompletableFuture<String> set(String key, Object value)
+    {
+        return supplyAsync(() -> redisUtils.set(key, value));
+    }
+
+    public CompletableFuture<String> get(String key)
+    {
+        return supplyAsync(() -> redisUtils.get(key));
+    }
+
+    public CompletableFuture<Boolean> del(String key)
+    {
+        return supplyAsync(() -> redisUtils.del(key));
+    }
+
+    public CompletableFuture<Long> getStrLen(String key)
+    {
+        return supplyAsync(() -> redisUtils.getStrLen(key));
+    }
+
+    public CompletableFuture<Boolean> exists(String key)
+    {
+        return supplyAsync(() -> redisUtils.exists(key));
+    }
+
+    public CompletableFuture<String> type(String key)
+    {
+        return supplyAsync(() -> redisUtils.type(key));
+    }
+
+    public CompletableFuture<String> rename(String oldkey, String newkey)
+    {
+        return supplyAsync(() -> redisUtils.rename(oldkey, newkey));
+    }
+
+    public CompletableFuture<Long> incr(String key)
+    {
+        return supplyAsync(() -> redisUtils.incr(key));
+    }
+
+    public CompletableFuture<Long> incrBy(String key, long increment)
+    {
+        return supplyAsync(() -> redisUtils.incrBy(key, increment));
+    }
+
+    public CompletableFuture<Long> decr(String key)
+    {
+        return supplyAsync(() -> redisUtils.decr(key));
+    }
+
+    public CompletableFuture<Long> decrBy(String key, long decrement)
+    {
+        return supplyAsync(() -> redisUtils.decrBy(key, decrement));
+    }
+
+    public CompletableFuture<Long> append(String key, Object value)
+    {
+        return supplyAsync(() -> redisUtils.append(key, value));
+    }
+
+    /************************ 哈希（Hash） *************************/
+
+    public CompletableFuture<Long> hset(String key, String field, Object value)
+    {
+        return supplyAsync(() -> redisUtils.hset(key, field, value));
+    }
+
+    public CompletableFuture<String> hget(String key, String field)
+    {
+        return supplyAsync(() -> redisUtils.hget(key, field));
+    }
+
+    public CompletableFuture<Long> hincrBy(String key, String field, long increment)
+    {
+        return supplyAsync(() -> redisUtils.hincrBy(key, field, increment));
+    }
+
+    public CompletableFuture<Map<String, String>> hgetAll(String key)
+    {
+        return supplyAsync(() -> redisUtils.hgetAll(key));
+    }
+
+    public CompletableFuture<Long> hdel(String key, String... fields)
+    {
+        return supplyAsync(() -> redisUtils.hdel(key, fields));
+    }
+
+    public CompletableFuture<Long> hlen(String key)
+    {
+        return supplyAsync(() -> redisUtils.hlen(key));
+    }
+
+    public CompletableFuture<Set<String>> hkeys(String key)
+    {
+        return supplyAsync(() -> redisUtils.hkeys(key));
+    }
+
+    /************************ 集合（Set） *************************/
+
+    public CompletableFuture<Long> sadd(String key, Object... values)
+    {
+        return supplyAsync(() -> redisUtils.sadd(key, values));
+    }
+
+    public CompletableFuture<String> srandmember(String key)
+    {
+        return supplyAsync(() -> redisUtils.srandmember(key));
+    }
+
+    /************************ 有序集合（Sorted Set） *************************/
+
+    public CompletableFuture<Long> zadd(String key, double score, Object value)
+    {
+        return supplyAsync(() -> redisUtils.zadd(key, score, value));
+    }
+
+    public CompletableFuture<Set<String>> zrange(String key, long start, long end)
+    {
+        return supplyAsync(() -> redisUtils.zrange(key, start, end));
+    }
+
+    public CompletableFuture<Set<String>> zrevrange(String key, long start, long end)
+    {
+        return supplyAsync(() -> redisUtils.zrevrange(key, start, end));
+    }
+
+    public CompletableFuture<Long> zremrangeByRank(String key, long start, long stop)
+    {
+        return supplyAsync(() -> redisUtils.zremrangeByRank(key, start, stop));
+    }
+
+    /************************ 批量操作（Batch） *************************/
+
+    public CompletableFuture<List<String>> mget(List<String> keys)
+    {
+        return supplyAsync(() -> redisUtils.mget(keys));
+    }
+
+    public CompletableFuture<String> mset(Map<String, ?> keyValueMap)
+    {
+        return supplyAsync(() -> redisUtils.mset(keyValueMap));
+    }
+
+    public CompletableFuture<List<Map<String, String>>> multiGet(List<String> keys)
+    {
+        return supplyAsync(() -> redisUtils.multiGet(keys));
+    }
+}
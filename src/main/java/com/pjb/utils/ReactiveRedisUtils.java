@@ -0,0 +1,384 @@
+package com.pjb.utils;
+
+import com.pjb.properties.RedisProperties;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.ScanStream;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis响应式工具类
+ * 基于Lettuce的单个共享多路复用连接，与 RedisUtils 的操作一一对应，返回 Mono/Flux 结果。
+ * 所有调用方共享同一个连接，无需从连接池借用连接；zrange、hgetAll 等大结果以 Flux 流式返回。
+ * get、mget、hget、hgetAll 通过值为二进制的连接读取，经 RedisValueCompressor 解码，RedisUtils.set()/hset() 写入的压缩值自动解压。
+ * 配置 myenvironment.redis-reactive.enabled=true 时启用。
+ * 注意：通过本类写入的数据不会触发 RedisNearCache 的失效广播。
+ * @author pan_junbiao
+ **/
+@Component
+@ConditionalOnProperty(name = "myenvironment.redis-reactive.enabled", havingValue = "true")
+public class ReactiveRedisUtils
+{
+    @Autowired
+    private RedisProperties redisProperties;
+
+    @Autowired
+    private RedisValueCompressor redisValueCompressor;
+
+    //关闭超时时间
+    @Value("${spring.redis.lettuce.shutdown-timeout:100ms}")
+    private Duration shutdownTimeout;
+
+    //SCAN命令每次迭代的建议返回数量（COUNT）
+    @Value("${myenvironment.redis-scan-count:1000}")
+    private long redisScanCount;
+
+    private RedisClient redisClient;
+
+    private StatefulRedisConnection<String, String> connection;
+
+    private RedisReactiveCommands<String, String> commands;
+
+    //值为二进制的连接，用于读取可能被压缩的值
+    private StatefulRedisConnection<String, byte[]> binaryConnection;
+
+    private RedisReactiveCommands<String, byte[]> binaryCommands;
+
+    @PostConstruct
+    public void init()
+    {
+        RedisURI redisURI = RedisURI.builder()
+                .withHost(redisProperties.getHost())
+                .withPort(redisProperties.getPort())
+                .withDatabase(redisProperties.getDatabase())
+                .build();
+        this.redisClient = RedisClient.create(redisURI);
+        this.connection = this.redisClient.connect();
+        this.commands = this.connection.reactive();
+        this.binaryConnection = this.redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        this.binaryCommands = this.binaryConnection.reactive();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        if (this.connection != null)
+        {
+            this.connection.close();
+        }
+        if (this.binaryConnection != null)
+        {
+            this.binaryConnection.close();
+        }
+        if (this.redisClient != null)
+        {
+            this.redisClient.shutdown(0, this.shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 获取Lettuce响应式命令对象，用于本类未封装的命令
+     */
+    public RedisReactiveCommands<String, String> getCommands()
+    {
+        return commands;
+    }
+
+    /************************ 字符串（String） *************************/
+
+    /**
+     * 字符串（String）
+     * 设置字符串值
+     * @return 返回 OK 表示执行成功
+     */
+    public Mono<String> set(String key, Object value)
+    {
+        return commands.set(key, RedisUtils.toValueString(value));
+    }
+
+    /**
+     * 字符串（String）
+     * 获取字符串值，键不存在时为空的 Mono
+     */
+    public Mono<String> get(String key)
+    {
+        return binaryCommands.get(key).map(redisValueCompressor::decode);
+    }
+
+    /**
+     * 字符串（String）
+     * 使用SCAN命令流式获取匹配的键
+     * @param key 键，支持通配符*号等
+     */
+    public Flux<String> scan(String key)
+    {
+        return ScanStream.scan(commands, ScanArgs.Builder.matches(key).limit(redisScanCount));
+    }
+
+    /**
+     * 字符串（String）
+     * 删除键
+     * @return true：删除成功；false：键不存在
+     */
+    public Mono<Boolean> del(String key)
+    {
+        return commands.del(key).map(count -> count > 0);
+    }
+
+    /**
+     * 字符串（String）
+     * 批量删除所有匹配的键，边使用SCAN命令迭代，边使用UNLINK命令删除
+     * @param key 键，支持通配符*号等
+     * @return 成功删除的键的数量
+     */
+    public Mono<Long> delAllByKey(String key)
+    {
+        return scan(key)
+                .buffer((int) Math.min(Integer.MAX_VALUE, redisScanCount))
+                .concatMap(keyList -> commands.unlink(keyList.toArray(new String[0])))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * 字符串（String）
+     * 返回键所存储的字符串的长度，压缩的值返回原始长度，与 RedisUtils.getStrLen() 一致
+     */
+    public Mono<Long> getStrLen(String key)
+    {
+        RedisScript script = RedisScriptRegistry.DECODED_STRLEN;
+        Flux<Long> result = commands.<Long>evalsha(script.getSha1(), ScriptOutputType.INTEGER, key)
+                .onErrorResume(RedisNoScriptException.class,
+                        ex -> commands.<Long>eval(script.getSource(), ScriptOutputType.INTEGER, key));
+        return result.next();
+    }
+
+    /**
+     * 字符串（String）
+     * 判断键是否存在
+     */
+    public Mono<Boolean> exists(String key)
+    {
+        return commands.exists(key).map(count -> count > 0);
+    }
+
+    /**
+     * 字符串（String）
+     * 查看键的类型
+     */
+    public Mono<String> type(String key)
+    {
+        return commands.type(key);
+    }
+
+    /**
+     * 字符串（String）
+     * 将键重命名
+     */
+    public Mono<String> rename(String oldkey, String newkey)
+    {
+        return commands.rename(oldkey, newkey);
+    }
+
+    /**
+     * 字符串（String）
+     * 自增1
+     */
+    public Mono<Long> incr(String key)
+    {
+        return commands.incr(key);
+    }
+
+    /**
+     * 字符串（String）
+     * 根据增量数，自增
+     */
+    public Mono<Long> incrBy(String key, long increment)
+    {
+        return commands.incrby(key, increment);
+    }
+
+    /**
+     * 字符串（String）
+     * 递减1
+     */
+    public Mono<Long> decr(String key)
+    {
+        return commands.decr(key);
+    }
+
+    /**
+     * 字符串（String）
+     * 根据递减量，递减
+     */
+    public Mono<Long> decrBy(String key, long decrement)
+    {
+        return commands.decrby(key, decrement);
+    }
+
+    /**
+     * 字符串（String）
+     * 在键的值的后面拼接字符串
+     */
+    public Mono<Long> append(String key, Object value)
+    {
+        return commands.append(key, RedisUtils.toValueString(value));
+    }
+
+    /**
+     * 批量操作：
+     * 批量获取字符串值，顺序与键的顺序一致
+     */
+    public Flux<KeyValue<String, String>> mget(List<String> keys)
+    {
+        return binaryCommands.mget(keys.toArray(new String[0])).map(keyValue -> keyValue.map(redisValueCompressor::decode));
+    }
+
+    /************************ 哈希（Hash） *************************/
+
+    /**
+     * 哈希（Hash）操作：
+     * 将哈希表 key 中的字段 field 的值设为 value
+     * @return true：新建字段；false：覆盖已有字段
+     */
+    public Mono<Boolean> hset(String key, String field, Object value)
+    {
+        return commands.hset(key, field, RedisUtils.toValueString(value));
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 获取存储在哈希表中指定字段的值
+     */
+    public Mono<String> hget(String key, String field)
+    {
+        return binaryCommands.hget(key, field).map(redisValueCompressor::decode);
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 为哈希表 key 中的指定字段的整数值加上增量 increment
+     */
+    public Mono<Long> hincrBy(String key, String field, long increment)
+    {
+        return commands.hincrby(key, field, increment);
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 流式获取在哈希表中指定 key 的所有字段和值
+     */
+    public Flux<KeyValue<String, String>> hgetAll(String key)
+    {
+        return binaryCommands.hgetall(key).map(keyValue -> keyValue.map(redisValueCompressor::decode));
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 删除一个或多个哈希表字段
+     */
+    public Mono<Long> hdel(String key, String... fields)
+    {
+        return commands.hdel(key, fields);
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 获取哈希表中字段的数量
+     */
+    public Mono<Long> hlen(String key)
+    {
+        return commands.hlen(key);
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 流式获取哈希表中的所有字段名
+     */
+    public Flux<String> hkeys(String key)
+    {
+        return commands.hkeys(key);
+    }
+
+    /************************ 集合（Set） *************************/
+
+    /**
+     * 集合（Set）操作：
+     * 将一个或多个成员元素加入到集合中
+     */
+    public Mono<Long> sadd(String key, Object... values)
+    {
+        String[] members = new String[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            members[i] = RedisUtils.toValueString(values[i]);
+        }
+        return commands.sadd(key, members);
+    }
+
+    /**
+     * 集合（Set）操作：
+     * 随机返回集合中一个元素
+     */
+    public Mono<String> srandmember(String key)
+    {
+        return commands.srandmember(key);
+    }
+
+    /************************ 有序集合（Sorted Set） *************************/
+
+    /**
+     * 有序集合（Sorted Set）
+     * 向有序集合添加一个成员，或者更新已存在成员的分数
+     */
+    public Mono<Long> zadd(String key, double score, Object value)
+    {
+        return commands.zadd(key, score, RedisUtils.toValueString(value));
+    }
+
+    /**
+     * 有序集合（Sorted Set）
+     * 流式返回指定区间内的成员，按分数值从小到大排列
+     */
+    public Flux<String> zrange(String key, long start, long end)
+    {
+        return commands.zrange(key, start, end);
+    }
+
+    /**
+     * 有序集合（Sorted Set）
+     * 流式返回指定区间内的成员，按分数值从大到小排列
+     */
+    public Flux<String> zrevrange(String key, long start, long end)
+    {
+        return commands.zrevrange(key, start, end);
+    }
+
+    /**
+     * 有序集合（Sorted Set）
+     * 移除有序集合中给定的排名区间的所有成员
+     */
+    public Mono<Long> zremrangeByRank(String key, long start, long stop)
+    {
+        return commands.zremrangebyrank(key, start, stop);
+    }
+}
@@ -0,0 +1,268 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.metrics.RedisMetrics;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Redis批量操作构建器
+ * 收集多个命令，在同一个Jedis连接上使用管道（Pipeline）一次性发送，
+ * 并按照命令添加的顺序返回结果。
+ * 命令数量超过批次大小时分批同步，避免一次性构建过大的响应缓冲区。
+ * @author pan_junbiao
+ **/
+public class RedisBatch
+{
+    private final RedisUtils redisUtils;
+
+    private final RedisNearCache redisNearCache;
+
+    private final RedisMetrics redisMetrics;
+
+    private final RedisValueCompressor redisValueCompressor;
+
+    //每批次同步的命令数量
+    private final int batchSize;
+
+    //待执行的命令
+    private final List<Function<Pipeline, Response<?>>> commands = new ArrayList<>();
+
+    //各命令结果的转换，例如解压读取的值；不需要转换时为 null
+    private final List<Function<Object, Object>> decoders = new ArrayList<>();
+
+    RedisBatch(RedisUtils redisUtils, RedisNearCache redisNearCache, RedisMetrics redisMetrics,
+               RedisValueCompressor redisValueCompressor, int batchSize)
+    {
+        this.redisUtils = redisUtils;
+        this.redisNearCache = redisNearCache;
+        this.redisMetrics = redisMetrics;
+        this.redisValueCompressor = redisValueCompressor;
+        this.batchSize = batchSize > 0 ? batchSize : 1;
+    }
+
+    /**
+     * 字符串（String）：设置字符串值
+     */
+    public RedisBatch set(String key, Object value)
+    {
+        String valueStr = RedisUtils.toValueString(value);
+        add(pipeline ->
+        {
+            Response<String> response = pipeline.set(key, valueStr);
+            redisNearCache.invalidate(pipeline, key);
+            return response;
+        });
+        return this;
+    }
+
+    /**
+     * 字符串（String）：获取字符串值
+     */
+    public RedisBatch get(String key)
+    {
+        add(pipeline -> pipeline.get(SafeEncoder.encode(key)), value -> redisValueCompressor.decode((byte[]) value));
+        return this;
+    }
+
+    /**
+     * 字符串（String）：删除键
+     */
+    public RedisBatch del(String key)
+    {
+        add(pipeline ->
+        {
+            Response<Long> response = pipeline.del(key);
+            redisNearCache.invalidate(pipeline, key);
+            return response;
+        });
+        return this;
+    }
+
+    /**
+     * 字符串（String）：根据增量数，自增
+     */
+    public RedisBatch incrBy(String key, long increment)
+    {
+        add(pipeline ->
+        {
+            Response<Long> response = pipeline.incrBy(key, increment);
+            redisNearCache.invalidate(pipeline, key);
+            return response;
+        });
+        return this;
+    }
+
+    /**
+     * 设置键的过期时间（秒）
+     */
+    public RedisBatch expire(String key, int seconds)
+    {
+        add(pipeline -> pipeline.expire(key, seconds));
+        return this;
+    }
+
+    /**
+     * 哈希（Hash）：将哈希表 key 中的字段 field 的值设为 value
+     */
+    public RedisBatch hset(String key, String field, Object value)
+    {
+        String valueStr = RedisUtils.toValueString(value);
+        add(pipeline ->
+        {
+            Response<Long> response = pipeline.hset(key, field, valueStr);
+            redisNearCache.invalidate(pipeline, key);
+            return response;
+        });
+        return this;
+    }
+
+    /**
+     * 哈希（Hash）：同时将多个字段-值对设置到哈希表 key 中
+     */
+    public RedisBatch hmset(String key, Map<String, ?> fieldMap)
+    {
+        Map<String, String> hash = RedisUtils.toValueStringMap(fieldMap);
+        add(pipeline ->
+        {
+            Response<String> response = pipeline.hmset(key, hash);
+            redisNearCache.invalidate(pipeline, key);
+            return response;
+        });
+        return this;
+    }
+
+    /**
+     * 哈希（Hash）：获取存储在哈希表中指定字段的值
+     */
+    public RedisBatch hget(String key, String field)
+    {
+        add(pipeline -> pipeline.hget(SafeEncoder.encode(key), SafeEncoder.encode(field)),
+                value -> redisValueCompressor.decode((byte[]) value));
+        return this;
+    }
+
+    /**
+     * 哈希（Hash）：获取在哈希表中指定 key 的所有字段和值
+     */
+    public RedisBatch hgetAll(String key)
+    {
+        add(pipeline -> pipeline.hgetAll(SafeEncoder.encode(key)),
+                hash -> redisValueCompressor.decode(castHash(hash)));
+        return this;
+    }
+
+    /**
+     * 哈希（Hash）：为哈希表 key 中的指定字段的整数值加上增量 increment
+     */
+    public RedisBatch hincrBy(String key, String field, long increment)
+    {
+        add(pipeline ->
+        {
+            Response<Long> response = pipeline.hincrBy(key, field, increment);
+            redisNearCache.invalidate(pipeline, key);
+            return response;
+        });
+        return this;
+    }
+
+    /**
+     * 有序集合（Sorted Set）：向有序集合添加成员
+     */
+    public RedisBatch zadd(String key, double score, Object value)
+    {
+        String valueStr = RedisUtils.toValueString(value);
+        add(pipeline -> pipeline.zadd(key, score, valueStr));
+        return this;
+    }
+
+    private void add(Function<Pipeline, Response<?>> command)
+    {
+        add(command, null);
+    }
+
+    private void add(Function<Pipeline, Response<?>> command, Function<Object, Object> decoder)
+    {
+        commands.add(command);
+        decoders.add(decoder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<byte[], byte[]> castHash(Object hash)
+    {
+        return (Map<byte[], byte[]>) hash;
+    }
+
+    /**
+     * 已添加的命令数量
+     */
+    public int size()
+    {
+        return commands.size();
+    }
+
+    /**
+     * 执行所有命令
+     * @return 各命令的结果，顺序与命令添加的顺序一致
+     */
+    public List<Object> execute() throws RedisException
+    {
+        List<Object> result = new ArrayList<>(commands.size());
+        if (commands.isEmpty())
+        {
+            return result;
+        }
+
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            long startTime = System.nanoTime();
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<?>> responses = new ArrayList<>(Math.min(batchSize, commands.size()));
+            for (Function<Pipeline, Response<?>> command : commands)
+            {
+                responses.add(command.apply(pipeline));
+                if (responses.size() >= batchSize)
+                {
+                    //分批同步，限制单次响应缓冲区的大小
+                    pipeline.sync();
+                    collect(responses, result);
+                }
+            }
+            pipeline.sync();
+            collect(responses, result);
+            redisMetrics.recordCommand(RedisCommandType.PIPELINE, startTime);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.PIPELINE, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+        return result;
+    }
+
+    private void collect(List<Response<?>> responses, List<Object> result)
+    {
+        for (Response<?> response : responses)
+        {
+            Function<Object, Object> decoder = decoders.get(result.size());
+            Object value = response.get();
+            result.add(decoder != null ? decoder.apply(value) : value);
+        }
+        responses.clear();
+    }
+}
@@ -0,0 +1,397 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.metrics.RedisMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Transaction;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis缓存加载器（防缓存击穿）
+ * 缓存未命中或过期时，同一进程内相同键只有一个线程执行加载（single-flight），
+ * 并使用Redis分布式锁（RedisLockService）保证多个进程中只有一个加载者，没有旧值的调用方等待解锁通知，不轮询Redis；
+ * 按 XFetch 算法在过期之前以一定概率提前刷新，加载耗时越长、越接近过期，提前刷新的概率越大。
+ * 缓存以哈希表保存：v（值）、d（上次加载耗时，毫秒）、e（逻辑过期时间，毫秒时间戳），
+ * 键的实际过期时间为逻辑过期时间加上宽限时间，宽限时间内其他调用方直接返回旧值，无需等待加载。
+ * 提前刷新在独立的有界线程池中执行，不占用Redis异步操作的线程，队列满时丢弃本次刷新，由之后的读取再次触发。
+ * 注意：由本类管理的键请只通过本类读写。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisCacheLoader
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheLoader.class);
+
+    private static final String FIELD_VALUE = "v";
+    private static final String FIELD_DELTA = "d";
+    private static final String FIELD_EXPIRY = "e";
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisLockService redisLockService;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    //XFetch算法的系数，大于1时更倾向于提前刷新
+    @Value("${myenvironment.redis-cache-loader.beta:1.0}")
+    private double beta;
+
+    //加载锁的过期时间，应大于加载耗时
+    @Value("${myenvironment.redis-cache-loader.lock-ttl:10s}")
+    private Duration lockTtl;
+
+    //逻辑过期之后仍可返回旧值的宽限时间
+    @Value("${myenvironment.redis-cache-loader.stale-grace:30s}")
+    private Duration staleGrace;
+
+    //没有旧值时等待其他加载者的最长时间，超时后自行加载
+    @Value("${myenvironment.redis-cache-loader.wait-timeout:3s}")
+    private Duration waitTimeout;
+
+    //提前刷新的线程数
+    @Value("${myenvironment.redis-cache-loader.refresh-threads:2}")
+    private int refreshThreads;
+
+    //提前刷新队列的容量，队列满时丢弃
+    @Value("${myenvironment.redis-cache-loader.refresh-queue-capacity:256}")
+    private int refreshQueueCapacity;
+
+    //提前刷新线程池
+    private ThreadPoolExecutor refreshExecutor;
+
+    //进程内正在执行的加载
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, refreshQueueCapacity)),
+                runnable ->
+                {
+                    Thread thread = new Thread(runnable, "redis-cache-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        this.refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取缓存值，未命中、过期或需要提前刷新时调用加载器
+     * @param key 键
+     * @param ttl 缓存的逻辑过期时间
+     * @param loader 加载器，例如从数据库查询，返回 null 时不写入缓存
+     * @return 缓存值或加载得到的值
+     */
+    public String get(String key, Duration ttl, Callable<String> loader) throws RedisException
+    {
+        CachedEntry entry = read(key);
+        long now = System.currentTimeMillis();
+        if (entry != null)
+        {
+            if (!shouldRefresh(entry, now))
+            {
+                return entry.value;
+            }
+            if (now < entry.expiry)
+            {
+                //尚未过期，提前刷新在后台执行，当前调用方直接返回缓存值
+                refreshAsync(key, ttl, loader, entry);
+                return entry.value;
+            }
+            //已过期但仍在宽限时间内：其他线程或进程正在加载时返回旧值
+            CompletableFuture<String> running = inFlight.get(key);
+            if (running != null && !running.isDone())
+            {
+                return entry.value;
+            }
+        }
+        return load(key, ttl, loader, entry);
+    }
+
+    /**
+     * 删除缓存，下一次读取时重新加载
+     */
+    public boolean evict(String key) throws RedisException
+    {
+        return redisUtils.del(key);
+    }
+
+    /**
+     * XFetch：now - delta * beta * ln(rand) >= expiry 时刷新
+     */
+    private boolean shouldRefresh(CachedEntry entry, long now)
+    {
+        double random = ThreadLocalRandom.current().nextDouble();
+        return now - entry.delta * beta * Math.log(random) >= entry.expiry;
+    }
+
+    private void refreshAsync(String key, Duration ttl, Callable<String> loader, CachedEntry current)
+    {
+        if (inFlight.containsKey(key))
+        {
+            return;
+        }
+        //队列满或已关闭时丢弃，当前调用方已返回旧值
+        refreshExecutor.execute(() ->
+        {
+            try
+            {
+                load(key, ttl, loader, current);
+            }
+            catch (Exception ex)
+            {
+                logger.warn("Redis缓存提前刷新失败：{}，{}", key, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 进程内单飞加载：相同键只有一个线程执行，其余线程等待同一个结果
+     * @param stale 旧值，没有旧值时为 null
+     */
+    private String load(String key, Duration ttl, Callable<String> loader, CachedEntry stale) throws RedisException
+    {
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null)
+        {
+            return await(existing, stale);
+        }
+        try
+        {
+            String value = loadAcrossProcesses(key, ttl, loader, stale);
+            created.complete(value);
+            return value;
+        }
+        catch (RedisException | RuntimeException ex)
+        {
+            created.completeExceptionally(ex);
+            throw ex;
+        }
+        finally
+        {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 使用Redis锁保证多个进程中只有一个加载者
+     */
+    private String loadAcrossProcesses(String key, Duration ttl, Callable<String> loader, CachedEntry stale) throws RedisException
+    {
+        String lockKey = key + ":loading";
+        RedisLockService.RedisLock lock = redisLockService.tryLock(lockKey, lockTtl);
+        if (lock == null)
+        {
+            //其他进程正在加载：有旧值时直接返回旧值，否则等待解锁通知
+            if (stale != null)
+            {
+                return stale.value;
+            }
+            lock = redisLockService.tryLock(lockKey, lockTtl, waitTimeout);
+            if (lock == null)
+            {
+                //等待超时，不再依赖其他加载者
+                CachedEntry entry = read(key);
+                if (entry != null && System.currentTimeMillis() < entry.expiry)
+                {
+                    return entry.value;
+                }
+                logger.warn("Redis缓存等待加载超时，自行加载：{}", key);
+                return loadAndWrite(key, ttl, loader);
+            }
+        }
+        try
+        {
+            //获得锁之后再次检查，避免重复加载刚刚被其他进程写入的值（逻辑过期时间变化说明已被刷新）
+            CachedEntry entry = read(key);
+            if (entry != null && System.currentTimeMillis() < entry.expiry && (stale == null || entry.expiry != stale.expiry))
+            {
+                return entry.value;
+            }
+            return loadAndWrite(key, ttl, loader);
+        }
+        finally
+        {
+            try
+            {
+                lock.unlock();
+            }
+            catch (RedisException ex)
+            {
+                //锁会在过期后自动释放
+                logger.warn("Redis缓存加载锁释放失败：{}，{}", lockKey, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 调用加载器并写入缓存
+     */
+    private String loadAndWrite(String key, Duration ttl, Callable<String> loader) throws RedisException
+    {
+        long startTime = System.currentTimeMillis();
+        String value;
+        try
+        {
+            value = loader.call();
+        }
+        catch (Exception ex)
+        {
+            throw new RedisException("缓存加载失败：" + key, ex);
+        }
+        long delta = System.currentTimeMillis() - startTime;
+        if (value == null)
+        {
+            return null;
+        }
+
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            long expiry = System.currentTimeMillis() + ttl.toMillis();
+            Map<String, String> fields = new HashMap<>(4);
+            fields.put(FIELD_VALUE, value);
+            fields.put(FIELD_DELTA, Long.toString(delta));
+            fields.put(FIELD_EXPIRY, Long.toString(expiry));
+            long commandStart = System.nanoTime();
+            Transaction transaction = jedis.multi();
+            transaction.del(key);
+            transaction.hmset(key, fields);
+            transaction.pexpire(key, ttl.toMillis() + staleGrace.toMillis());
+            transaction.exec();
+            redisMetrics.recordCommand(RedisCommandType.HSET, commandStart);
+            redisMetrics.recordPayload(RedisCommandType.HSET, value);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HSET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+        return value;
+    }
+
+    /**
+     * 读取缓存
+     * @return 缓存项，不存在时返回 null
+     */
+    private CachedEntry read(String key) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            long startTime = System.nanoTime();
+            List<String> values = jedis.hmget(key, FIELD_VALUE, FIELD_DELTA, FIELD_EXPIRY);
+            redisMetrics.recordCommand(RedisCommandType.HMGET, startTime);
+            if (values.get(0) == null || values.get(2) == null)
+            {
+                return null;
+            }
+            redisMetrics.recordPayload(RedisCommandType.HMGET, values.get(0));
+            long delta = values.get(1) != null ? Long.parseLong(values.get(1)) : 0;
+            return new CachedEntry(values.get(0), delta, Long.parseLong(values.get(2)));
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HMGET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    /**
+     * 等待同一进程内其他线程的加载结果，有旧值时最多等待到超时后返回旧值
+     */
+    private String await(CompletableFuture<String> future, CachedEntry stale) throws RedisException
+    {
+        try
+        {
+            if (stale != null)
+            {
+                return future.getNow(stale.value);
+            }
+            //加载者自身可能先等待其他进程，再执行加载
+            return future.get(waitTimeout.toMillis() + lockTtl.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            throw cause instanceof RedisException ? (RedisException) cause : new RedisException(cause);
+        }
+        catch (TimeoutException ex)
+        {
+            throw new RedisException("等待缓存加载超时", ex);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 缓存项
+     */
+    private static final class CachedEntry
+    {
+        private final String value;
+
+        //上次加载耗时（毫秒）
+        private final long delta;
+
+        //逻辑过期时间（毫秒时间戳）
+        private final long expiry;
+
+        CachedEntry(String value, long delta, long expiry)
+        {
+            this.value = value;
+            this.delta = delta;
+            this.expiry = expiry;
+        }
+    }
+}
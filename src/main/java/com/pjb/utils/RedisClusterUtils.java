@@ -0,0 +1,526 @@
+package com.pjb.utils;
+
+import com.pjb.exception.RedisException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Redis集群工具类
+ * 基于 JedisCluster，单键命令由 JedisCluster 根据槽位路由，并自动处理 MOVED/ASK 重定向。
+ * 多键操作（mget、mset、批量删除等）先按哈希槽分组，再根据槽位缓存归到所属的主节点，
+ * 同一节点的各槽位命令通过一个管道发送，各节点在线程池中并行执行，
+ * 同一实体的多个键可以使用 RedisUtils.getRedisKey(businessKey, id, true) 生成带哈希标签的键，保证位于同一槽位。
+ * 读取的值经 RedisValueCompressor 解码，RedisUtils.set()/hset() 写入的压缩值自动解压。
+ * 配置 myenvironment.redis-cluster.enabled=true 时启用。
+ * @author pan_junbiao
+ **/
+@Component
+@ConditionalOnProperty(name = "myenvironment.redis-cluster.enabled", havingValue = "true")
+public class RedisClusterUtils
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisClusterUtils.class);
+
+    @Autowired
+    private JedisCluster jedisCluster;
+
+    @Autowired
+    private RedisValueCompressor redisValueCompressor;
+
+    //多键操作的并行线程数
+    @Value("${myenvironment.redis-cluster.parallelism:8}")
+    private int parallelism;
+
+    //SCAN命令每次迭代的建议返回数量（COUNT）
+    @Value("${myenvironment.redis-scan-count:1000}")
+    private int redisScanCount;
+
+    //多键操作的并行执行线程池
+    private ExecutorService executor;
+
+    //槽位缓存：哈希槽 -> 主节点的连接池
+    private volatile JedisPool[] slotPools = new JedisPool[JedisCluster.HASHSLOTS];
+
+    //槽位缓存是否需要刷新
+    private volatile boolean slotCacheStale = true;
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, this.parallelism), runnable ->
+        {
+            Thread thread = new Thread(runnable, "redis-cluster-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        this.executor.shutdown();
+    }
+
+    /**
+     * 获取JedisCluster对象，用于本类未封装的命令
+     */
+    public JedisCluster getJedisCluster()
+    {
+        return jedisCluster;
+    }
+
+    /**
+     * 计算键所在的哈希槽
+     */
+    public static int getSlot(String key)
+    {
+        return JedisClusterCRC16.getSlot(key);
+    }
+
+    /************************ 单键操作 *************************/
+
+    /**
+     * 字符串（String）
+     * 设置字符串值
+     * @return 返回 OK 表示执行成功
+     */
+    public String set(String key, Object value) throws RedisException
+    {
+        try
+        {
+            return jedisCluster.set(key, RedisUtils.toValueString(value));
+        }
+        catch (Exception ex)
+        {
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 字符串（String）
+     * 获取字符串值
+     */
+    public String get(String key) throws RedisException
+    {
+        try
+        {
+            return redisValueCompressor.decode(jedisCluster.get(SafeEncoder.encode(key)));
+        }
+        catch (Exception ex)
+        {
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 将哈希表 key 中的字段 field 的值设为 value
+     */
+    public Long hset(String key, String field, Object value) throws RedisException
+    {
+        try
+        {
+            return jedisCluster.hset(key, field, RedisUtils.toValueString(value));
+        }
+        catch (Exception ex)
+        {
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 获取存储在哈希表中指定字段的值
+     */
+    public String hget(String key, String field) throws RedisException
+    {
+        try
+        {
+            return redisValueCompressor.decode(jedisCluster.hget(SafeEncoder.encode(key), SafeEncoder.encode(field)));
+        }
+        catch (Exception ex)
+        {
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 获取在哈希表中指定 key 的所有字段和值
+     */
+    public Map<String, String> hgetAll(String key) throws RedisException
+    {
+        try
+        {
+            return redisValueCompressor.decode(jedisCluster.hgetAll(SafeEncoder.encode(key)));
+        }
+        catch (Exception ex)
+        {
+            throw new RedisException(ex);
+        }
+    }
+
+    /************************ 多键操作 *************************/
+
+    /**
+     * 批量操作：
+     * 批量获取字符串值，按哈希槽分组，同一节点上各槽位的MGET通过一个管道发送，各节点并行执行
+     * @param keys 键集合
+     * @return 字符串值列表，顺序与键的顺序一致，键不存在时对应位置为 null
+     */
+    public List<String> mget(List<String> keys) throws RedisException
+    {
+        String[] result = new String[keys.size()];
+        runByNode(groupIndexesBySlot(keys),
+                (pipeline, indexes) -> pipeline.mget(toBinaryKeys(keys, indexes)),
+                indexes -> jedisCluster.mget(toBinaryKeys(keys, indexes)),
+                (indexes, values) ->
+                {
+                    for (int i = 0; i < indexes.size(); i++)
+                    {
+                        result[indexes.get(i)] = redisValueCompressor.decode(values.get(i));
+                    }
+                    return indexes.size();
+                });
+        return Arrays.asList(result);
+    }
+
+    /**
+     * 批量操作：
+     * 批量设置字符串值，按哈希槽分组，同一节点上各槽位的MSET通过一个管道发送，各节点并行执行
+     * 注意：管道发送之后节点连接中断时，该节点的分组会重新执行，期间其他客户端写入的值可能被再次覆盖
+     * @param keyValueMap 键-值集合
+     * @return 设置的键的数量
+     */
+    public long mset(Map<String, ?> keyValueMap) throws RedisException
+    {
+        return runByNode(groupBySlot(keyValueMap.keySet()),
+                (pipeline, keys) -> pipeline.mset(toKeysValues(keys, keyValueMap)),
+                keys -> jedisCluster.mset(toKeysValues(keys, keyValueMap)),
+                (keys, reply) -> keys.size());
+    }
+
+    /**
+     * 批量操作：
+     * 批量删除键，按哈希槽分组，同一节点上各槽位的UNLINK通过一个管道发送，各节点并行执行
+     * 注意：管道发送之后节点连接中断时，该节点的分组会重新执行，已删除的键不再计数，返回值可能小于实际删除的数量
+     * @param keys 键集合
+     * @return 成功删除的键的数量
+     */
+    public long unlink(Collection<String> keys) throws RedisException
+    {
+        return runByNode(groupBySlot(keys),
+                (pipeline, group) -> pipeline.unlink(group.toArray(new String[0])),
+                group -> jedisCluster.unlink(group.toArray(new String[0])),
+                (group, count) -> count.intValue());
+    }
+
+    /**
+     * 批量操作：
+     * 批量删除所有匹配的键，支持通配符*号等
+     * 在每个主节点上并行使用SCAN命令迭代，并按哈希槽分组使用UNLINK命令删除
+     * @param key 键
+     * @return 成功删除的键的数量
+     */
+    public long delAllByKey(String key) throws RedisException
+    {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (JedisPool nodePool : jedisCluster.getClusterNodes().values())
+        {
+            futures.add(CompletableFuture.supplyAsync(() -> delAllByKeyOnNode(nodePool, key), executor));
+        }
+        long result = 0;
+        for (CompletableFuture<Long> future : futures)
+        {
+            result += join(future);
+        }
+        return result;
+    }
+
+    /**
+     * 在单个节点上删除所有匹配的键，从节点直接跳过
+     */
+    private long delAllByKeyOnNode(JedisPool nodePool, String key)
+    {
+        long result = 0;
+        try (Jedis jedis = nodePool.getResource())
+        {
+            if (!jedis.info("replication").contains("role:master"))
+            {
+                return 0;
+            }
+            ScanParams scanParams = new ScanParams().match(key).count(this.redisScanCount);
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do
+            {
+                ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+                cursor = scanResult.getCursor();
+                for (List<String> group : groupBySlot(scanResult.getResult()).values())
+                {
+                    String[] keyArray = group.toArray(new String[0]);
+                    try
+                    {
+                        result += jedis.unlink(keyArray);
+                    }
+                    catch (JedisRedirectionException ex)
+                    {
+                        //迁移中的槽位，交由JedisCluster处理重定向
+                        result += jedisCluster.unlink(keyArray);
+                    }
+                }
+            }
+            while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        }
+        return result;
+    }
+
+    /**
+     * 按哈希槽分组
+     */
+    private static Map<Integer, List<String>> groupBySlot(Collection<String> keys)
+    {
+        Map<Integer, List<String>> result = new HashMap<>();
+        for (String key : keys)
+        {
+            result.computeIfAbsent(getSlot(key), slot -> new ArrayList<>()).add(key);
+        }
+        return result;
+    }
+
+    /**
+     * 按哈希槽将键的下标分组
+     */
+    private static Map<Integer, List<Integer>> groupIndexesBySlot(List<String> keys)
+    {
+        Map<Integer, List<Integer>> result = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++)
+        {
+            result.computeIfAbsent(getSlot(keys.get(i)), slot -> new ArrayList<>()).add(i);
+        }
+        return result;
+    }
+
+    /**
+     * 按节点执行各哈希槽分组的命令
+     * 根据槽位缓存将分组归到所属的主节点，同一节点的分组通过该节点的一个连接以管道发送，各节点并行执行，
+     * 只有一个节点时在当前线程执行；槽位缓存未命中、节点连接失败或遇到 MOVED/ASK 重定向的分组，
+     * 改由 JedisCluster 直接执行（自动处理重定向），并在下次执行前刷新槽位缓存。
+     * 管道的结果只能整体读取：获取连接失败时命令尚未发送，重新执行是准确的；
+     * 已发送之后读取结果失败（如读取超时）时无法确定哪些命令已执行，该节点的所有分组都会重新执行，
+     * 读取命令的结果不受影响，非幂等命令的计数（如 UNLINK 删除的数量）只是近似值，MSET 会再次写入。
+     * @param slotGroups 哈希槽 -> 该槽位的元素
+     * @param pipelined 在节点的管道中追加一个分组的命令
+     * @param direct 通过 JedisCluster 直接执行一个分组的命令
+     * @param collect 处理一个分组的结果，返回计数
+     * @return 各分组计数之和
+     */
+    private <T, R> long runByNode(Map<Integer, List<T>> slotGroups, BiFunction<Pipeline, List<T>, Response<R>> pipelined,
+                                  Function<List<T>, R> direct, BiFunction<List<T>, R, Integer> collect) throws RedisException
+    {
+        try
+        {
+            JedisPool[] pools = getSlotPools();
+            Map<JedisPool, List<List<T>>> nodeGroups = new HashMap<>();
+            for (Map.Entry<Integer, List<T>> entry : slotGroups.entrySet())
+            {
+                nodeGroups.computeIfAbsent(pools[entry.getKey()], pool -> new ArrayList<>()).add(entry.getValue());
+            }
+            if (nodeGroups.size() == 1)
+            {
+                Map.Entry<JedisPool, List<List<T>>> entry = nodeGroups.entrySet().iterator().next();
+                return runOnNode(entry.getKey(), entry.getValue(), pipelined, direct, collect);
+            }
+            List<CompletableFuture<Long>> futures = new ArrayList<>(nodeGroups.size());
+            for (Map.Entry<JedisPool, List<List<T>>> entry : nodeGroups.entrySet())
+            {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> runOnNode(entry.getKey(), entry.getValue(), pipelined, direct, collect), executor));
+            }
+            long result = 0;
+            for (CompletableFuture<Long> future : futures)
+            {
+                result += join(future);
+            }
+            return result;
+        }
+        catch (RedisException ex)
+        {
+            throw ex;
+        }
+        catch (Exception ex)
+        {
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 在一个节点上通过管道执行多个分组的命令
+     * @param pool 节点的连接池，null 表示槽位缓存未命中
+     */
+    private <T, R> long runOnNode(JedisPool pool, List<List<T>> groups, BiFunction<Pipeline, List<T>, Response<R>> pipelined,
+                                  Function<List<T>, R> direct, BiFunction<List<T>, R, Integer> collect)
+    {
+        List<Response<R>> responses = null;
+        if (pool != null)
+        {
+            boolean sent = false;
+            try (Jedis jedis = pool.getResource())
+            {
+                Pipeline pipeline = jedis.pipelined();
+                List<Response<R>> pending = new ArrayList<>(groups.size());
+                for (List<T> group : groups)
+                {
+                    pending.add(pipelined.apply(pipeline, group));
+                }
+                sent = true;
+                pipeline.sync();
+                responses = pending;
+            }
+            catch (JedisException ex)
+            {
+                //节点不可用或已下线，改由JedisCluster执行
+                slotCacheStale = true;
+                if (sent)
+                {
+                    logger.warn("Redis集群节点执行结果未知，重新执行 " + groups.size() + " 个分组，非幂等命令的计数可能不准确：" + ex.getMessage());
+                }
+            }
+        }
+        long result = 0;
+        for (int i = 0; i < groups.size(); i++)
+        {
+            List<T> group = groups.get(i);
+            R value;
+            if (responses == null)
+            {
+                value = direct.apply(group);
+            }
+            else
+            {
+                try
+                {
+                    value = responses.get(i).get();
+                }
+                catch (JedisRedirectionException ex)
+                {
+                    //槽位已迁移，交由JedisCluster处理重定向
+                    slotCacheStale = true;
+                    value = direct.apply(group);
+                }
+            }
+            result += collect.apply(group, value);
+        }
+        return result;
+    }
+
+    /**
+     * 获取槽位缓存：哈希槽 -> 主节点的连接池，槽位缓存失效时通过 CLUSTER SLOTS 刷新
+     */
+    private JedisPool[] getSlotPools()
+    {
+        if (slotCacheStale)
+        {
+            synchronized (this)
+            {
+                if (slotCacheStale)
+                {
+                    slotCacheStale = false;
+                    slotPools = loadSlotPools();
+                }
+            }
+        }
+        return slotPools;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JedisPool[] loadSlotPools()
+    {
+        JedisPool[] pools = new JedisPool[JedisCluster.HASHSLOTS];
+        Map<String, JedisPool> nodes = jedisCluster.getClusterNodes();
+        for (JedisPool nodePool : nodes.values())
+        {
+            try (Jedis jedis = nodePool.getResource())
+            {
+                for (Object item : jedis.clusterSlots())
+                {
+                    //[起始槽位, 结束槽位, [主节点地址, 端口, ID], [从节点...]...]
+                    List<Object> range = (List<Object>) item;
+                    List<Object> master = (List<Object>) range.get(2);
+                    JedisPool pool = nodes.get(SafeEncoder.encode((byte[]) master.get(0)) + ":" + master.get(1));
+                    int end = ((Long) range.get(1)).intValue();
+                    for (int slot = ((Long) range.get(0)).intValue(); slot <= end; slot++)
+                    {
+                        pools[slot] = pool;
+                    }
+                }
+                return pools;
+            }
+            catch (Exception ex)
+            {
+                //尝试下一个节点
+            }
+        }
+        //所有节点都不可用，本次全部由JedisCluster执行
+        slotCacheStale = true;
+        return pools;
+    }
+
+    private static byte[][] toBinaryKeys(List<String> keys, List<Integer> indexes)
+    {
+        byte[][] result = new byte[indexes.size()][];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = SafeEncoder.encode(keys.get(indexes.get(i)));
+        }
+        return result;
+    }
+
+    private static String[] toKeysValues(List<String> keys, Map<String, ?> keyValueMap)
+    {
+        String[] result = new String[keys.size() * 2];
+        for (int i = 0; i < keys.size(); i++)
+        {
+            result[i * 2] = keys.get(i);
+            result[i * 2 + 1] = RedisUtils.toValueString(keyValueMap.get(keys.get(i)));
+        }
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws RedisException
+    {
+        try
+        {
+            return future.join();
+        }
+        catch (CompletionException ex)
+        {
+            throw new RedisException(ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.metrics.RedisMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis计数器本地聚合（写回）
+ * incr()/incrBy()/hincrBy() 只在本地按键（哈希表为键+字段）累加到 LongAdder 分段计数单元，不访问Redis；
+ * 后台按固定间隔，或在待写入的计数单元数量超过上限时，将所有增量按批次通过脚本写入（INCRBY/HINCRBY）。
+ * 每个批次有唯一标识，脚本在写入增量的同时设置批次标记键，标记已存在时不再写入，因此写入是幂等的：
+ * 写入失败（包括读取超时等无法确定是否已执行的情况）时保留原批次，下次写入时先以相同的标识重试，不会重复累加；
+ * 只有重试持续超过标记的有效期（markerTtl）时，才可能重复累加。
+ * 单个命令出错（如键的类型不是字符串或哈希表 WRONGTYPE、结果溢出）时，该增量无法写入，输出警告后丢弃，同批次的其他增量正常写入。
+ * 进程异常退出时最多丢失一个写入间隔内的增量与待重试的批次；应用正常关闭时会先写入所有增量。
+ * get()/hget() 返回Redis中的值加上本地尚未写入的增量，写入进行中与待重试批次中的增量不计入。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisCounterAggregator
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisCounterAggregator.class);
+
+    //连续多少次写入时没有增量的计数单元从本地移除
+    private static final int IDLE_FLUSHES_BEFORE_REMOVE = 2;
+
+    /**
+     * 幂等写入一批增量
+     * KEYS[1]：批次标记键；KEYS[2..]：计数器的键
+     * ARGV[1]：批次标记的有效期（毫秒）；之后每个计数器依次为：类型（s 字符串；h 哈希表）、字段、增量
+     * 返回：-1 该批次已写入；否则为出错的计数器序号（从1开始）数组
+     */
+    static final RedisScript FLUSH = new RedisScript("counterFlush",
+            "if redis.call('exists', KEYS[1]) == 1 then return -1 end " +
+            "local failed = {} " +
+            "for i = 2, #KEYS do " +
+            "local base = (i - 2) * 3 + 2 " +
+            "local result " +
+            "if ARGV[base] == 'h' then " +
+            "result = redis.pcall('hincrby', KEYS[i], ARGV[base + 1], ARGV[base + 2]) " +
+            "else " +
+            "result = redis.pcall('incrby', KEYS[i], ARGV[base + 2]) " +
+            "end " +
+            "if type(result) == 'table' and result.err then table.insert(failed, i - 1) end " +
+            "end " +
+            "redis.call('set', KEYS[1], '1', 'PX', ARGV[1]) " +
+            "return failed");
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisNearCache redisNearCache;
+
+    @Autowired
+    private RedisScriptRegistry redisScriptRegistry;
+
+    //Redis项目键
+    @Value("${myenvironment.redis-project-key}")
+    private String redisProjectKey;
+
+    //写入Redis的间隔时间，即进程异常退出时可能丢失增量的时间窗口
+    @Value("${myenvironment.redis-counter.flush-interval:1s}")
+    private Duration flushInterval;
+
+    //待写入的计数单元数量上限，超过时立即写入
+    @Value("${myenvironment.redis-counter.max-pending:10000}")
+    private int maxPending;
+
+    //批次标记的有效期，重试超过该时间后可能重复累加
+    @Value("${myenvironment.redis-counter.marker-ttl:1h}")
+    private Duration markerTtl;
+
+    //计数单元：键（+字段） -> 增量
+    private final ConcurrentHashMap<CounterKey, Cell> cells = new ConcurrentHashMap<>();
+
+    //是否已请求立即写入
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    //写入失败、待以相同标识重试的批次，只在 flush() 中访问
+    private final List<Batch> retryBatches = new ArrayList<>();
+
+    private ScheduledExecutorService flushScheduler;
+
+    @PostConstruct
+    public void init()
+    {
+        redisScriptRegistry.register(FLUSH);
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "redis-counter-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        this.flushScheduler.scheduleWithFixedDelay(this::scheduledFlush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        this.flushScheduler.shutdown();
+        try
+        {
+            this.flushScheduler.awaitTermination(flushInterval.toMillis() + 1000, TimeUnit.MILLISECONDS);
+            flush();
+        }
+        catch (Exception ex)
+        {
+            logger.warn("Redis计数器关闭时写入失败，未写入的计数单元：" + cells.size()
+                    + "，待重试的批次：" + retryBatches.size() + "，" + ex.getMessage());
+        }
+    }
+
+    /**
+     * 字符串计数器加1
+     */
+    public void incr(String key)
+    {
+        add(new CounterKey(key, null), 1);
+    }
+
+    /**
+     * 字符串计数器增加指定的值
+     */
+    public void incrBy(String key, long increment)
+    {
+        add(new CounterKey(key, null), increment);
+    }
+
+    /**
+     * 哈希表字段计数器增加指定的值
+     */
+    public void hincrBy(String key, String field, long increment)
+    {
+        add(new CounterKey(key, field), increment);
+    }
+
+    /**
+     * 获取字符串计数器的值：Redis中的值加上本地尚未写入的增量
+     */
+    public long get(String key) throws RedisException
+    {
+        return parse(redisUtils.get(key)) + pending(new CounterKey(key, null));
+    }
+
+    /**
+     * 获取哈希表字段计数器的值：Redis中的值加上本地尚未写入的增量
+     */
+    public long hget(String key, String field) throws RedisException
+    {
+        return parse(redisUtils.hget(key, field)) + pending(new CounterKey(key, field));
+    }
+
+    /**
+     * 待写入的计数单元数量
+     */
+    public int getPendingCount()
+    {
+        return cells.size();
+    }
+
+    /**
+     * 立即将所有增量写入Redis
+     * 先重试上次写入失败的批次，重试仍失败时本次的增量留在本地；
+     * 写入失败时保留未确认的批次，下次以相同的标识重试，并抛出异常
+     */
+    public synchronized void flush() throws RedisException
+    {
+        flushRequested.set(false);
+        while (!retryBatches.isEmpty())
+        {
+            write(retryBatches.get(0));
+            retryBatches.remove(0);
+        }
+
+        List<CounterKey> keys = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        for (Map.Entry<CounterKey, Cell> entry : cells.entrySet())
+        {
+            Cell cell = entry.getValue();
+            long delta = cell.sumThenReset();
+            if (delta != 0)
+            {
+                cell.idleFlushes = 0;
+                keys.add(entry.getKey());
+                deltas.add(delta);
+            }
+            else if (++cell.idleFlushes >= IDLE_FLUSHES_BEFORE_REMOVE && cells.remove(entry.getKey(), cell))
+            {
+                //移除后仍可能有线程在向该单元累加，将剩余增量转移到新的单元
+                cell.retired = true;
+                drain(entry.getKey(), cell);
+            }
+        }
+        if (keys.isEmpty())
+        {
+            return;
+        }
+
+        int batchSize = Math.max(1, redisUtils.getRedisBatchSize());
+        List<Batch> batches = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += batchSize)
+        {
+            int to = Math.min(from + batchSize, keys.size());
+            batches.add(new Batch(keys.subList(from, to), deltas.subList(from, to)));
+        }
+        for (int i = 0; i < batches.size(); i++)
+        {
+            try
+            {
+                write(batches.get(i));
+            }
+            catch (RedisException ex)
+            {
+                //失败的批次可能已经执行，与之后未发送的批次一起保留，下次以相同的标识重试
+                retryBatches.addAll(batches.subList(i, batches.size()));
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * 通过脚本幂等写入一批增量，再通过管道广播近端缓存失效消息
+     */
+    private void write(Batch batch) throws RedisException
+    {
+        List<String> scriptKeys = new ArrayList<>(batch.keys.size() + 1);
+        List<String> args = new ArrayList<>(batch.keys.size() * 3 + 1);
+        scriptKeys.add(redisProjectKey + "__counter_flush:" + batch.id);
+        args.add(Long.toString(Math.max(1, markerTtl.toMillis())));
+        for (int i = 0; i < batch.keys.size(); i++)
+        {
+            CounterKey counterKey = batch.keys.get(i);
+            scriptKeys.add(counterKey.key);
+            args.add(counterKey.field == null ? "s" : "h");
+            args.add(counterKey.field == null ? "" : counterKey.field);
+            args.add(Long.toString(batch.deltas.get(i)));
+        }
+
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            Object result = redisScriptRegistry.eval(jedis, FLUSH, scriptKeys, args);
+            if (result instanceof List)
+            {
+                for (Object index : (List<?>) result)
+                {
+                    //命令出错的增量无法写入，重试也会出错，直接丢弃
+                    int i = ((Long) index).intValue() - 1;
+                    CounterKey counterKey = batch.keys.get(i);
+                    logger.warn("Redis计数器写入出错，丢弃增量：" + counterKey.key
+                            + (counterKey.field != null ? "，字段：" + counterKey.field : "") + "，增量：" + batch.deltas.get(i));
+                }
+            }
+
+            long startTime = System.nanoTime();
+            Pipeline pipeline = jedis.pipelined();
+            for (CounterKey counterKey : batch.keys)
+            {
+                redisNearCache.invalidate(pipeline, counterKey.key);
+            }
+            pipeline.sync();
+            redisMetrics.recordCommand(RedisCommandType.PIPELINE, startTime);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    private void add(CounterKey counterKey, long delta)
+    {
+        Cell cell = cells.computeIfAbsent(counterKey, k -> new Cell());
+        cell.add(delta);
+        if (cell.retired)
+        {
+            //累加时该单元已被移除，本次增量可能未被转移
+            drain(counterKey, cell);
+        }
+        else if (cells.size() > maxPending && !flushScheduler.isShutdown() && flushRequested.compareAndSet(false, true))
+        {
+            flushScheduler.execute(this::scheduledFlush);
+        }
+    }
+
+    /**
+     * 将已移除单元中的剩余增量转移到新的单元
+     */
+    private void drain(CounterKey counterKey, Cell retired)
+    {
+        long remaining = retired.sumThenReset();
+        if (remaining != 0)
+        {
+            add(counterKey, remaining);
+        }
+    }
+
+    private long pending(CounterKey counterKey)
+    {
+        Cell cell = cells.get(counterKey);
+        return cell != null ? cell.sum() : 0;
+    }
+
+    private void scheduledFlush()
+    {
+        try
+        {
+            flush();
+        }
+        catch (Exception ex)
+        {
+            logger.warn("Redis计数器写入失败，将在下次重试：" + ex.getMessage());
+        }
+    }
+
+    private static long parse(String value)
+    {
+        return value == null || value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    /**
+     * 一批待写入的增量，重试时使用相同的标识
+     */
+    private static final class Batch
+    {
+        private final String id = UUID.randomUUID().toString();
+
+        private final List<CounterKey> keys;
+
+        private final List<Long> deltas;
+
+        Batch(List<CounterKey> keys, List<Long> deltas)
+        {
+            this.keys = keys;
+            this.deltas = deltas;
+        }
+    }
+
+    /**
+     * 计数单元
+     */
+    private static final class Cell extends LongAdder
+    {
+        //是否已从本地移除
+        private volatile boolean retired;
+
+        //连续没有增量的写入次数，只在写入线程中访问
+        private int idleFlushes;
+    }
+
+    /**
+     * 计数单元的键：字符串为键，哈希表为键+字段
+     */
+    private static final class CounterKey
+    {
+        private final String key;
+
+        //哈希表字段，字符串计数器为 null
+        private final String field;
+
+        CounterKey(String key, String field)
+        {
+            this.key = key;
+            this.field = field;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof CounterKey))
+            {
+                return false;
+            }
+            CounterKey other = (CounterKey) o;
+            return key.equals(other.key) && Objects.equals(field, other.field);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return key.hashCode() * 31 + Objects.hashCode(field);
+        }
+    }
+}
@@ -0,0 +1,537 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.metrics.RedisMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Redis对象-哈希表映射器
+ * 对象的每个字段（非静态、非final、非transient，包括父类字段）保存为哈希表的一个字段，
+ * 整个对象通过一次HSET写入，通过一次HGETALL或HMGET读取。
+ * 每个类的字段信息只解析一次并缓存，读写字段使用 MethodHandle，热路径上不使用反射。
+ * 支持的字段类型：基本类型及其包装类、String、BigDecimal、BigInteger、枚举、Date、
+ * LocalDate、LocalTime、LocalDateTime、Instant；值为 null 的字段不保存。
+ * 要映射的类需要有无参构造方法。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisHashMapper
+{
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisNearCache redisNearCache;
+
+    @Autowired
+    private RedisValueCompressor redisValueCompressor;
+
+    //类的字段信息：类 -> 字段信息
+    private final ConcurrentHashMap<Class<?>, ClassMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    /**
+     * 保存整个对象：非空字段通过一次HSET写入，值为 null 的字段从哈希表中删除，在同一个事务中执行
+     * @param key 键
+     * @param object 对象
+     */
+    public void save(String key, Object object) throws RedisException
+    {
+        ClassMetadata metadata = getMetadata(object.getClass());
+        write(key, encode(metadata.fields, object));
+    }
+
+    /**
+     * 只保存指定的字段
+     * @param key 键
+     * @param object 对象
+     * @param fieldNames 字段名
+     */
+    public void save(String key, Object object, String... fieldNames) throws RedisException
+    {
+        ClassMetadata metadata = getMetadata(object.getClass());
+        write(key, encode(metadata.select(fieldNames), object));
+    }
+
+    /**
+     * 读取整个对象（HGETALL）
+     * @param key 键
+     * @param type 对象类型
+     * @return 对象，键不存在时返回 null
+     */
+    public <T> T load(String key, Class<T> type) throws RedisException
+    {
+        ClassMetadata metadata = getMetadata(type);
+        Jedis jedis = null;
+        Map<byte[], byte[]> hash;
+        try
+        {
+            jedis = redisUtils.getReadJedis();
+            long startTime = System.nanoTime();
+            hash = jedis.hgetAll(SafeEncoder.encode(key));
+            redisMetrics.recordCommand(RedisCommandType.HGETALL, startTime);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HGETALL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+        if (hash.isEmpty())
+        {
+            return null;
+        }
+
+        T object = metadata.newInstance(type);
+        for (Map.Entry<byte[], byte[]> entry : hash.entrySet())
+        {
+            FieldMetadata field = metadata.fieldsByName.get(SafeEncoder.encode(entry.getKey()));
+            if (field != null)
+            {
+                field.set(object, redisValueCompressor.decode(entry.getValue()));
+            }
+        }
+        return object;
+    }
+
+    /**
+     * 只读取指定的字段（HMGET），其余字段保持默认值
+     * @param key 键
+     * @param type 对象类型
+     * @param fieldNames 字段名
+     * @return 对象，指定的字段都不存在时返回 null
+     */
+    public <T> T load(String key, Class<T> type, String... fieldNames) throws RedisException
+    {
+        ClassMetadata metadata = getMetadata(type);
+        FieldMetadata[] fields = metadata.select(fieldNames);
+        byte[][] binaryNames = new byte[fields.length][];
+        for (int i = 0; i < fields.length; i++)
+        {
+            binaryNames[i] = fields[i].binaryName;
+        }
+
+        Jedis jedis = null;
+        List<byte[]> values;
+        try
+        {
+            jedis = redisUtils.getReadJedis();
+            long startTime = System.nanoTime();
+            values = jedis.hmget(SafeEncoder.encode(key), binaryNames);
+            redisMetrics.recordCommand(RedisCommandType.HMGET, startTime);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HMGET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+
+        T object = null;
+        for (int i = 0; i < fields.length; i++)
+        {
+            if (values.get(i) != null)
+            {
+                if (object == null)
+                {
+                    object = metadata.newInstance(type);
+                }
+                fields[i].set(object, redisValueCompressor.decode(values.get(i)));
+            }
+        }
+        return object;
+    }
+
+    /**
+     * 读取整个对象，并记录读取时各字段的值，用于之后只保存修改过的字段
+     * @param key 键
+     * @param type 对象类型
+     * @return 可跟踪修改的对象，键不存在时返回 null
+     */
+    public <T> Tracked<T> loadTracked(String key, Class<T> type) throws RedisException
+    {
+        T object = load(key, type);
+        return object != null ? track(object) : null;
+    }
+
+    /**
+     * 记录对象当前各字段的值，用于之后只保存修改过的字段
+     */
+    public <T> Tracked<T> track(T object)
+    {
+        ClassMetadata metadata = getMetadata(object.getClass());
+        return new Tracked<>(object, encode(metadata.fields, object));
+    }
+
+    /**
+     * 只保存与上次记录相比修改过的字段，保存后重新记录
+     * @param key 键
+     * @param tracked 可跟踪修改的对象
+     * @return 保存的字段数量
+     */
+    public int saveChanges(String key, Tracked<?> tracked) throws RedisException
+    {
+        ClassMetadata metadata = getMetadata(tracked.object.getClass());
+        Map<FieldMetadata, String> current = encode(metadata.fields, tracked.object);
+        Map<FieldMetadata, String> changed = new LinkedHashMap<>();
+        for (Map.Entry<FieldMetadata, String> entry : current.entrySet())
+        {
+            String previous = tracked.snapshot.get(entry.getKey());
+            if (entry.getValue() == null ? previous != null : !entry.getValue().equals(previous))
+            {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!changed.isEmpty())
+        {
+            write(key, changed);
+        }
+        tracked.snapshot = current;
+        return changed.size();
+    }
+
+    /**
+     * 在一个事务中写入非空字段、删除值为 null 的字段
+     */
+    private void write(String key, Map<FieldMetadata, String> values) throws RedisException
+    {
+        Map<byte[], byte[]> hash = new HashMap<>(values.size() * 4 / 3 + 1);
+        List<byte[]> nullFields = new ArrayList<>();
+        long payload = 0;
+        for (Map.Entry<FieldMetadata, String> entry : values.entrySet())
+        {
+            if (entry.getValue() == null)
+            {
+                nullFields.add(entry.getKey().binaryName);
+            }
+            else
+            {
+                byte[] value = redisValueCompressor.encode(entry.getValue());
+                payload += value.length;
+                hash.put(entry.getKey().binaryName, value);
+            }
+        }
+        if (hash.isEmpty() && nullFields.isEmpty())
+        {
+            return;
+        }
+
+        byte[] binaryKey = SafeEncoder.encode(key);
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            long startTime = System.nanoTime();
+            Pipeline pipeline = jedis.pipelined();
+            pipeline.multi();
+            if (!hash.isEmpty())
+            {
+                pipeline.hset(binaryKey, hash);
+            }
+            if (!nullFields.isEmpty())
+            {
+                pipeline.hdel(binaryKey, nullFields.toArray(new byte[0][]));
+            }
+            pipeline.exec();
+            redisNearCache.invalidate(pipeline, key);
+            pipeline.sync();
+            redisMetrics.recordCommand(RedisCommandType.HSET, startTime);
+            redisMetrics.recordPayload(RedisCommandType.HSET, payload);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HSET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    /**
+     * 将对象的字段转换为字符串，值为 null 的字段对应 null
+     */
+    private static Map<FieldMetadata, String> encode(FieldMetadata[] fields, Object object)
+    {
+        Map<FieldMetadata, String> result = new LinkedHashMap<>(fields.length * 4 / 3 + 1);
+        for (FieldMetadata field : fields)
+        {
+            result.put(field, field.get(object));
+        }
+        return result;
+    }
+
+    private ClassMetadata getMetadata(Class<?> type)
+    {
+        return metadataCache.computeIfAbsent(type, ClassMetadata::new);
+    }
+
+    /**
+     * 可跟踪修改的对象
+     */
+    public static final class Tracked<T>
+    {
+        private final T object;
+
+        //上次读取或保存时各字段的值
+        private Map<FieldMetadata, String> snapshot;
+
+        private Tracked(T object, Map<FieldMetadata, String> snapshot)
+        {
+            this.object = object;
+            this.snapshot = snapshot;
+        }
+
+        public T get()
+        {
+            return object;
+        }
+    }
+
+    /**
+     * 类的字段信息
+     */
+    private static final class ClassMetadata
+    {
+        private final MethodHandle constructor;
+
+        private final FieldMetadata[] fields;
+
+        private final Map<String, FieldMetadata> fieldsByName = new HashMap<>();
+
+        ClassMetadata(Class<?> type)
+        {
+            try
+            {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+                List<FieldMetadata> fieldList = new ArrayList<>();
+                for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass())
+                {
+                    MethodHandles.Lookup currentLookup = MethodHandles.privateLookupIn(current, MethodHandles.lookup());
+                    for (Field field : current.getDeclaredFields())
+                    {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)
+                                || field.isSynthetic()
+                                || fieldsByName.containsKey(field.getName()))
+                        {
+                            continue;
+                        }
+                        FieldMetadata fieldMetadata = new FieldMetadata(currentLookup, field);
+                        fieldList.add(fieldMetadata);
+                        fieldsByName.put(field.getName(), fieldMetadata);
+                    }
+                }
+                this.fields = fieldList.toArray(new FieldMetadata[0]);
+            }
+            catch (ReflectiveOperationException ex)
+            {
+                throw new IllegalArgumentException("无法映射类 " + type.getName() + "：" + ex.getMessage(), ex);
+            }
+        }
+
+        <T> T newInstance(Class<T> type)
+        {
+            try
+            {
+                return type.cast((Object) constructor.invokeExact());
+            }
+            catch (Throwable ex)
+            {
+                throw new IllegalStateException("无法创建 " + type.getName() + " 的实例", ex);
+            }
+        }
+
+        FieldMetadata[] select(String... fieldNames)
+        {
+            FieldMetadata[] result = new FieldMetadata[fieldNames.length];
+            for (int i = 0; i < fieldNames.length; i++)
+            {
+                result[i] = fieldsByName.get(fieldNames[i]);
+                if (result[i] == null)
+                {
+                    throw new IllegalArgumentException("字段不存在：" + fieldNames[i]);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 字段信息
+     */
+    private static final class FieldMetadata
+    {
+        private final String name;
+
+        private final byte[] binaryName;
+
+        private final boolean primitive;
+
+        //读取字段：(Object)Object
+        private final MethodHandle getter;
+
+        //写入字段：(Object,Object)void
+        private final MethodHandle setter;
+
+        //字符串转换为字段类型
+        private final Function<String, Object> parser;
+
+        FieldMetadata(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException
+        {
+            this.name = field.getName();
+            this.binaryName = SafeEncoder.encode(name);
+            this.primitive = field.getType().isPrimitive();
+            this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            this.parser = parser(field.getType());
+        }
+
+        String get(Object object)
+        {
+            Object value;
+            try
+            {
+                value = (Object) getter.invokeExact(object);
+            }
+            catch (Throwable ex)
+            {
+                throw new IllegalStateException("无法读取字段 " + name, ex);
+            }
+            if (value == null)
+            {
+                return null;
+            }
+            return value instanceof Date ? Long.toString(((Date) value).getTime()) : value.toString();
+        }
+
+        void set(Object object, String text)
+        {
+            if (text == null && primitive)
+            {
+                return;
+            }
+            try
+            {
+                setter.invokeExact(object, text != null ? parser.apply(text) : null);
+            }
+            catch (Throwable ex)
+            {
+                throw new IllegalStateException("无法写入字段 " + name + "：" + text, ex);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Function<String, Object> parser(Class<?> type)
+        {
+            if (type == String.class)
+            {
+                return text -> text;
+            }
+            if (type == int.class || type == Integer.class)
+            {
+                return Integer::valueOf;
+            }
+            if (type == long.class || type == Long.class)
+            {
+                return Long::valueOf;
+            }
+            if (type == double.class || type == Double.class)
+            {
+                return Double::valueOf;
+            }
+            if (type == float.class || type == Float.class)
+            {
+                return Float::valueOf;
+            }
+            if (type == boolean.class || type == Boolean.class)
+            {
+                return Boolean::valueOf;
+            }
+            if (type == short.class || type == Short.class)
+            {
+                return Short::valueOf;
+            }
+            if (type == byte.class || type == Byte.class)
+            {
+                return Byte::valueOf;
+            }
+            if (type == char.class || type == Character.class)
+            {
+                return text -> text.charAt(0);
+            }
+            if (type == BigDecimal.class)
+            {
+                return BigDecimal::new;
+            }
+            if (type == BigInteger.class)
+            {
+                return BigInteger::new;
+            }
+            if (type.isEnum())
+            {
+                return text -> Enum.valueOf((Class) type, text);
+            }
+            if (type == Date.class)
+            {
+                return text -> new Date(Long.parseLong(text));
+            }
+            if (type == LocalDate.class)
+            {
+                return LocalDate::parse;
+            }
+            if (type == LocalTime.class)
+            {
+                return LocalTime::parse;
+            }
+            if (type == LocalDateTime.class)
+            {
+                return LocalDateTime::parse;
+            }
+            if (type == Instant.class)
+            {
+                return Instant::parse;
+            }
+            throw new IllegalArgumentException("不支持的字段类型：" + type.getName());
+        }
+    }
+}
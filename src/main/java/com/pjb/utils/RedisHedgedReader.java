@@ -0,0 +1,186 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.exception.RedisRuntimeException;
+import com.pjb.metrics.RedisMetrics;
+import com.pjb.pool.RedisCircuitBreaker;
+import com.pjb.pool.RedisReplicaPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Redis对冲读取
+ * 先向主节点发出读取请求，超过对冲延迟仍未返回时，再向只读副本发出相同的请求，返回先成功的结果，
+ * 用于降低对尾延迟敏感的读取的P99耗时。
+ * 未配置只读副本、没有可用的副本或断路器不是关闭状态时不发出对冲请求，只等待主请求，避免加重已经变慢的节点的负载。
+ * 对冲请求会增加Redis的负载，对冲延迟一般设置为读取耗时的P95左右，使只有少量请求需要对冲。
+ * 请求在 AsyncRedisUtils 的线程池中执行，RedisUtils.withDeadline() 的截止时间不会传递到这些请求。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisHedgedReader
+{
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private AsyncRedisUtils asyncRedisUtils;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisValueCompressor redisValueCompressor;
+
+    //只读副本连接池，配置 spring.redis.replicas 时作为对冲请求的目标
+    @Autowired(required = false)
+    private RedisReplicaPool redisReplicaPool;
+
+    //断路器，配置 myenvironment.redis-circuit-breaker.enabled=true 时启用
+    @Autowired(required = false)
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    //对冲延迟：主请求超过该时间未返回时发出对冲请求
+    @Value("${myenvironment.redis-hedge.delay:20ms}")
+    private Duration delay;
+
+    /**
+     * 对冲读取字符串值
+     * @param key 键
+     * @return 值，键不存在时返回 null
+     */
+    public String get(String key) throws RedisException
+    {
+        byte[] binaryKey = SafeEncoder.encode(key);
+        return read(RedisCommandType.GET, jedis -> jedis.get(binaryKey));
+    }
+
+    /**
+     * 对冲读取哈希表字段的值
+     * @param key 键
+     * @param field 域
+     * @return 值，字段或键不存在时返回 null
+     */
+    public String hget(String key, String field) throws RedisException
+    {
+        byte[] binaryKey = SafeEncoder.encode(key);
+        byte[] binaryField = SafeEncoder.encode(field);
+        return read(RedisCommandType.HGET, jedis -> jedis.hget(binaryKey, binaryField));
+    }
+
+    private String read(RedisCommandType command, Function<Jedis, byte[]> reader) throws RedisException
+    {
+        Executor executor = asyncRedisUtils.getExecutor();
+        CompletableFuture<byte[]> primary = CompletableFuture.supplyAsync(() -> execute(command, reader, false), executor);
+        try
+        {
+            byte[] value;
+            try
+            {
+                value = primary.get(delay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException ex)
+            {
+                value = canHedge() ? hedge(command, reader, primary, executor) : primary.get();
+            }
+            return redisValueCompressor.decode(value);
+        }
+        catch (ExecutionException ex)
+        {
+            throw new RedisException(ex.getCause());
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 是否可以发出对冲请求：配置了只读副本，且断路器为关闭状态
+     */
+    private boolean canHedge()
+    {
+        return redisReplicaPool != null
+                && (redisCircuitBreaker == null || redisCircuitBreaker.getState() == RedisCircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * 发出对冲请求，返回两个请求中先成功的结果，两个请求都失败时抛出后失败的异常
+     */
+    private byte[] hedge(RedisCommandType command, Function<Jedis, byte[]> reader, CompletableFuture<byte[]> primary,
+                         Executor executor) throws ExecutionException, InterruptedException
+    {
+        CompletableFuture<byte[]> hedged = CompletableFuture.supplyAsync(() -> execute(command, reader, true), executor);
+
+        //结果与是否由对冲请求返回
+        CompletableFuture<Map.Entry<byte[], Boolean>> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((value, ex) -> complete(first, failures, value, ex, false));
+        hedged.whenComplete((value, ex) -> complete(first, failures, value, ex, true));
+
+        Map.Entry<byte[], Boolean> result = first.get();
+        redisMetrics.recordHedgedRead(result.getValue());
+        return result.getKey();
+    }
+
+    private static void complete(CompletableFuture<Map.Entry<byte[], Boolean>> first, AtomicInteger failures,
+                                 byte[] value, Throwable ex, boolean hedge)
+    {
+        if (ex == null)
+        {
+            first.complete(new AbstractMap.SimpleImmutableEntry<>(value, hedge));
+        }
+        else if (failures.incrementAndGet() == 2)
+        {
+            first.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+        }
+    }
+
+    private byte[] execute(RedisCommandType command, Function<Jedis, byte[]> reader, boolean hedge)
+    {
+        //对冲请求只发往只读副本，没有可用的副本时对冲请求失败，只等待主请求的结果
+        Jedis jedis = hedge ? redisUtils.getReplicaJedis() : null;
+        if (hedge && jedis == null)
+        {
+            throw new RedisRuntimeException("没有可用的只读副本");
+        }
+        try
+        {
+            if (jedis == null)
+            {
+                jedis = redisUtils.getJedis();
+            }
+            long startTime = System.nanoTime();
+            byte[] result = reader.apply(jedis);
+            redisMetrics.recordCommand(command, startTime);
+            return result;
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(command, ex);
+            throw new RedisRuntimeException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+}
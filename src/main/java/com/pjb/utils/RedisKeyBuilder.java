@@ -0,0 +1,172 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisKeyEnum;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Redis键构建器
+ * 为每个业务键预先计算“项目键_业务键::”前缀的字符串与UTF-8字节，
+ * 构建键时不再解析格式字符串，也不产生中间对象。
+ * 整数ID直接写入结果字节数组，供Jedis的 byte[] 命令使用，唯一的分配就是键本身。
+ * @author pan_junbiao
+ **/
+public class RedisKeyBuilder
+{
+    //项目键
+    private final String redisProjectKey;
+
+    //业务键（不含ID），格式：项目键_业务键
+    private final String[] businessKeys;
+
+    //业务键前缀，格式：项目键_业务键::
+    private final String[] prefixes;
+
+    //业务键前缀的UTF-8字节
+    private final byte[][] prefixBytes;
+
+    public RedisKeyBuilder(String redisProjectKey)
+    {
+        this.redisProjectKey = redisProjectKey;
+        RedisKeyEnum[] values = RedisKeyEnum.values();
+        this.businessKeys = new String[values.length];
+        this.prefixes = new String[values.length];
+        this.prefixBytes = new byte[values.length][];
+        for (RedisKeyEnum businessKey : values)
+        {
+            int index = businessKey.ordinal();
+            this.businessKeys[index] = redisProjectKey + "_" + businessKey;
+            this.prefixes[index] = this.businessKeys[index] + "::";
+            this.prefixBytes[index] = this.prefixes[index].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public String getRedisProjectKey()
+    {
+        return redisProjectKey;
+    }
+
+    /**
+     * 获取业务键，格式：项目键_业务键
+     */
+    public String key(RedisKeyEnum businessKey)
+    {
+        return businessKeys[businessKey.ordinal()];
+    }
+
+    /**
+     * 获取业务键前缀，格式：项目键_业务键::
+     */
+    public String prefix(RedisKeyEnum businessKey)
+    {
+        return prefixes[businessKey.ordinal()];
+    }
+
+    /**
+     * 获取Redis键，格式：项目键_业务键::ID
+     */
+    public String key(RedisKeyEnum businessKey, Object id)
+    {
+        return prefixes[businessKey.ordinal()].concat(id.toString());
+    }
+
+    /**
+     * 获取Redis键，格式：项目键_业务键::ID
+     */
+    public String key(RedisKeyEnum businessKey, long id)
+    {
+        return prefixes[businessKey.ordinal()].concat(Long.toString(id));
+    }
+
+    /**
+     * 获取带哈希标签的Redis键，格式：项目键_业务键::{ID}
+     * 集群只对花括号内的ID计算哈希槽，同一ID的键位于同一槽位
+     */
+    public String taggedKey(RedisKeyEnum businessKey, Object id)
+    {
+        String idString = id.toString();
+        return new StringBuilder(prefixes[businessKey.ordinal()].length() + idString.length() + 2)
+                .append(prefixes[businessKey.ordinal()]).append('{').append(idString).append('}').toString();
+    }
+
+    /**
+     * 获取Redis键的UTF-8字节，格式：项目键_业务键::ID
+     * 整数ID直接写入结果字节数组，不产生中间字符串
+     */
+    public byte[] keyBytes(RedisKeyEnum businessKey, Object id)
+    {
+        if (id instanceof Long || id instanceof Integer || id instanceof Short || id instanceof Byte)
+        {
+            return keyBytes(businessKey, ((Number) id).longValue());
+        }
+        byte[] prefix = prefixBytes[businessKey.ordinal()];
+        byte[] idBytes = id.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] result = new byte[prefix.length + idBytes.length];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        System.arraycopy(idBytes, 0, result, prefix.length, idBytes.length);
+        return result;
+    }
+
+    /**
+     * 获取Redis键的UTF-8字节，格式：项目键_业务键::ID
+     * ID的数字直接写入结果字节数组，不产生中间字符串
+     */
+    public byte[] keyBytes(RedisKeyEnum businessKey, long id)
+    {
+        byte[] prefix = prefixBytes[businessKey.ordinal()];
+        byte[] result = new byte[prefix.length + digitCount(id)];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        writeDigits(id, result, result.length);
+        return result;
+    }
+
+    /**
+     * 计算整数的十进制位数（包含负号）
+     */
+    static int digitCount(long value)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            return 20;
+        }
+        int count = 1;
+        if (value < 0)
+        {
+            count++;
+            value = -value;
+        }
+        while (value >= 10)
+        {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 将整数的十进制数字从后往前写入字节数组
+     * @param value 整数
+     * @param buffer 字节数组
+     * @param end 写入的结束位置（不包含）
+     */
+    static void writeDigits(long value, byte[] buffer, int end)
+    {
+        int position = end;
+        boolean negative = value < 0;
+        if (!negative)
+        {
+            value = -value;
+        }
+        //使用负数计算，以便正确处理 Long.MIN_VALUE
+        do
+        {
+            buffer[--position] = (byte) ('0' - (value % 10));
+            value /= 10;
+        }
+        while (value != 0);
+        if (negative)
+        {
+            buffer[--position] = '-';
+        }
+    }
+}
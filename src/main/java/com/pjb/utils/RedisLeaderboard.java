@@ -0,0 +1,438 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.metrics.RedisMetrics;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.Tuple;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Redis排行榜
+ * 基于有序集合，分数从高到低排名（排名从0开始）。
+ * 更新分数与裁剪在同一个事务（MULTI/EXEC）中执行，排行榜最多保留 maxSize 个成员；
+ * 排名附近的成员、游标分页使用Lua脚本，一次往返完成。
+ * 可选地在本地缓存前N名，在缓存有效期内重复读取前N名不访问Redis。
+ * 通过 RedisUtils.leaderboard() 创建，可以在多个线程中共享。
+ * @author pan_junbiao
+ **/
+public class RedisLeaderboard
+{
+    /**
+     * 获取成员排名附近的成员
+     * KEYS[1]：键；ARGV[1]：成员；ARGV[2]：前后各取的数量
+     * 返回：{起始排名, 成员1, 分数1, 成员2, 分数2...}，成员不存在时返回空数组
+     */
+    static final RedisScript AROUND = new RedisScript("leaderboardAround",
+            "local rank = redis.call('zrevrank', KEYS[1], ARGV[1]) " +
+            "if not rank then return {} end " +
+            "local start = math.max(0, rank - tonumber(ARGV[2])) " +
+            "local result = redis.call('zrevrange', KEYS[1], start, rank + tonumber(ARGV[2]), 'WITHSCORES') " +
+            "table.insert(result, 1, start) " +
+            "return result");
+
+    /**
+     * 游标分页：返回游标成员之后的一页
+     * KEYS[1]：键；ARGV[1]：游标成员（空字符串表示第一页）；ARGV[2]：游标分数；ARGV[3]：每页数量
+     * 游标成员已被移除时，从分数小于游标分数的成员继续
+     * 返回：{起始排名, 成员1, 分数1, 成员2, 分数2...}
+     */
+    static final RedisScript PAGE = new RedisScript("leaderboardPage",
+            "local start = 0 " +
+            "if ARGV[1] ~= '' then " +
+            "  local rank = redis.call('zrevrank', KEYS[1], ARGV[1]) " +
+            "  if rank then start = rank + 1 " +
+            "  else start = redis.call('zcount', KEYS[1], '(' .. ARGV[2], '+inf') end " +
+            "end " +
+            "local result = redis.call('zrevrange', KEYS[1], start, start + tonumber(ARGV[3]) - 1, 'WITHSCORES') " +
+            "table.insert(result, 1, start) " +
+            "return result");
+
+    private final RedisUtils redisUtils;
+
+    private final RedisMetrics redisMetrics;
+
+    private final RedisScriptRegistry redisScriptRegistry;
+
+    //排行榜的键
+    private final String key;
+
+    //最多保留的成员数量，0表示不限制
+    private final long maxSize;
+
+    //本地缓存前N名的有效期（纳秒），0表示不缓存
+    private final long topCacheNanos;
+
+    //本地缓存的前N名
+    private volatile TopCache topCache;
+
+    RedisLeaderboard(RedisUtils redisUtils, RedisMetrics redisMetrics, RedisScriptRegistry redisScriptRegistry,
+                     String key, long maxSize, Duration topCacheTtl)
+    {
+        this.redisUtils = redisUtils;
+        this.redisMetrics = redisMetrics;
+        this.redisScriptRegistry = redisScriptRegistry;
+        this.key = key;
+        this.maxSize = Math.max(0, maxSize);
+        this.topCacheNanos = topCacheTtl != null ? topCacheTtl.toNanos() : 0;
+        redisScriptRegistry.register(AROUND);
+        redisScriptRegistry.register(PAGE);
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * 设置成员的分数，并裁剪排行榜
+     */
+    public void setScore(String member, double score) throws RedisException
+    {
+        execute(RedisCommandType.ZADD, transaction -> transaction.zadd(key, score, member));
+    }
+
+    /**
+     * 增加成员的分数，并裁剪排行榜
+     */
+    public void incrementScore(String member, double increment) throws RedisException
+    {
+        execute(RedisCommandType.ZINCRBY, transaction -> transaction.zincrby(key, increment, member));
+    }
+
+    /**
+     * 批量增加成员的分数（ZINCRBY），并裁剪排行榜，所有命令在一次往返中执行
+     * @param increments 成员-增量集合
+     */
+    public void incrementScores(Map<String, Double> increments) throws RedisException
+    {
+        if (increments.isEmpty())
+        {
+            return;
+        }
+        execute(RedisCommandType.PIPELINE, transaction ->
+        {
+            for (Map.Entry<String, Double> entry : increments.entrySet())
+            {
+                transaction.zincrby(key, entry.getValue(), entry.getKey());
+            }
+        });
+    }
+
+    /**
+     * 移除成员
+     */
+    public void remove(String... members) throws RedisException
+    {
+        execute(RedisCommandType.ZREM, transaction -> transaction.zrem(key, members));
+    }
+
+    /**
+     * 获取前N名
+     * @param n 数量
+     * @return 成员列表，按分数从高到低排列
+     */
+    public List<Entry> top(int n) throws RedisException
+    {
+        if (n <= 0)
+        {
+            return Collections.emptyList();
+        }
+        TopCache cache = this.topCache;
+        if (cache != null && cache.size >= n && System.nanoTime() - cache.createTime < topCacheNanos)
+        {
+            return cache.entries.size() > n ? cache.entries.subList(0, n) : cache.entries;
+        }
+
+        Jedis jedis = null;
+        List<Entry> result;
+        try
+        {
+            jedis = redisUtils.getReadJedis();
+            long startTime = System.nanoTime();
+            Set<Tuple> tuples = jedis.zrevrangeWithScores(key, 0, n - 1);
+            redisMetrics.recordCommand(RedisCommandType.ZREVRANGE, startTime);
+            result = new ArrayList<>(tuples.size());
+            long rank = 0;
+            for (Tuple tuple : tuples)
+            {
+                result.add(new Entry(tuple.getElement(), tuple.getScore(), rank++));
+            }
+            result = Collections.unmodifiableList(result);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.ZREVRANGE, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+        if (topCacheNanos > 0)
+        {
+            this.topCache = new TopCache(result, n, System.nanoTime());
+        }
+        return result;
+    }
+
+    /**
+     * 获取成员的排名（从0开始）
+     * @return 排名，成员不存在时返回 null
+     */
+    public Long rank(String member) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getReadJedis();
+            long startTime = System.nanoTime();
+            Long result = jedis.zrevrank(key, member);
+            redisMetrics.recordCommand(RedisCommandType.ZREVRANK, startTime);
+            return result;
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.ZREVRANK, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    /**
+     * 获取成员的分数
+     * @return 分数，成员不存在时返回 null
+     */
+    public Double score(String member) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getReadJedis();
+            long startTime = System.nanoTime();
+            Double result = jedis.zscore(key, member);
+            redisMetrics.recordCommand(RedisCommandType.ZSCORE, startTime);
+            return result;
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.ZSCORE, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    /**
+     * 获取成员排名附近的成员（包含成员自身）
+     * @param member 成员
+     * @param radius 前后各取的数量
+     * @return 成员列表，成员不存在时返回空列表
+     */
+    public List<Entry> around(String member, int radius) throws RedisException
+    {
+        return evalEntries(AROUND, Arrays.asList(member, Integer.toString(Math.max(0, radius))));
+    }
+
+    /**
+     * 游标分页
+     * @param cursor 上一页返回的游标，第一页传 null
+     * @param size 每页数量
+     * @return 一页成员及下一页的游标
+     */
+    public Page page(String cursor, int size) throws RedisException
+    {
+        String cursorMember = "";
+        String cursorScore = "+inf";
+        if (cursor != null && !cursor.isEmpty())
+        {
+            int index = cursor.indexOf(':');
+            cursorScore = cursor.substring(0, index);
+            cursorMember = cursor.substring(index + 1);
+        }
+        List<Entry> entries = evalEntries(PAGE, Arrays.asList(cursorMember, cursorScore, Integer.toString(Math.max(1, size))));
+        String nextCursor = null;
+        if (entries.size() >= size && !entries.isEmpty())
+        {
+            Entry last = entries.get(entries.size() - 1);
+            nextCursor = last.getScore() + ":" + last.getMember();
+        }
+        return new Page(entries, nextCursor);
+    }
+
+    /**
+     * 在事务中执行更新命令并裁剪排行榜，清空本地缓存
+     */
+    private void execute(RedisCommandType command, TransactionCommand transactionCommand) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            long startTime = System.nanoTime();
+            Transaction transaction = jedis.multi();
+            transactionCommand.apply(transaction);
+            if (maxSize > 0)
+            {
+                transaction.zremrangeByRank(key, 0, -maxSize - 1);
+            }
+            transaction.exec();
+            redisMetrics.recordCommand(command, startTime);
+            this.topCache = null;
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(command, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    /**
+     * 执行返回 {起始排名, 成员1, 分数1...} 的脚本
+     */
+    private List<Entry> evalEntries(RedisScript script, List<String> args) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            List<?> reply = (List<?>) redisScriptRegistry.eval(jedis, script, Collections.singletonList(key), args);
+            if (reply.isEmpty())
+            {
+                return Collections.emptyList();
+            }
+            long rank = (Long) reply.get(0);
+            List<Entry> result = new ArrayList<>((reply.size() - 1) / 2);
+            for (int i = 1; i + 1 < reply.size(); i += 2)
+            {
+                result.add(new Entry((String) reply.get(i), Double.parseDouble((String) reply.get(i + 1)), rank++));
+            }
+            return result;
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TransactionCommand
+    {
+        void apply(Transaction transaction);
+    }
+
+    /**
+     * 排行榜成员
+     */
+    public static final class Entry
+    {
+        private final String member;
+
+        private final double score;
+
+        //排名，从0开始
+        private final long rank;
+
+        Entry(String member, double score, long rank)
+        {
+            this.member = member;
+            this.score = score;
+            this.rank = rank;
+        }
+
+        public String getMember()
+        {
+            return member;
+        }
+
+        public double getScore()
+        {
+            return score;
+        }
+
+        public long getRank()
+        {
+            return rank;
+        }
+
+        @Override
+        public String toString()
+        {
+            return rank + ":" + member + "(" + score + ")";
+        }
+    }
+
+    /**
+     * 分页结果
+     */
+    public static final class Page
+    {
+        private final List<Entry> entries;
+
+        //下一页的游标，没有下一页时为 null
+        private final String nextCursor;
+
+        Page(List<Entry> entries, String nextCursor)
+        {
+            this.entries = entries;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Entry> getEntries()
+        {
+            return entries;
+        }
+
+        public String getNextCursor()
+        {
+            return nextCursor;
+        }
+    }
+
+    /**
+     * 本地缓存的前N名
+     */
+    private static final class TopCache
+    {
+        private final List<Entry> entries;
+
+        //缓存时请求的数量
+        private final int size;
+
+        private final long createTime;
+
+        TopCache(List<Entry> entries, int size, long createTime)
+        {
+            this.entries = entries;
+            this.size = size;
+            this.createTime = createTime;
+        }
+    }
+}
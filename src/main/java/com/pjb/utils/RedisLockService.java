@@ -0,0 +1,465 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.metrics.RedisMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis分布式锁服务
+ * 加锁：一个Lua脚本中执行 SET NX PX，成功时对栅栏键执行 INCR，返回单调递增的栅栏令牌（fencing token），
+ * 失败时返回锁的剩余过期时间；下游资源可拒绝比已见过的令牌更小的写入，防止持有者暂停（如GC）后锁已过期仍继续写入。
+ * 解锁：Lua脚本比较锁的值与本次加锁的唯一标识，一致时删除并发布解锁通知。
+ * 续期：持有锁期间后台每隔租期的三分之一续期一次，续期失败（锁已过期被他人获取）时锁标记为已丢失。
+ * 等待：订阅解锁通知频道，锁被释放时唤醒等待者，最长等待到锁的剩余过期时间，不轮询Redis。
+ * 订阅线程独占连接池中的一个连接。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisLockService
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisLockService.class);
+
+    //栅栏键的后缀
+    private static final String FENCING_SUFFIX = ":fencing";
+
+    /**
+     * 加锁
+     * KEYS[1]：锁的键；KEYS[2]：栅栏键；ARGV[1]：唯一标识；ARGV[2]：租期（毫秒）
+     * 返回：大于0为栅栏令牌（加锁成功）；小于等于0为锁剩余过期时间（毫秒）的相反数，锁没有过期时间时为0
+     */
+    static final RedisScript LOCK = new RedisScript("lockAcquire",
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+            "  return redis.call('incr', KEYS[2]) " +
+            "end " +
+            "local ttl = redis.call('pttl', KEYS[1]) " +
+            "if ttl == -2 then ttl = 1 end " +
+            "return -math.max(0, ttl)");
+
+    /**
+     * 解锁并发布解锁通知
+     * KEYS[1]：锁的键；ARGV[1]：唯一标识；ARGV[2]：通知频道
+     * 返回：1 解锁成功；0 锁已不属于该标识
+     */
+    static final RedisScript UNLOCK = new RedisScript("lockRelease",
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "  redis.call('del', KEYS[1]) " +
+            "  redis.call('publish', ARGV[2], KEYS[1]) " +
+            "  return 1 " +
+            "end " +
+            "return 0");
+
+    /**
+     * 续期
+     * KEYS[1]：锁的键；ARGV[1]：唯一标识；ARGV[2]：租期（毫秒）
+     * 返回：1 续期成功；0 锁已不属于该标识
+     */
+    static final RedisScript RENEW = new RedisScript("lockRenew",
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('pexpire', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return 0");
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisScriptRegistry redisScriptRegistry;
+
+    //解锁通知频道
+    @Value("${myenvironment.redis-lock.channel:redis-lock:released}")
+    private String channel;
+
+    //订阅断开后重新订阅的间隔
+    @Value("${myenvironment.redis-lock.resubscribe-interval:1s}")
+    private Duration resubscribeInterval;
+
+    //续期线程
+    private ScheduledExecutorService renewalScheduler;
+
+    //订阅线程
+    private volatile Thread subscriber;
+
+    private final ReleaseListener releaseListener = new ReleaseListener();
+
+    //等待者的通知对象：锁的键 -> 通知对象
+    private final ConcurrentHashMap<String, Notifier> notifiers = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init()
+    {
+        redisScriptRegistry.register(LOCK);
+        redisScriptRegistry.register(UNLOCK);
+        redisScriptRegistry.register(RENEW);
+        this.renewalScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "redis-lock-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        this.running = false;
+        this.renewalScheduler.shutdownNow();
+        if (releaseListener.isSubscribed())
+        {
+            releaseListener.unsubscribe();
+        }
+    }
+
+    /**
+     * 尝试加锁，不等待
+     * @param key 锁的键
+     * @param lease 租期，持有期间自动续期
+     * @return 锁，加锁失败时返回 null
+     */
+    public RedisLock tryLock(String key, Duration lease) throws RedisException
+    {
+        return tryLock(key, lease, Duration.ZERO);
+    }
+
+    /**
+     * 尝试加锁，锁被占用时等待解锁通知
+     * @param key 锁的键
+     * @param lease 租期，持有期间自动续期
+     * @param waitTime 最长等待时间
+     * @return 锁，超时或线程被中断时返回 null
+     */
+    public RedisLock tryLock(String key, Duration lease, Duration waitTime) throws RedisException
+    {
+        String token = UUID.randomUUID().toString();
+        long leaseMillis = lease.toMillis();
+        long deadline = System.nanoTime() + waitTime.toNanos();
+        boolean waiting = false;
+        Notifier notifier = null;
+        try
+        {
+            while (true)
+            {
+                long version = notifier != null ? notifier.version : 0;
+                long result = (Long) eval(LOCK, Arrays.asList(key, key + FENCING_SUFFIX), token, Long.toString(leaseMillis));
+                if (result > 0)
+                {
+                    RedisLock lock = new RedisLock(key, token, result, leaseMillis);
+                    lock.renewal = renewalScheduler.scheduleWithFixedDelay(lock::renew,
+                            Math.max(1, leaseMillis / 3), Math.max(1, leaseMillis / 3), TimeUnit.MILLISECONDS);
+                    return lock;
+                }
+
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0)
+                {
+                    return null;
+                }
+                if (!waiting)
+                {
+                    //先登记等待再重试一次，避免在两次调用之间错过解锁通知
+                    waiting = true;
+                    ensureSubscribed();
+                    notifier = notifiers.compute(key, (k, existing) ->
+                    {
+                        Notifier value = existing != null ? existing : new Notifier();
+                        value.waiters++;
+                        return value;
+                    });
+                    continue;
+                }
+
+                //最长等待到锁过期，锁没有过期时间（-result 为 0）时等待到超时
+                long ttl = -result;
+                long waitMillis = ttl > 0 ? Math.min(ttl, remainingMillis) : remainingMillis;
+                if (!notifier.await(version, waitMillis))
+                {
+                    return null;
+                }
+            }
+        }
+        finally
+        {
+            if (notifier != null)
+            {
+                notifiers.computeIfPresent(key, (k, existing) -> --existing.waiters == 0 ? null : existing);
+            }
+        }
+    }
+
+    private Object eval(RedisScript script, List<String> keys, String... args) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            return redisScriptRegistry.eval(jedis, script, keys, Arrays.asList(args));
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    /**
+     * 首次等待时启动订阅线程
+     */
+    private void ensureSubscribed()
+    {
+        if (subscriber != null)
+        {
+            return;
+        }
+        synchronized (this)
+        {
+            if (subscriber == null && running)
+            {
+                Thread thread = new Thread(this::subscribe, "redis-lock-subscriber");
+                thread.setDaemon(true);
+                thread.start();
+                subscriber = thread;
+            }
+        }
+    }
+
+    /**
+     * 订阅解锁通知，连接断开时重新订阅
+     */
+    private void subscribe()
+    {
+        while (running)
+        {
+            Jedis jedis = null;
+            try
+            {
+                releaseListener.startTime = System.nanoTime();
+                jedis = redisUtils.getJedis();
+                //阻塞直到取消订阅或连接断开
+                jedis.subscribe(releaseListener, channel);
+            }
+            catch (Exception ex)
+            {
+                redisMetrics.recordError(RedisCommandType.SUBSCRIBE, ex);
+                logger.warn("Redis锁通知订阅断开：" + ex.getMessage());
+            }
+            finally
+            {
+                //释放资源
+                redisUtils.closeResource(jedis);
+            }
+            //订阅断开期间可能错过通知，唤醒所有等待者重新尝试
+            notifiers.values().forEach(Notifier::signal);
+            if (running)
+            {
+                try
+                {
+                    Thread.sleep(resubscribeInterval.toMillis());
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 解锁通知监听器
+     */
+    private class ReleaseListener extends JedisPubSub
+    {
+        //开始订阅的时间，只在订阅线程中访问
+        private long startTime;
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels)
+        {
+            //订阅成功时记录结果，订阅连接一直占用，不会在命令返回时记录
+            redisMetrics.recordCommand(RedisCommandType.SUBSCRIBE, startTime);
+        }
+
+        @Override
+        public void onMessage(String channel, String message)
+        {
+            Notifier notifier = notifiers.get(message);
+            if (notifier != null)
+            {
+                notifier.signal();
+            }
+        }
+    }
+
+    /**
+     * 等待同一个锁的线程共享的通知对象
+     */
+    private static final class Notifier
+    {
+        //每次收到通知时加1，等待者据此判断等待期间是否有过通知
+        private volatile long version;
+
+        //等待者数量，只在 notifiers 的 compute 中修改，为0时移除
+        private int waiters;
+
+        synchronized void signal()
+        {
+            version++;
+            notifyAll();
+        }
+
+        /**
+         * 等待通知
+         * @param seenVersion 上次尝试加锁之前的版本
+         * @return false：线程被中断
+         */
+        synchronized boolean await(long seenVersion, long waitMillis)
+        {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+            try
+            {
+                while (version == seenVersion)
+                {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0)
+                    {
+                        break;
+                    }
+                    wait(remaining);
+                }
+                return true;
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 已获取的锁
+     * 使用 try-with-resources 或在 finally 中调用 unlock() 释放
+     */
+    public final class RedisLock implements AutoCloseable
+    {
+        private final String key;
+
+        //本次加锁的唯一标识
+        private final String token;
+
+        //栅栏令牌
+        private final long fencingToken;
+
+        private final long leaseMillis;
+
+        private volatile boolean held = true;
+
+        private volatile ScheduledFuture<?> renewal;
+
+        private RedisLock(String key, String token, long fencingToken, long leaseMillis)
+        {
+            this.key = key;
+            this.token = token;
+            this.fencingToken = fencingToken;
+            this.leaseMillis = leaseMillis;
+        }
+
+        public String getKey()
+        {
+            return key;
+        }
+
+        /**
+         * 栅栏令牌，同一个锁每次加锁成功时单调递增
+         */
+        public long getFencingToken()
+        {
+            return fencingToken;
+        }
+
+        /**
+         * 是否仍持有锁（续期失败或已解锁时返回 false）
+         */
+        public boolean isHeld()
+        {
+            return held;
+        }
+
+        /**
+         * 解锁
+         * @return 是否由本次加锁解锁，锁已过期被他人获取时返回 false
+         */
+        public boolean unlock() throws RedisException
+        {
+            cancelRenewal();
+            if (!held)
+            {
+                return false;
+            }
+            held = false;
+            return (Long) eval(UNLOCK, Collections.singletonList(key), token, channel) > 0;
+        }
+
+        @Override
+        public void close() throws RedisException
+        {
+            unlock();
+        }
+
+        private void renew()
+        {
+            try
+            {
+                if (held && (Long) eval(RENEW, Collections.singletonList(key), token, Long.toString(leaseMillis)) == 0)
+                {
+                    held = false;
+                    cancelRenewal();
+                    logger.warn("Redis锁已丢失：" + key);
+                }
+            }
+            catch (RedisException ex)
+            {
+                //租期内还有重试机会，等待下一次续期
+                logger.warn("Redis锁续期失败：" + key + "，" + ex.getMessage());
+            }
+        }
+
+        private void cancelRenewal()
+        {
+            ScheduledFuture<?> future = this.renewal;
+            if (future != null)
+            {
+                future.cancel(false);
+            }
+        }
+    }
+}
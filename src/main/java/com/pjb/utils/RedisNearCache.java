@@ -0,0 +1,350 @@
+package com.pjb.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pjb.common.RedisKeyEnum;
+import com.pjb.properties.RedisProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Redis近端缓存（进程内一级缓存）
+ * 缓存 RedisUtils.get()/hget() 的热点数据，容量有界，使用W-TinyLFU淘汰策略，并支持条目过期时间。
+ * 通过RedisUtils写入时，在Redis的发布/订阅频道上广播失效消息，所有JVM中的对应条目同时失效。
+ * 只缓存在 RedisKeyEnum 中启用了近端缓存的业务键。
+ * 从Redis读取之前先获取键的失效版本号，写入缓存之后版本号发生变化（读取期间键已失效）时丢弃缓存的值，
+ * 避免将失效之前读到的旧值一直缓存到过期。
+ * 注意：不经过RedisUtils直接写入Redis的数据不会触发失效，只能依赖过期时间。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisNearCache
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisNearCache.class);
+
+    //清空全部缓存的失效消息
+    private static final String INVALIDATE_ALL = "";
+
+    //失效版本号的分段数量
+    private static final int EPOCH_STRIPES = 1024;
+
+    @Autowired
+    private RedisProperties redisProperties;
+
+    //Redis项目键
+    @Value("${myenvironment.redis-project-key}")
+    private String redisProjectKey;
+
+    //是否启用近端缓存
+    @Value("${myenvironment.redis-near-cache.enabled:false}")
+    private boolean enabled;
+
+    //近端缓存的最大条目数，哈希缓存按字段数计算
+    @Value("${myenvironment.redis-near-cache.max-size:10000}")
+    private long maxSize;
+
+    //近端缓存条目的过期时间
+    @Value("${myenvironment.redis-near-cache.ttl:60s}")
+    private Duration ttl;
+
+    //失效消息的发布/订阅频道
+    private String channel;
+
+    //启用了近端缓存的键前缀
+    private String[] keyPrefixes = new String[0];
+
+    //字符串（String）缓存
+    private Cache<String, Optional<String>> valueCache;
+
+    //哈希（Hash）缓存：键 -> 字段 -> 值
+    private Cache<String, Map<String, Optional<String>>> hashCache;
+
+    //各分段的失效版本号，分段内的键失效时加1
+    private final AtomicLongArray epochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    //清空全部缓存时加1
+    private final AtomicLong globalEpoch = new AtomicLong();
+
+    //失效消息订阅者
+    private volatile JedisPubSub subscriber;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init()
+    {
+        this.channel = this.redisProjectKey + "__near_cache_invalidate";
+
+        List<String> prefixList = new ArrayList<>();
+        for (RedisKeyEnum businessKey : RedisKeyEnum.values())
+        {
+            if (businessKey.isNearCache())
+            {
+                prefixList.add(this.redisProjectKey + "_" + businessKey + "::");
+            }
+        }
+        this.keyPrefixes = prefixList.toArray(new String[0]);
+        this.enabled = this.enabled && this.keyPrefixes.length > 0;
+        if (!this.enabled)
+        {
+            return;
+        }
+
+        this.valueCache = Caffeine.newBuilder()
+                .maximumSize(this.maxSize)
+                .expireAfterWrite(this.ttl)
+                .recordStats()
+                .build();
+        //按字段数计算权重，避免单个大哈希表缓存的字段数量不受限制
+        this.hashCache = Caffeine.newBuilder()
+                .maximumWeight(this.maxSize)
+                .weigher((String key, Map<String, Optional<String>> fieldMap) -> Math.max(1, fieldMap.size()))
+                .expireAfterWrite(this.ttl)
+                .recordStats()
+                .build();
+
+        this.running = true;
+        Thread thread = new Thread(this::subscribe, "redis-near-cache-invalidator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        this.running = false;
+        JedisPubSub pubSub = this.subscriber;
+        if (pubSub != null && pubSub.isSubscribed())
+        {
+            pubSub.unsubscribe();
+        }
+    }
+
+    /**
+     * 是否启用近端缓存
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * 判断键是否使用近端缓存
+     */
+    public boolean isCacheable(String key)
+    {
+        if (!this.enabled || key == null)
+        {
+            return false;
+        }
+        for (String prefix : this.keyPrefixes)
+        {
+            if (key.startsWith(prefix))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取缓存的字符串值
+     * @return 未命中时返回 null；命中但Redis中不存在该键时返回 Optional.empty()
+     */
+    public Optional<String> getValue(String key)
+    {
+        return this.valueCache.getIfPresent(key);
+    }
+
+    /**
+     * 获取键的失效版本号，在从Redis读取之前调用，缓存读取结果时传入
+     */
+    public long epoch(String key)
+    {
+        return this.globalEpoch.get() + this.epochs.get(stripe(key));
+    }
+
+    /**
+     * 缓存字符串值
+     * @param epoch 从Redis读取之前获取的失效版本号，读取期间键已失效时不缓存
+     */
+    public void putValue(String key, String value, long epoch)
+    {
+        this.valueCache.put(key, Optional.ofNullable(value));
+        if (epoch(key) != epoch)
+        {
+            //写入之前或写入期间键已失效，缓存的可能是旧值
+            this.valueCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 获取缓存的哈希表字段值
+     * @return 未命中时返回 null；命中但Redis中不存在该字段时返回 Optional.empty()
+     */
+    public Optional<String> getHashValue(String key, String field)
+    {
+        Map<String, Optional<String>> fieldMap = this.hashCache.getIfPresent(key);
+        return fieldMap != null ? fieldMap.get(field) : null;
+    }
+
+    /**
+     * 缓存哈希表字段值
+     * @param epoch 从Redis读取之前获取的失效版本号，读取期间键已失效时不缓存
+     */
+    public void putHashValue(String key, String field, String value, long epoch)
+    {
+        //通过 compute 写入，条目的权重随字段数更新
+        Map<String, Optional<String>> fieldMap = this.hashCache.asMap().compute(key, (k, current) ->
+        {
+            Map<String, Optional<String>> fields = current != null ? current : new ConcurrentHashMap<>();
+            fields.put(field, Optional.ofNullable(value));
+            return fields;
+        });
+        if (epoch(key) != epoch)
+        {
+            //写入之前或写入期间键已失效，缓存的可能是旧值
+            fieldMap.remove(field);
+        }
+    }
+
+    /**
+     * 使键失效，并通过给定的连接广播失效消息
+     * 使用调用方已借用的连接发送，避免在持有连接时再次借用连接
+     */
+    public void invalidate(Jedis jedis, String key)
+    {
+        if (isCacheable(key))
+        {
+            invalidateLocal(key);
+            jedis.publish(this.channel, key);
+        }
+    }
+
+    /**
+     * 使键失效，并在管道中追加广播失效消息的命令
+     */
+    public void invalidate(Pipeline pipeline, String key)
+    {
+        if (isCacheable(key))
+        {
+            invalidateLocal(key);
+            pipeline.publish(this.channel, key);
+        }
+    }
+
+    /**
+     * 获取字符串缓存的统计信息（命中数、未命中数、淘汰数等）
+     */
+    public CacheStats getValueStats()
+    {
+        return this.enabled ? this.valueCache.stats() : CacheStats.empty();
+    }
+
+    /**
+     * 获取哈希缓存的统计信息（命中数、未命中数、淘汰数等）
+     */
+    public CacheStats getHashStats()
+    {
+        return this.enabled ? this.hashCache.stats() : CacheStats.empty();
+    }
+
+    /**
+     * 本地失效：先增加失效版本号，再移除条目，读取期间的并发写入缓存据此丢弃旧值
+     */
+    private void invalidateLocal(String key)
+    {
+        if (INVALIDATE_ALL.equals(key))
+        {
+            this.globalEpoch.incrementAndGet();
+            this.valueCache.invalidateAll();
+            this.hashCache.invalidateAll();
+        }
+        else
+        {
+            this.epochs.incrementAndGet(stripe(key));
+            this.valueCache.invalidate(key);
+            this.hashCache.invalidate(key);
+        }
+    }
+
+    private static int stripe(String key)
+    {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (EPOCH_STRIPES - 1);
+    }
+
+    /**
+     * 订阅失效消息，连接断开后自动重连
+     * 订阅会阻塞连接，因此使用独立的连接而不占用连接池；
+     * 连接超时、读取超时与密码与连接池一致，订阅期间 Jedis 自动取消读取超时
+     */
+    private void subscribe()
+    {
+        while (this.running)
+        {
+            try (Jedis jedis = new Jedis(redisProperties.getHost(), redisProperties.getPort(),
+                    (int) redisProperties.getConnectTimeout().toMillis(), (int) redisProperties.getTimeout().toMillis()))
+            {
+                String password = redisProperties.getPassword();
+                if (password != null && !password.isEmpty())
+                {
+                    jedis.auth(password);
+                }
+                this.subscriber = new JedisPubSub()
+                {
+                    @Override
+                    public void onMessage(String channel, String message)
+                    {
+                        invalidateLocal(message);
+                    }
+
+                    @Override
+                    public void onSubscribe(String channel, int subscribedChannels)
+                    {
+                        //订阅期间可能错过了失效消息，重新订阅后清空本地缓存
+                        invalidateLocal(INVALIDATE_ALL);
+                    }
+                };
+                jedis.subscribe(this.subscriber, this.channel);
+            }
+            catch (Exception ex)
+            {
+                //断开期间无法收到失效消息，清空本地缓存
+                invalidateLocal(INVALIDATE_ALL);
+                logger.warn("Redis近端缓存失效订阅中断，稍后重连：{}", ex.getMessage());
+                sleepQuietly(1000);
+            }
+        }
+    }
+
+    private static void sleepQuietly(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.pjb.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.metrics.RedisMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis分布式限流器
+ * 提供固定窗口、滑动日志、滑动窗口计数与令牌桶四种算法，每次判断都在一个Lua脚本中原子完成，只需一次往返。
+ * 滑动日志、滑动窗口计数与令牌桶使用Redis服务器时间，不受各进程时钟偏差的影响。
+ * 令牌桶可启用本地预取：一次从Redis取出一批令牌在本地发放，用完或过期后再访问Redis，
+ * 进程内未用完的令牌在过期后作废，因此整体放行数量不会超过限额，但可能略少于限额。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisRateLimiter
+{
+    //在脚本中使用服务器时间（TIME）之后仍可执行写命令（Redis 5及以下需要）
+    private static final String SERVER_TIME =
+            "if redis.replicate_commands then redis.replicate_commands() end " +
+            "local time = redis.call('time') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) ";
+
+    /**
+     * 固定窗口：窗口内的计数加上本次许可数不超过限额时放行，窗口从第一次放行开始计时
+     * KEYS[1]：键；ARGV[1]：许可数；ARGV[2]：限额；ARGV[3]：窗口大小（毫秒）
+     * 返回：{是否放行, 剩余许可数, 建议重试等待时间（毫秒）}
+     */
+    static final RedisScript FIXED_WINDOW = new RedisScript("rateLimitFixedWindow",
+            "local permits = tonumber(ARGV[1]) " +
+            "local limit = tonumber(ARGV[2]) " +
+            "local current = tonumber(redis.call('get', KEYS[1]) or '0') " +
+            "if current + permits > limit then " +
+            "  local ttl = redis.call('pttl', KEYS[1]) " +
+            "  if ttl < 0 then redis.call('pexpire', KEYS[1], ARGV[3]) ttl = tonumber(ARGV[3]) end " +
+            "  return {0, math.max(0, limit - current), ttl} " +
+            "end " +
+            "current = redis.call('incrby', KEYS[1], permits) " +
+            "if redis.call('pttl', KEYS[1]) < 0 then redis.call('pexpire', KEYS[1], ARGV[3]) end " +
+            "return {1, limit - current, 0}");
+
+    /**
+     * 滑动日志：有序集合记录窗口内每个许可的时间，数量加上本次许可数不超过限额时放行
+     * KEYS[1]：键；ARGV[1]：许可数；ARGV[2]：限额；ARGV[3]：窗口大小（毫秒）；ARGV[4]：本次请求的唯一标识
+     * 返回：{是否放行, 剩余许可数, 建议重试等待时间（毫秒）}
+     */
+    static final RedisScript SLIDING_LOG = new RedisScript("rateLimitSlidingLog",
+            SERVER_TIME +
+            "local permits = tonumber(ARGV[1]) " +
+            "local limit = tonumber(ARGV[2]) " +
+            "local window = tonumber(ARGV[3]) " +
+            "redis.call('zremrangebyscore', KEYS[1], '-inf', now - window) " +
+            "local count = redis.call('zcard', KEYS[1]) " +
+            "if count + permits > limit then " +
+            "  local oldest = redis.call('zrange', KEYS[1], 0, 0, 'WITHSCORES') " +
+            "  local retry = window " +
+            "  if oldest[2] then retry = math.max(1, tonumber(oldest[2]) + window - now) end " +
+            "  return {0, math.max(0, limit - count), retry} " +
+            "end " +
+            "for i = 1, permits do redis.call('zadd', KEYS[1], now, ARGV[4] .. ':' .. i) end " +
+            "redis.call('pexpire', KEYS[1], window) " +
+            "return {1, limit - count - permits, 0}");
+
+    /**
+     * 滑动窗口计数：哈希表按窗口序号保存计数，估算值 = 上一窗口计数 × 上一窗口在滑动窗口中的占比 + 当前窗口计数
+     * KEYS[1]：键；ARGV[1]：许可数；ARGV[2]：限额；ARGV[3]：窗口大小（毫秒）
+     * 返回：{是否放行, 剩余许可数, 建议重试等待时间（毫秒）}
+     */
+    static final RedisScript SLIDING_WINDOW = new RedisScript("rateLimitSlidingWindow",
+            SERVER_TIME +
+            "local permits = tonumber(ARGV[1]) " +
+            "local limit = tonumber(ARGV[2]) " +
+            "local window = tonumber(ARGV[3]) " +
+            "local index = math.floor(now / window) " +
+            "local elapsed = now - index * window " +
+            "local values = redis.call('hmget', KEYS[1], index, index - 1) " +
+            "local current = tonumber(values[1] or '0') " +
+            "local previous = tonumber(values[2] or '0') " +
+            "local estimated = previous * (window - elapsed) / window + current " +
+            "if estimated + permits > limit then " +
+            "  return {0, math.max(0, math.floor(limit - estimated)), window - elapsed} " +
+            "end " +
+            "redis.call('hincrby', KEYS[1], index, permits) " +
+            "redis.call('hdel', KEYS[1], index - 2) " +
+            "redis.call('pexpire', KEYS[1], window * 2) " +
+            "return {1, math.floor(limit - estimated - permits), 0}");
+
+    /**
+     * 令牌桶：哈希表保存令牌数（tokens）与上次更新时间（ts），按时间补充令牌，不超过桶容量
+     * 令牌数不少于最少许可数时放行，最多取出期望许可数
+     * KEYS[1]：键；ARGV[1]：期望许可数；ARGV[2]：最少许可数；ARGV[3]：桶容量；ARGV[4]：每毫秒补充的令牌数
+     * 返回：{取出的许可数（0表示拒绝）, 剩余令牌数, 建议重试等待时间（毫秒）}
+     */
+    static final RedisScript TOKEN_BUCKET = new RedisScript("rateLimitTokenBucket",
+            SERVER_TIME +
+            "local wanted = tonumber(ARGV[1]) " +
+            "local required = tonumber(ARGV[2]) " +
+            "local capacity = tonumber(ARGV[3]) " +
+            "local rate = tonumber(ARGV[4]) " +
+            "local values = redis.call('hmget', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(values[1]) or capacity " +
+            "local ts = tonumber(values[2]) or now " +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate) " +
+            "if tokens < required then " +
+            "  return {0, math.floor(tokens), math.ceil((required - tokens) / rate)} " +
+            "end " +
+            "local granted = math.min(wanted, math.floor(tokens)) " +
+            "tokens = tokens - granted " +
+            "redis.call('hmset', KEYS[1], 'tokens', tokens, 'ts', now) " +
+            "redis.call('pexpire', KEYS[1], math.ceil(capacity / rate) + 1000) " +
+            "return {granted, math.floor(tokens), 0}");
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisScriptRegistry redisScriptRegistry;
+
+    //本地预取的令牌数量，0表示不启用本地预取
+    @Value("${myenvironment.redis-rate-limiter.local-batch:0}")
+    private int localBatch;
+
+    //本地预取令牌的有效期，过期未用完的令牌作废
+    @Value("${myenvironment.redis-rate-limiter.local-ttl:100ms}")
+    private Duration localTtl;
+
+    //本地预取令牌的最大键数量，超过时淘汰最少使用的键
+    @Value("${myenvironment.redis-rate-limiter.local-max-keys:10000}")
+    private long localMaxKeys;
+
+    //本地预取的令牌：键 -> 令牌，每次预取替换为新的实例，过期后自动移除
+    private Cache<String, LocalTokens> localTokens;
+
+    @PostConstruct
+    public void init()
+    {
+        this.localTokens = Caffeine.newBuilder()
+                .maximumSize(this.localMaxKeys)
+                .expireAfterWrite(this.localTtl)
+                .build();
+        redisScriptRegistry.register(FIXED_WINDOW);
+        redisScriptRegistry.register(SLIDING_LOG);
+        redisScriptRegistry.register(SLIDING_WINDOW);
+        redisScriptRegistry.register(TOKEN_BUCKET);
+    }
+
+    /**
+     * 固定窗口限流
+     * @param key 键
+     * @param limit 每个窗口的限额
+     * @param window 窗口大小
+     * @return 限流结果
+     */
+    public Result fixedWindow(String key, long limit, Duration window) throws RedisException
+    {
+        return toResult(eval(FIXED_WINDOW, key, "1", Long.toString(limit), Long.toString(window.toMillis())));
+    }
+
+    /**
+     * 滑动日志限流：精确，但每个许可占用有序集合中的一个成员，适合限额较小的场景
+     * @param key 键
+     * @param limit 任意一个窗口大小的时间段内的限额
+     * @param window 窗口大小
+     * @return 限流结果
+     */
+    public Result slidingLog(String key, long limit, Duration window) throws RedisException
+    {
+        return toResult(eval(SLIDING_LOG, key, "1", Long.toString(limit), Long.toString(window.toMillis()),
+                UUID.randomUUID().toString()));
+    }
+
+    /**
+     * 滑动窗口计数限流：按上一窗口的计数估算，内存占用固定
+     * @param key 键
+     * @param limit 任意一个窗口大小的时间段内的限额（估算值）
+     * @param window 窗口大小
+     * @return 限流结果
+     */
+    public Result slidingWindow(String key, long limit, Duration window) throws RedisException
+    {
+        return toResult(eval(SLIDING_WINDOW, key, "1", Long.toString(limit), Long.toString(window.toMillis())));
+    }
+
+    /**
+     * 令牌桶限流
+     * @param key 键
+     * @param capacity 桶容量（允许的突发数量）
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param permits 本次需要的许可数
+     * @return 限流结果
+     */
+    public Result tokenBucket(String key, long capacity, double permitsPerSecond, int permits) throws RedisException
+    {
+        List<?> reply = eval(TOKEN_BUCKET, key, Integer.toString(permits), Integer.toString(permits),
+                Long.toString(capacity), Double.toString(permitsPerSecond / 1000));
+        return toResult(reply);
+    }
+
+    /**
+     * 令牌桶限流，获取一个许可
+     * 启用本地预取时优先使用本地令牌，本地令牌用完或过期后从Redis预取一批
+     * @param key 键
+     * @param capacity 桶容量（允许的突发数量）
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String key, long capacity, double permitsPerSecond) throws RedisException
+    {
+        if (localBatch <= 1)
+        {
+            return tokenBucket(key, capacity, permitsPerSecond, 1).isAllowed();
+        }
+
+        LocalTokens tokens = localTokens.get(key, k -> new LocalTokens(0, System.nanoTime()));
+        if (tokens.tryTake())
+        {
+            return true;
+        }
+        synchronized (tokens)
+        {
+            //其他线程可能已经预取
+            LocalTokens current = localTokens.getIfPresent(key);
+            if (current != null && current != tokens && current.tryTake())
+            {
+                return true;
+            }
+            List<?> reply = eval(TOKEN_BUCKET, key, Integer.toString(localBatch), "1",
+                    Long.toString(capacity), Double.toString(permitsPerSecond / 1000));
+            long granted = (Long) reply.get(0);
+            if (granted <= 0)
+            {
+                return false;
+            }
+            //本次使用一个，其余留在本地；替换为新的实例，旧实例中的令牌已用完或已过期，不会再被取出
+            localTokens.put(key, new LocalTokens(granted - 1, System.nanoTime() + localTtl.toNanos()));
+            return true;
+        }
+    }
+
+    /**
+     * 清空限流状态
+     */
+    public void reset(String key) throws RedisException
+    {
+        localTokens.invalidate(key);
+        redisUtils.del(key);
+    }
+
+    private List<?> eval(RedisScript script, String key, String... args) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            return (List<?>) redisScriptRegistry.eval(jedis, script, Collections.singletonList(key), Arrays.asList(args));
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    private static Result toResult(List<?> reply)
+    {
+        return new Result((Long) reply.get(0) > 0, (Long) reply.get(1), (Long) reply.get(2));
+    }
+
+    /**
+     * 本地预取的令牌
+     */
+    private static final class LocalTokens
+    {
+        private final AtomicLong remaining;
+
+        //过期时间（System.nanoTime()）
+        private final long expireTime;
+
+        LocalTokens(long count, long expireTime)
+        {
+            this.remaining = new AtomicLong(count);
+            this.expireTime = expireTime;
+        }
+
+        boolean tryTake()
+        {
+            if (System.nanoTime() - expireTime >= 0)
+            {
+                return false;
+            }
+            //CAS循环，剩余数量不会减到0以下
+            long current;
+            do
+            {
+                current = remaining.get();
+                if (current <= 0)
+                {
+                    return false;
+                }
+            }
+            while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+
+    /**
+     * 限流结果
+     */
+    public static final class Result
+    {
+        //是否放行
+        private final boolean allowed;
+
+        //剩余许可数
+        private final long remaining;
+
+        //被拒绝时建议的重试等待时间（毫秒）
+        private final long retryAfterMillis;
+
+        Result(boolean allowed, long remaining, long retryAfterMillis)
+        {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public boolean isAllowed()
+        {
+            return allowed;
+        }
+
+        public long getRemaining()
+        {
+            return remaining;
+        }
+
+        public long getRetryAfterMillis()
+        {
+            return retryAfterMillis;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Result{allowed=" + allowed + ", remaining=" + remaining + ", retryAfterMillis=" + retryAfterMillis + "}";
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.exception.RedisFailFastException;
+import com.pjb.metrics.RedisMetrics;
+import com.pjb.properties.RedisProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.util.SafeEncoder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis读请求合并器
+ * 开启后，多个线程同时发起的 RedisUtils.get()/hget() 单键读请求，
+ * 在一个很短的时间窗口内（或达到批次大小时）被收集起来，
+ * 通过一次管道逐条发送GET/HGET，再分别通知各调用方；单条命令出错（如 WRONGTYPE）只影响对应的调用方，与不合并时一致。
+ * 尚未发送的相同读请求会被合并为一个，只有一个请求到达Redis；
+ * 已发送的请求不再合并，保证写入之后发起的读请求能读到新值。
+ * 待发送的读请求队列有界，队列满时（如Redis变慢）在调用线程中直接读取，不再排队；
+ * 调用方最多等待 timeout，在 RedisUtils.withDeadline() 中调用时最多等待到截止时间；合并器关闭时尚未完成的读请求立即失败。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisReadCoalescer
+{
+    private static final Logger logger = LoggerFactory.getLogger(RedisReadCoalescer.class);
+
+    //合并器是 RedisUtils 的依赖，此处延迟注入以避免循环依赖
+    @Lazy
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisProperties redisProperties;
+
+    @Autowired
+    private RedisValueCompressor redisValueCompressor;
+
+    //是否启用读请求合并
+    @Value("${myenvironment.redis-coalescing.enabled:false}")
+    private boolean enabled;
+
+    //收集读请求的时间窗口
+    @Value("${myenvironment.redis-coalescing.window:200us}")
+    private Duration window;
+
+    //每批次最多合并的读请求数量
+    @Value("${myenvironment.redis-coalescing.max-batch-size:128}")
+    private int maxBatchSize;
+
+    //调用方等待读取结果的最长时间
+    @Value("${myenvironment.redis-coalescing.timeout:3s}")
+    private Duration timeout;
+
+    //待发送读请求队列的容量
+    @Value("${myenvironment.redis-coalescing.queue-capacity:10000}")
+    private int queueCapacity;
+
+    //待发送的读请求
+    private BlockingQueue<PendingRead> queue;
+
+    //尚未发送的读请求，用于合并相同的读请求
+    private final ConcurrentHashMap<ReadKey, PendingRead> pending = new ConcurrentHashMap<>();
+
+    //批次执行线程池
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init()
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, this.queueCapacity));
+        int poolSize = redisProperties.getMaxActive() > 0 ? redisProperties.getMaxActive() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable ->
+        {
+            Thread thread = new Thread(runnable, "redis-coalescer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.running = true;
+        Thread dispatcher = new Thread(this::dispatch, "redis-coalescer-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        this.running = false;
+        if (this.executor != null)
+        {
+            this.executor.shutdown();
+        }
+        //尚未发送的读请求立即失败，避免调用方一直等待
+        if (this.queue != null)
+        {
+            List<PendingRead> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            fail(remaining, new RedisException("读请求合并器已关闭"));
+        }
+    }
+
+    /**
+     * 是否启用读请求合并
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * 字符串（String）
+     * 合并获取字符串值
+     */
+    public String get(String key) throws RedisException
+    {
+        return await(submit(new ReadKey(key, null)));
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 合并获取存储在哈希表中指定字段的值
+     */
+    public String hget(String key, String field) throws RedisException
+    {
+        return await(submit(new ReadKey(key, field)));
+    }
+
+    private PendingRead submit(ReadKey readKey)
+    {
+        PendingRead created = new PendingRead(readKey);
+        if (!this.running)
+        {
+            created.future.completeExceptionally(new RedisException("读请求合并器已关闭"));
+            return created;
+        }
+        PendingRead existing = pending.putIfAbsent(readKey, created);
+        if (existing != null)
+        {
+            return existing;
+        }
+        if (!queue.offer(created))
+        {
+            //队列已满，不再排队，在调用线程中直接读取
+            pending.remove(readKey, created);
+            execute(Collections.singletonList(created));
+        }
+        return created;
+    }
+
+    private String await(PendingRead read) throws RedisException
+    {
+        try
+        {
+            long waitMillis = this.timeout.toMillis();
+            long remainingMillis = redisUtils.getDeadlineRemainingMillis();
+            if (remainingMillis >= 0)
+            {
+                waitMillis = Math.min(waitMillis, remainingMillis);
+            }
+            return read.future.get(waitMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException ex)
+        {
+            //不再合并到超时的读请求，之后的相同读请求重新发送；
+            //合并到同一读请求的其他调用方等待时间可能更长，不在此处使其失败
+            pending.remove(read.readKey, read);
+            throw new RedisException(ex);
+        }
+        catch (RedisFailFastException ex)
+        {
+            //已超过截止时间
+            throw new RedisException(ex);
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            throw cause instanceof RedisException ? (RedisException) cause : new RedisException(cause);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * 收集读请求并分批发送
+     */
+    private void dispatch()
+    {
+        long windowNanos = this.window.toNanos();
+        while (this.running)
+        {
+            try
+            {
+                PendingRead first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                {
+                    continue;
+                }
+                List<PendingRead> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < this.maxBatchSize)
+                {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRead next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null)
+                    {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                //发送前移出，之后的相同读请求将进入下一批次
+                for (PendingRead read : batch)
+                {
+                    pending.remove(read.readKey, read);
+                }
+                try
+                {
+                    executor.execute(() -> execute(batch));
+                }
+                catch (RejectedExecutionException ex)
+                {
+                    //合并器已关闭
+                    fail(batch, new RedisException(ex));
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (RuntimeException ex)
+            {
+                //保证分发线程不因意外的异常退出
+                logger.warn("Redis读请求合并分发异常：" + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private static void fail(List<PendingRead> reads, RedisException ex)
+    {
+        for (PendingRead read : reads)
+        {
+            read.future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * 使用一次管道执行一个批次
+     */
+    private void execute(List<PendingRead> batch)
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            long startTime = System.nanoTime();
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<byte[]>> responses = new ArrayList<>(batch.size());
+            for (PendingRead read : batch)
+            {
+                byte[] key = SafeEncoder.encode(read.readKey.key);
+                responses.add(read.readKey.field == null ? pipeline.get(key) : pipeline.hget(key, SafeEncoder.encode(read.readKey.field)));
+            }
+            pipeline.sync();
+            redisMetrics.recordCommand(RedisCommandType.PIPELINE, startTime);
+
+            for (int i = 0; i < batch.size(); i++)
+            {
+                complete(batch.get(i), responses.get(i));
+            }
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.PIPELINE, ex);
+            fail(batch, new RedisException(ex));
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+
+    private void complete(PendingRead read, Response<byte[]> response)
+    {
+        try
+        {
+            read.future.complete(redisValueCompressor.decode(response.get()));
+        }
+        catch (Exception ex)
+        {
+            //单个命令出错（如类型错误）不影响同批次的其他请求
+            read.future.completeExceptionally(new RedisException(ex));
+        }
+    }
+
+    /**
+     * 读请求的键
+     */
+    private static final class ReadKey
+    {
+        private final String key;
+
+        //哈希表的字段，GET请求为 null
+        private final String field;
+
+        ReadKey(String key, String field)
+        {
+            this.key = key;
+            this.field = field;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof ReadKey))
+            {
+                return false;
+            }
+            ReadKey other = (ReadKey) obj;
+            return key.equals(other.key) && Objects.equals(field, other.field);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * key.hashCode() + (field != null ? field.hashCode() : 0);
+        }
+    }
+
+    /**
+     * 待发送的读请求
+     */
+    private static final class PendingRead
+    {
+        private final ReadKey readKey;
+
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        PendingRead(ReadKey readKey)
+        {
+            this.readKey = readKey;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisRuntimeException;
+import com.pjb.metrics.RedisMetrics;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Redis游标迭代器
+ * 基于SCAN系列命令（SCAN、HSCAN等）逐页获取数据，每页单独借用并归还连接，
+ * 不会长时间阻塞Redis服务器，也不会一次性将所有结果加载到内存中。
+ * 注意：SCAN命令可能返回重复的元素。
+ * @author pan_junbiao
+ **/
+public class RedisScanIterator<T> implements Iterator<T>
+{
+    private final RedisUtils redisUtils;
+
+    private final RedisMetrics redisMetrics;
+
+    //统计指标时使用的命令类型
+    private final RedisCommandType commandType;
+
+    //根据游标获取下一页数据
+    private final BiFunction<Jedis, String, ScanResult<T>> pageFetcher;
+
+    //当前游标
+    private String cursor = ScanParams.SCAN_POINTER_START;
+
+    //是否已完成全部迭代
+    private boolean finished = false;
+
+    //当前页数据
+    private Iterator<T> page = Collections.emptyIterator();
+
+    RedisScanIterator(RedisUtils redisUtils, RedisMetrics redisMetrics, BiFunction<Jedis, String, ScanResult<T>> pageFetcher)
+    {
+        this(redisUtils, redisMetrics, RedisCommandType.SCAN, pageFetcher);
+    }
+
+    RedisScanIterator(RedisUtils redisUtils, RedisMetrics redisMetrics, RedisCommandType commandType,
+                      BiFunction<Jedis, String, ScanResult<T>> pageFetcher)
+    {
+        this.redisUtils = redisUtils;
+        this.redisMetrics = redisMetrics;
+        this.commandType = commandType;
+        this.pageFetcher = pageFetcher;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (!page.hasNext() && !finished)
+        {
+            fetchNextPage();
+        }
+        return page.hasNext();
+    }
+
+    @Override
+    public T next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * 获取下一页数据
+     */
+    private void fetchNextPage()
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = redisUtils.getJedis();
+            long startTime = System.nanoTime();
+            ScanResult<T> scanResult = pageFetcher.apply(jedis, cursor);
+            redisMetrics.recordCommand(commandType, startTime);
+            cursor = scanResult.getCursor();
+            finished = ScanParams.SCAN_POINTER_START.equals(cursor);
+            page = scanResult.getResult().iterator();
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(commandType, ex);
+            throw new RedisRuntimeException(ex);
+        }
+        finally
+        {
+            //释放资源
+            redisUtils.closeResource(jedis);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.pjb.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Redis Lua脚本
+ * 创建时在本地计算脚本的SHA1摘要，与 SCRIPT LOAD 返回的值一致，
+ * 调用时直接使用 EVALSHA 发送摘要而不是完整脚本。
+ * @author pan_junbiao
+ **/
+public final class RedisScript
+{
+    private final String name;
+
+    private final String source;
+
+    private final String sha1;
+
+    public RedisScript(String name, String source)
+    {
+        this.name = name;
+        this.source = source;
+        this.sha1 = sha1Hex(source);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getSource()
+    {
+        return source;
+    }
+
+    public String getSha1()
+    {
+        return sha1;
+    }
+
+    private static String sha1Hex(String source)
+    {
+        try
+        {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash)
+            {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.pjb.utils;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.metrics.RedisMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis Lua脚本注册表
+ * 脚本按名称注册一次，调用时使用 EVALSHA 只发送摘要；
+ * 服务器上没有该脚本（NOSCRIPT，例如重启或执行了 SCRIPT FLUSH）时改用 EVAL 发送完整脚本，
+ * EVAL 会同时将脚本缓存到服务器，之后的调用重新使用 EVALSHA。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisScriptRegistry
+{
+    /**
+     * 有序集合添加成员后只保留分数最高的 ARGV[3] 个成员
+     * KEYS[1]：键；ARGV[1]：分数；ARGV[2]：成员；ARGV[3]：最大成员数量
+     * 返回：被移除的成员数量
+     */
+    public static final RedisScript CAPPED_ZADD = new RedisScript("cappedZadd",
+            "redis.call('zadd', KEYS[1], ARGV[1], ARGV[2]) " +
+            "return redis.call('zremrangebyrank', KEYS[1], 0, -tonumber(ARGV[3]) - 1)");
+
+    /**
+     * 自增，并在键新建时设置过期时间
+     * KEYS[1]：键；ARGV[1]：增量；ARGV[2]：过期时间（秒）
+     * 返回：自增后的值
+     */
+    public static final RedisScript INCR_WITH_TTL = new RedisScript("incrWithTtl",
+            "local value = redis.call('incrby', KEYS[1], ARGV[1]) " +
+            "if redis.call('ttl', KEYS[1]) == -1 then redis.call('expire', KEYS[1], ARGV[2]) end " +
+            "return value");
+
+    /**
+     * 比较并设置：当前值等于期望值时设置为新值，保留原有的过期时间
+     * 当前值是压缩的值（首字节为 0xFF 或 0xFE）时无法在脚本中解压比较，不设置并返回 -1，由调用方解压后比较
+     * KEYS[1]：键；ARGV[1]：期望值（未压缩）；ARGV[2]：新值
+     * 返回：1 设置成功；0 当前值与期望值不一致；-1 当前值是压缩的值，未比较
+     */
+    public static final RedisScript COMPARE_AND_SET = new RedisScript("compareAndSet",
+            "local current = redis.call('get', KEYS[1]) " +
+            "if current ~= ARGV[1] then " +
+            "if current and string.len(current) >= 5 then " +
+            "local b = string.byte(current, 1) " +
+            "if b == 255 or b == 254 then return -1 end " +
+            "end " +
+            "return 0 " +
+            "end " +
+            "local ttl = redis.call('pttl', KEYS[1]) " +
+            "redis.call('set', KEYS[1], ARGV[2]) " +
+            "if ttl > 0 then redis.call('pexpire', KEYS[1], ttl) end " +
+            "return 1");
+
+    /**
+     * 比较并删除：当前值等于期望值时删除键，用于释放锁
+     * KEYS[1]：键；ARGV[1]：期望值
+     * 返回：1 删除成功；0 当前值与期望值不一致
+     */
+    public static final RedisScript COMPARE_AND_DELETE = new RedisScript("compareAndDelete",
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end " +
+            "return 0");
+
+    /**
+     * 获取值并刷新过期时间
+     * KEYS[1]：键；ARGV[1]：过期时间（秒）
+     * 返回：值，键不存在时返回 nil
+     */
+    public static final RedisScript GET_AND_REFRESH_TTL = new RedisScript("getAndRefreshTtl",
+            "local value = redis.call('get', KEYS[1]) " +
+            "if value then redis.call('expire', KEYS[1], ARGV[1]) end " +
+            "return value");
+
+    /**
+     * 获取字符串的原始长度：压缩的值（首字节为 0xFF 或 0xFE）返回头部记录的原始长度，否则返回 STRLEN
+     * KEYS[1]：键
+     * 返回：字符串的原始长度，键不存在时返回 0
+     */
+    public static final RedisScript DECODED_STRLEN = new RedisScript("decodedStrlen",
+            "local len = redis.call('strlen', KEYS[1]) " +
+            "if len < 5 then return len end " +
+            "local h = redis.call('getrange', KEYS[1], 0, 4) " +
+            "local b = string.byte(h, 1) " +
+            "if b ~= 255 and b ~= 254 then return len end " +
+            "return ((string.byte(h, 2) * 256 + string.byte(h, 3)) * 256 + string.byte(h, 4)) * 256 + string.byte(h, 5)");
+
+    /**
+     * 当前值不是压缩的值时拼接字符串
+     * KEYS[1]：键；ARGV[1]：拼接字符串
+     * 返回：拼接后的长度；-1 当前值是压缩的值，未拼接
+     */
+    public static final RedisScript APPEND_UNCOMPRESSED = new RedisScript("appendUncompressed",
+            "if redis.call('strlen', KEYS[1]) >= 5 then " +
+            "local b = string.byte(redis.call('getrange', KEYS[1], 0, 0)) " +
+            "if b == 255 or b == 254 then return -1 end " +
+            "end " +
+            "return redis.call('append', KEYS[1], ARGV[1])");
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    //已注册的脚本
+    private final ConcurrentHashMap<String, RedisScript> scripts = new ConcurrentHashMap<>();
+
+    public RedisScriptRegistry()
+    {
+        register(CAPPED_ZADD);
+        register(INCR_WITH_TTL);
+        register(COMPARE_AND_SET);
+        register(COMPARE_AND_DELETE);
+        register(GET_AND_REFRESH_TTL);
+        register(DECODED_STRLEN);
+        register(APPEND_UNCOMPRESSED);
+    }
+
+    /**
+     * 注册脚本
+     * @param name 脚本名称
+     * @param source 脚本内容
+     * @return 脚本，名称已存在时返回已注册的脚本
+     */
+    public RedisScript register(String name, String source)
+    {
+        return register(new RedisScript(name, source));
+    }
+
+    /**
+     * 注册脚本
+     * @return 脚本，名称已存在时返回已注册的脚本
+     */
+    public RedisScript register(RedisScript script)
+    {
+        RedisScript existing = scripts.putIfAbsent(script.getName(), script);
+        return existing != null ? existing : script;
+    }
+
+    /**
+     * 根据名称获取已注册的脚本
+     * @return 脚本，未注册时返回 null
+     */
+    public RedisScript get(String name)
+    {
+        return scripts.get(name);
+    }
+
+    /**
+     * 将所有已注册的脚本加载到服务器
+     */
+    public void loadAll(Jedis jedis)
+    {
+        for (RedisScript script : scripts.values())
+        {
+            jedis.scriptLoad(script.getSource());
+        }
+    }
+
+    /**
+     * 执行脚本
+     * @param jedis Jedis对象，由调用方获取与释放
+     * @return 脚本的返回值：整数为 Long，字符串为 String，数组为 List
+     */
+    public Object eval(Jedis jedis, RedisScript script, List<String> keys, List<String> args)
+    {
+        long startTime = System.nanoTime();
+        Object result;
+        try
+        {
+            result = jedis.evalsha(script.getSha1(), keys, args);
+        }
+        catch (JedisDataException ex)
+        {
+            if (!isNoScript(ex))
+            {
+                throw ex;
+            }
+            result = jedis.eval(script.getSource(), keys, args);
+        }
+        redisMetrics.recordCommand(RedisCommandType.EVAL, startTime);
+        return result;
+    }
+
+    /**
+     * 使用二进制参数执行脚本
+     * @param jedis Jedis对象，由调用方获取与释放
+     * @return 脚本的返回值：整数为 Long，字符串为 byte[]，数组为 List
+     */
+    public Object evalBinary(Jedis jedis, RedisScript script, List<byte[]> keys, List<byte[]> args)
+    {
+        long startTime = System.nanoTime();
+        Object result;
+        try
+        {
+            result = jedis.evalsha(SafeEncoder.encode(script.getSha1()), keys, args);
+        }
+        catch (JedisDataException ex)
+        {
+            if (!isNoScript(ex))
+            {
+                throw ex;
+            }
+            result = jedis.eval(SafeEncoder.encode(script.getSource()), keys, args);
+        }
+        redisMetrics.recordCommand(RedisCommandType.EVAL, startTime);
+        return result;
+    }
+
+    private static boolean isNoScript(JedisDataException ex)
+    {
+        return ex.getMessage() != null && ex.getMessage().startsWith("NOSCRIPT");
+    }
+}
@@ -1,14 +1,36 @@
 package com.pjb.utils;
 
+import com.pjb.common.RedisCallable;
+import com.pjb.common.RedisCodecType;
+import com.pjb.common.RedisCommandType;
 import com.pjb.common.RedisKeyEnum;
+import com.pjb.exception.RedisFailFastException;
+import com.pjb.metrics.RedisMetrics;
+import com.pjb.pool.DeadlineJedisPool;
+import com.pjb.pool.RedisCircuitBreaker;
+import com.pjb.pool.RedisReplicaPool;
+import com.pjb.pool.StripedJedisPool;
+import com.pjb.properties.RedisProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.util.SafeEncoder;
 import com.pjb.exception.RedisException;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Redis工具类
@@ -17,13 +39,70 @@ import java.util.*;
 @Component
 public class RedisUtils
 {
+    private static final Logger logger = LoggerFactory.getLogger(RedisUtils.class);
+
     @Autowired
     private JedisPool jedisPool;
 
+    //分段连接池，配置 myenvironment.redis-pool.mode=striped 时启用
+    @Autowired(required = false)
+    private StripedJedisPool stripedJedisPool;
+
+    //只读副本连接池，配置 spring.redis.replicas 时启用
+    @Autowired(required = false)
+    private RedisReplicaPool redisReplicaPool;
+
+    //当前线程是否强制从主节点读取
+    private static final ThreadLocal<Boolean> READ_FROM_PRIMARY = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    //当前线程调用的截止时间（System.nanoTime()），null表示没有截止时间
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    //断路器，配置 myenvironment.redis-circuit-breaker.enabled=true 时启用
+    @Autowired(required = false)
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    private RedisProperties redisProperties;
+
+    @Autowired
+    private RedisNearCache redisNearCache;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisReadCoalescer redisReadCoalescer;
+
+    @Autowired
+    private RedisValueCompressor redisValueCompressor;
+
+    @Autowired
+    private RedisScriptRegistry redisScriptRegistry;
+
     //Redis项目键
     @Value("${myenvironment.redis-project-key}")
     private String redisProjectKey;
 
+    //Redis键构建器，首次使用时根据项目键创建
+    private volatile RedisKeyBuilder redisKeyBuilder;
+
+    //批量操作每批次的命令数量
+    @Value("${myenvironment.redis-batch-size:1000}")
+    private int redisBatchSize;
+
+    //SCAN命令每次迭代的建议返回数量（COUNT）
+    @Value("${myenvironment.redis-scan-count:1000}")
+    private int redisScanCount;
+
+    //哈希表字段数量超过该值时，hgetAll() 输出警告，0表示不警告
+    @Value("${myenvironment.redis-large-hash-threshold:10000}")
+    private int largeHashThreshold;
+
+    //排行榜本地缓存前N名的默认有效期，0表示不缓存
+    @Value("${myenvironment.redis-leaderboard.top-cache-ttl:0ms}")
+    private Duration leaderboardTopCacheTtl;
+
     public String getRedisProjectKey()
     {
         return redisProjectKey;
@@ -32,6 +111,41 @@ public class RedisUtils
     public void setRedisProjectKey(String redisProjectKey)
     {
         this.redisProjectKey = redisProjectKey;
+        this.redisKeyBuilder = null;
+    }
+
+    /**
+     * 获取Redis键构建器
+     */
+    public RedisKeyBuilder getRedisKeyBuilder()
+    {
+        RedisKeyBuilder keyBuilder = this.redisKeyBuilder;
+        if (keyBuilder == null)
+        {
+            keyBuilder = new RedisKeyBuilder(this.redisProjectKey);
+            this.redisKeyBuilder = keyBuilder;
+        }
+        return keyBuilder;
+    }
+
+    public int getRedisBatchSize()
+    {
+        return redisBatchSize;
+    }
+
+    public void setRedisBatchSize(int redisBatchSize)
+    {
+        this.redisBatchSize = redisBatchSize;
+    }
+
+    public int getRedisScanCount()
+    {
+        return redisScanCount;
+    }
+
+    public void setRedisScanCount(int redisScanCount)
+    {
+        this.redisScanCount = redisScanCount;
     }
 
     /**
@@ -40,7 +154,190 @@ public class RedisUtils
      */
     public Jedis getJedis()
     {
-        return jedisPool.getResource();
+        if (redisCircuitBreaker != null && !redisCircuitBreaker.tryAcquire())
+        {
+            throw new RedisFailFastException("断路器已打开");
+        }
+        long startTime = System.nanoTime();
+        Long deadline = DEADLINE.get();
+        Jedis jedis;
+        if (deadline == null)
+        {
+            jedis = stripedJedisPool != null ? stripedJedisPool.getResource() : jedisPool.getResource();
+        }
+        else
+        {
+            //获取连接的等待时间不超过剩余时间
+            long waitMillis = remainingMillis(deadline);
+            if (stripedJedisPool != null)
+            {
+                jedis = stripedJedisPool.getResource(waitMillis);
+            }
+            else if (jedisPool instanceof DeadlineJedisPool)
+            {
+                jedis = ((DeadlineJedisPool) jedisPool).getResource(waitMillis);
+            }
+            else
+            {
+                jedis = jedisPool.getResource();
+            }
+        }
+        redisMetrics.recordPoolWait(startTime);
+        applyDeadline(jedis);
+        return jedis;
+    }
+
+    /**
+     * 获取只读命令使用的Jedis对象
+     * 配置了只读副本时按负载均衡策略返回副本的连接，没有可用的副本或当前线程强制读主节点时返回主节点的连接
+     */
+    public Jedis getReadJedis()
+    {
+        if (!READ_FROM_PRIMARY.get())
+        {
+            Jedis jedis = getReplicaJedis();
+            if (jedis != null)
+            {
+                return jedis;
+            }
+        }
+        return getJedis();
+    }
+
+    /**
+     * 获取只读副本的Jedis对象，使用完毕后调用 closeResource() 释放
+     * 使用副本连接期间记录的命令结果不计入主节点的断路器
+     * @return Jedis对象，未配置副本或没有可用的副本时返回 null
+     */
+    public Jedis getReplicaJedis()
+    {
+        if (redisReplicaPool == null)
+        {
+            return null;
+        }
+        long startTime = System.nanoTime();
+        //有截止时间时，获取连接的等待时间不超过剩余时间
+        Long deadline = DEADLINE.get();
+        Jedis jedis = redisReplicaPool.getResource(deadline != null ? remainingMillis(deadline) : -1);
+        if (jedis == null)
+        {
+            return null;
+        }
+        redisMetrics.recordPoolWait(startTime);
+        redisMetrics.replicaAcquired();
+        applyDeadline(jedis);
+        return jedis;
+    }
+
+    /**
+     * 在当前线程中强制从主节点执行只读命令，用于写入后立即读取（读己之写）
+     * 例如：redisUtils.readFromPrimary(() -> redisUtils.get(key))
+     * 注意：只对当前线程有效，不会传递到 AsyncRedisUtils 的异步线程
+     */
+    public <T> T readFromPrimary(RedisCallable<T> callable) throws RedisException
+    {
+        if (READ_FROM_PRIMARY.get())
+        {
+            return callable.call();
+        }
+        READ_FROM_PRIMARY.set(Boolean.TRUE);
+        try
+        {
+            return callable.call();
+        }
+        finally
+        {
+            READ_FROM_PRIMARY.remove();
+        }
+    }
+
+    /**
+     * 在当前线程中以截止时间执行Redis操作：获取连接的等待时间与命令的读取超时都不超过剩余时间，
+     * 超过截止时间后不再获取连接，直接抛出 RedisFailFastException（包装在 RedisException 中）
+     * 例如：redisUtils.withDeadline(Duration.ofMillis(50), () -> redisUtils.get(key))
+     * 嵌套调用时使用较早的截止时间。
+     * 注意：只对当前线程有效，不会传递到 AsyncRedisUtils 的异步线程
+     * @param timeout 超时时间
+     */
+    public <T> T withDeadline(Duration timeout, RedisCallable<T> callable) throws RedisException
+    {
+        Long previous = DEADLINE.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (previous != null && previous - deadline < 0)
+        {
+            deadline = previous;
+        }
+        DEADLINE.set(deadline);
+        try
+        {
+            return callable.call();
+        }
+        finally
+        {
+            if (previous != null)
+            {
+                DEADLINE.set(previous);
+            }
+            else
+            {
+                DEADLINE.remove();
+            }
+        }
+    }
+
+    /**
+     * 当前线程截止时间的剩余时间（毫秒），用于在其他线程中执行的操作限制调用方的等待时间
+     * @return 没有截止时间时返回 -1；已超过截止时间时抛出 RedisFailFastException
+     */
+    public long getDeadlineRemainingMillis()
+    {
+        Long deadline = DEADLINE.get();
+        return deadline != null ? remainingMillis(deadline) : -1;
+    }
+
+    /**
+     * 剩余时间（毫秒），已超过截止时间时抛出 RedisFailFastException
+     */
+    private static long remainingMillis(long deadline)
+    {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0)
+        {
+            throw new RedisFailFastException("调用已超过截止时间");
+        }
+        return remaining;
+    }
+
+    /**
+     * 有截止时间时，将连接的读取超时设置为剩余时间
+     */
+    private void applyDeadline(Jedis jedis)
+    {
+        Long deadline = DEADLINE.get();
+        if (deadline == null)
+        {
+            return;
+        }
+        try
+        {
+            int remaining = (int) Math.min(Integer.MAX_VALUE, remainingMillis(deadline));
+            jedis.getClient().setSoTimeout(remaining);
+            jedis.getClient().rollbackTimeout();
+        }
+        catch (RuntimeException ex)
+        {
+            closeResource(jedis);
+            throw ex;
+        }
+    }
+
+    /**
+     * 是否从副本读取
+     * 近端缓存的键从主节点读取，避免副本复制延迟导致失效广播之后又缓存旧值
+     */
+    private boolean readFromReplica(boolean cacheable)
+    {
+        return redisReplicaPool != null && !cacheable && !READ_FROM_PRIMARY.get();
     }
 
     /**
@@ -49,8 +346,28 @@ public class RedisUtils
      */
     public void closeResource(Jedis jedis)
     {
-        if (jedisPool != null && jedis != null)
+        if (jedis != null)
         {
+            //恢复截止时间修改过的读取超时
+            int soTimeout = (int) redisProperties.getTimeout().toMillis();
+            if (DEADLINE.get() != null && jedis.getClient().getSoTimeout() != soTimeout && !jedis.getClient().isBroken())
+            {
+                try
+                {
+                    jedis.getClient().setSoTimeout(soTimeout);
+                    jedis.getClient().rollbackTimeout();
+                }
+                catch (RuntimeException ex)
+                {
+                    //连接已损坏，close() 时作为损坏的连接归还
+                }
+            }
+
+            if (redisReplicaPool != null && redisReplicaPool.isReplica(jedis))
+            {
+                redisMetrics.replicaReleased();
+            }
+
             //自Jedis3.0版本后jedisPool.returnResource()遭弃用，
             //官方重写了Jedis的close方法用以代替；
             jedis.close();
@@ -62,8 +379,7 @@ public class RedisUtils
      */
     public String getRedisKey(RedisKeyEnum businessKey)
     {
-        String key = this.redisProjectKey + "_" + businessKey;
-        return key;
+        return getRedisKeyBuilder().key(businessKey);
     }
 
     /**
@@ -71,8 +387,43 @@ public class RedisUtils
      */
     public String getRedisKey(RedisKeyEnum businessKey, Object id)
     {
-        String key = String.format("%s_%s::%s",this.redisProjectKey,businessKey,id.toString());
-        return key;
+        return getRedisKeyBuilder().key(businessKey, id);
+    }
+
+    /**
+     * 获取Redis键
+     */
+    public String getRedisKey(RedisKeyEnum businessKey, long id)
+    {
+        return getRedisKeyBuilder().key(businessKey, id);
+    }
+
+    /**
+     * 获取Redis键
+     * @param hashTag 是否将ID作为哈希标签，格式：项目键_业务键::{ID}，
+     *                集群模式下同一ID的不同业务键位于同一槽位，可以一起执行多键操作
+     */
+    public String getRedisKey(RedisKeyEnum businessKey, Object id, boolean hashTag)
+    {
+        return hashTag ? getRedisKeyBuilder().taggedKey(businessKey, id) : getRedisKeyBuilder().key(businessKey, id);
+    }
+
+    /**
+     * 获取Redis键的UTF-8字节，用于Jedis的 byte[] 命令
+     * 整数ID不产生中间字符串
+     */
+    public byte[] getRedisKeyBytes(RedisKeyEnum businessKey, Object id)
+    {
+        return getRedisKeyBuilder().keyBytes(businessKey, id);
+    }
+
+    /**
+     * 获取Redis键的UTF-8字节，用于Jedis的 byte[] 命令
+     * ID的数字直接写入结果字节数组，不产生中间字符串
+     */
+    public byte[] getRedisKeyBytes(RedisKeyEnum businessKey, long id)
+    {
+        return getRedisKeyBuilder().keyBytes(businessKey, id);
     }
 
     /************************ 字符串（String） *************************/
@@ -96,11 +447,17 @@ public class RedisUtils
                 valueStr = value.toString();
             }
 
-            jedis = jedisPool.getResource();
-            result = jedis.set(key, valueStr);
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            byte[] valueBytes = redisValueCompressor.encode(valueStr);
+            result = jedis.set(SafeEncoder.encode(key), valueBytes);
+            redisMetrics.recordCommand(RedisCommandType.SET, startTime);
+            redisMetrics.recordPayload(RedisCommandType.SET, valueBytes.length);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.SET, ex);
             throw new RedisException(ex);
         }
         finally
@@ -119,15 +476,51 @@ public class RedisUtils
      */
     public String get(String key) throws RedisException
     {
+        //优先从近端缓存中获取
+        boolean cacheable = redisNearCache.isCacheable(key);
+        if (cacheable)
+        {
+            Optional<String> cachedValue = redisNearCache.getValue(key);
+            if (cachedValue != null)
+            {
+                return cachedValue.orElse(null);
+            }
+        }
+        long epoch = cacheable ? redisNearCache.epoch(key) : 0;
+
+        //合并并发的读请求（合并器使用主节点，可从副本读取时直接读副本）
+        boolean fromReplica = readFromReplica(cacheable);
+        if (redisReadCoalescer.isEnabled() && !fromReplica)
+        {
+            String value = redisReadCoalescer.get(key);
+            if (cacheable)
+            {
+                redisNearCache.putValue(key, value, epoch);
+            }
+            return value;
+        }
+
         Jedis jedis = null;
         String result = "";
         try
         {
-            jedis = jedisPool.getResource();
-            result = jedis.get(key);
+            jedis = fromReplica ? getReadJedis() : getJedis();
+            long startTime = System.nanoTime();
+            byte[] valueBytes = jedis.get(SafeEncoder.encode(key));
+            redisMetrics.recordCommand(RedisCommandType.GET, startTime);
+            if (valueBytes != null)
+            {
+                redisMetrics.recordPayload(RedisCommandType.GET, valueBytes.length);
+            }
+            result = redisValueCompressor.decode(valueBytes);
+            if (cacheable)
+            {
+                redisNearCache.putValue(key, result, epoch);
+            }
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.GET, ex);
             throw new RedisException(ex);
         }
         finally
@@ -141,30 +534,63 @@ public class RedisUtils
     /**
      * 字符串（String）
      * 获取键集合
+     * 使用SCAN命令分批迭代，不会阻塞Redis服务器；
+     * 键数量较多时请使用 scan() 方法流式处理
      * @param key 键
      * @return 键集合
      */
     public Set<String> keys(String key) throws RedisException
     {
-        Jedis jedis = null;
-        Set<String> result = null;
+        Set<String> result = new HashSet<>();
         try
         {
-            jedis = jedisPool.getResource();
-            result = jedis.keys(key);
+            scanIterator(key, this.redisScanCount).forEachRemaining(result::add);
         }
         catch (Exception ex)
         {
             throw new RedisException(ex);
         }
-        finally
-        {
-            //释放资源
-            closeResource(jedis);
-        }
         return result;
     }
 
+    /**
+     * 字符串（String）
+     * 使用SCAN命令迭代匹配的键
+     * 每页单独借用连接，迭代过程中出现异常时抛出 RedisRuntimeException
+     * @param key 键，支持通配符*号等
+     * @param count 每次迭代的建议返回数量（COUNT）
+     * @return 键迭代器，可能包含重复的键
+     */
+    public Iterator<String> scanIterator(String key, int count)
+    {
+        ScanParams scanParams = new ScanParams().match(key).count(count);
+        return new RedisScanIterator<>(this, this.redisMetrics, (jedis, cursor) -> jedis.scan(cursor, scanParams));
+    }
+
+    /**
+     * 字符串（String）
+     * 使用SCAN命令流式获取匹配的键
+     * @param key 键，支持通配符*号等
+     * @return 键的流，可能包含重复的键
+     */
+    public Stream<String> scan(String key)
+    {
+        return scan(key, this.redisScanCount);
+    }
+
+    /**
+     * 字符串（String）
+     * 使用SCAN命令流式获取匹配的键
+     * @param key 键，支持通配符*号等
+     * @param count 每次迭代的建议返回数量（COUNT）
+     * @return 键的流，可能包含重复的键
+     */
+    public Stream<String> scan(String key, int count)
+    {
+        Spliterator<String> spliterator = Spliterators.spliteratorUnknownSize(scanIterator(key, count), Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
     /**
      * 字符串（String）
      * 删除字符串键
@@ -177,12 +603,16 @@ public class RedisUtils
         boolean result = false;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             jedis.del(key);
+            redisMetrics.recordCommand(RedisCommandType.DEL, startTime);
+            redisNearCache.invalidate(jedis, key);
             result = true;
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.DEL, ex);
             throw new RedisException(ex);
         }
         finally
@@ -197,6 +627,7 @@ public class RedisUtils
      * 字符串（String）
      * 批量删除所有字符串键
      * 支持通配符*号等
+     * 边使用SCAN命令迭代，边使用UNLINK命令分批删除，不会阻塞Redis服务器
      * @param key 键
      * @return 成功删除字段的数量
      * @author pan_junbiao
@@ -207,16 +638,40 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
-            Set<String> keySet = jedis.keys(key);
-            if (keySet != null && keySet.size() > 0)
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            ScanParams scanParams = new ScanParams().match(key).count(this.redisScanCount);
+            int batchSize = Math.max(1, this.redisBatchSize);
+            List<String> keyList = new ArrayList<>();
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do
             {
-                String[] keyArray = keySet.toArray(new String[0]);
-                result = jedis.del(keyArray);
+                ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+                cursor = scanResult.getCursor();
+                keyList.addAll(scanResult.getResult());
+                if (keyList.size() >= batchSize || ScanParams.SCAN_POINTER_START.equals(cursor))
+                {
+                    if (keyList.size() > 0)
+                    {
+                        //删除的同时逐个失效近端缓存中的键
+                        Pipeline pipeline = jedis.pipelined();
+                        Response<Long> unlinked = pipeline.unlink(keyList.toArray(new String[0]));
+                        for (String itemKey : keyList)
+                        {
+                            redisNearCache.invalidate(pipeline, itemKey);
+                        }
+                        pipeline.sync();
+                        result += unlinked.get();
+                        keyList.clear();
+                    }
+                }
             }
+            while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+            redisMetrics.recordCommand(RedisCommandType.DEL_BY_PATTERN, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.DEL_BY_PATTERN, ex);
             throw new RedisException(ex);
         }
         finally
@@ -230,6 +685,7 @@ public class RedisUtils
     /**
      * 字符串（String）
      * 返回键所存储的字符串的长度
+     * 压缩的值返回压缩前的长度（UTF-8字节数），无需读取与解压整个值
      * @param key 键
      * @return 字符串的长度
      */
@@ -239,11 +695,15 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
-            result = jedis.strlen(key);
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
+            result = (Long) redisScriptRegistry.eval(jedis, RedisScriptRegistry.DECODED_STRLEN,
+                    Collections.singletonList(key), Collections.emptyList());
+            redisMetrics.recordCommand(RedisCommandType.STRLEN, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.STRLEN, ex);
             throw new RedisException(ex);
         }
         finally
@@ -266,11 +726,14 @@ public class RedisUtils
         boolean result = false;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
             result = jedis.exists(key);
+            redisMetrics.recordCommand(RedisCommandType.EXISTS, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.EXISTS, ex);
             throw new RedisException(ex);
         }
         finally
@@ -293,11 +756,14 @@ public class RedisUtils
         String result = "";
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
             result = jedis.type(key);
+            redisMetrics.recordCommand(RedisCommandType.TYPE, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.TYPE, ex);
             throw new RedisException(ex);
         }
         finally
@@ -321,11 +787,16 @@ public class RedisUtils
         String result = "";
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.rename(oldkey, newkey);
+            redisMetrics.recordCommand(RedisCommandType.RENAME, startTime);
+            redisNearCache.invalidate(jedis, oldkey);
+            redisNearCache.invalidate(jedis, newkey);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.RENAME, ex);
             throw new RedisException(ex);
         }
         finally
@@ -348,11 +819,15 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.incr(key);
+            redisMetrics.recordCommand(RedisCommandType.INCR, startTime);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.INCR, ex);
             throw new RedisException(ex);
         }
         finally
@@ -376,11 +851,15 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.incrBy(key, increment);
+            redisMetrics.recordCommand(RedisCommandType.INCRBY, startTime);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.INCRBY, ex);
             throw new RedisException(ex);
         }
         finally
@@ -403,11 +882,15 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.decr(key);
+            redisMetrics.recordCommand(RedisCommandType.DECR, startTime);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.DECR, ex);
             throw new RedisException(ex);
         }
         finally
@@ -431,11 +914,15 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.decrBy(key, decrement);
+            redisMetrics.recordCommand(RedisCommandType.DECRBY, startTime);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.DECRBY, ex);
             throw new RedisException(ex);
         }
         finally
@@ -449,9 +936,10 @@ public class RedisUtils
     /**
      * 字符串（String）
      * 在键的值的后面拼接字符串
+     * 当前值是压缩的值时，读取并解压后拼接，再重新编码写入（WATCH乐观锁，保留原有的过期时间）
      * @param key 键
      * @param value 拼接字符串
-     * @return 拼接字符串后的长度
+     * @return 拼接字符串后的长度（UTF-8字节数）
      */
     public Long append(String key, Object value) throws RedisException
     {
@@ -465,11 +953,21 @@ public class RedisUtils
                 valueStr = value.toString();
             }
 
-            jedis = jedisPool.getResource();
-            result = jedis.append(key, valueStr);
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            result = (Long) redisScriptRegistry.eval(jedis, RedisScriptRegistry.APPEND_UNCOMPRESSED,
+                    Collections.singletonList(key), Collections.singletonList(valueStr));
+            if (result < 0)
+            {
+                result = appendCompressed(jedis, key, valueStr);
+            }
+            redisMetrics.recordCommand(RedisCommandType.APPEND, startTime);
+            redisMetrics.recordPayload(RedisCommandType.APPEND, valueStr);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.APPEND, ex);
             throw new RedisException(ex);
         }
         finally
@@ -480,6 +978,32 @@ public class RedisUtils
         return result;
     }
 
+    /**
+     * 在压缩的值后面拼接字符串：解压、拼接、重新编码，值在读取之后被修改时重试
+     * @return 拼接字符串后的长度（UTF-8字节数）
+     */
+    private long appendCompressed(Jedis jedis, String key, String valueStr)
+    {
+        byte[] binaryKey = SafeEncoder.encode(key);
+        while (true)
+        {
+            jedis.watch(binaryKey);
+            String current = redisValueCompressor.decode(jedis.get(binaryKey));
+            String newValue = (current != null ? current : "") + valueStr;
+            long ttl = jedis.pttl(binaryKey);
+            Transaction transaction = jedis.multi();
+            transaction.set(binaryKey, redisValueCompressor.encode(newValue));
+            if (ttl > 0)
+            {
+                transaction.pexpire(binaryKey, ttl);
+            }
+            if (transaction.exec() != null)
+            {
+                return SafeEncoder.encode(newValue).length;
+            }
+        }
+    }
+
     /************************ 哈希（Hash） *************************/
 
     /**
@@ -503,11 +1027,17 @@ public class RedisUtils
                 valueStr = value.toString();
             }
 
-            jedis = jedisPool.getResource();
-            result = jedis.hset(key, field, valueStr);
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            byte[] valueBytes = redisValueCompressor.encode(valueStr);
+            result = jedis.hset(SafeEncoder.encode(key), SafeEncoder.encode(field), valueBytes);
+            redisMetrics.recordCommand(RedisCommandType.HSET, startTime);
+            redisMetrics.recordPayload(RedisCommandType.HSET, valueBytes.length);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HSET, ex);
             throw new RedisException(ex);
         }
         finally
@@ -528,15 +1058,51 @@ public class RedisUtils
      */
     public String hget(String key, String field) throws RedisException
     {
+        //优先从近端缓存中获取
+        boolean cacheable = redisNearCache.isCacheable(key);
+        if (cacheable)
+        {
+            Optional<String> cachedValue = redisNearCache.getHashValue(key, field);
+            if (cachedValue != null)
+            {
+                return cachedValue.orElse(null);
+            }
+        }
+        long epoch = cacheable ? redisNearCache.epoch(key) : 0;
+
+        //合并并发的读请求（合并器使用主节点，可从副本读取时直接读副本）
+        boolean fromReplica = readFromReplica(cacheable);
+        if (redisReadCoalescer.isEnabled() && !fromReplica)
+        {
+            String value = redisReadCoalescer.hget(key, field);
+            if (cacheable)
+            {
+                redisNearCache.putHashValue(key, field, value, epoch);
+            }
+            return value;
+        }
+
         Jedis jedis = null;
         String result = "";
         try
         {
-            jedis = jedisPool.getResource();
-            result = jedis.hget(key, field);
+            jedis = fromReplica ? getReadJedis() : getJedis();
+            long startTime = System.nanoTime();
+            byte[] valueBytes = jedis.hget(SafeEncoder.encode(key), SafeEncoder.encode(field));
+            redisMetrics.recordCommand(RedisCommandType.HGET, startTime);
+            if (valueBytes != null)
+            {
+                redisMetrics.recordPayload(RedisCommandType.HGET, valueBytes.length);
+            }
+            result = redisValueCompressor.decode(valueBytes);
+            if (cacheable)
+            {
+                redisNearCache.putHashValue(key, field, result, epoch);
+            }
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HGET, ex);
             throw new RedisException(ex);
         }
         finally
@@ -561,11 +1127,15 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.hincrBy(key, field, increment);
+            redisMetrics.recordCommand(RedisCommandType.HINCRBY, startTime);
+            redisNearCache.invalidate(jedis, key);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HINCRBY, ex);
             throw new RedisException(ex);
         }
         finally
@@ -588,11 +1158,19 @@ public class RedisUtils
         Map<String, String> result = null;
         try
         {
-            jedis = jedisPool.getResource();
-            result = jedis.hgetAll(key);
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
+            result = redisValueCompressor.decode(jedis.hgetAll(SafeEncoder.encode(key)));
+            redisMetrics.recordCommand(RedisCommandType.HGETALL, startTime);
+            if (largeHashThreshold > 0 && result.size() > largeHashThreshold)
+            {
+                logger.warn("哈希表 " + key + " 的字段数量为 " + result.size() + "，超过 " + largeHashThreshold
+                        + "，HGETALL会阻塞Redis服务器，请改用 hscan() 或 hmget()");
+            }
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HGETALL, ex);
             throw new RedisException(ex);
         }
         finally
@@ -605,22 +1183,41 @@ public class RedisUtils
 
     /**
      * 哈希（Hash）操作：
-     * 删除一个或多个哈希表字段
+     * 获取哈希表中指定字段的值，所有字段通过一次HMGET获取
      * @param key 键
      * @param fields 域
-     * @return 成功删除字段的数量
+     * @return 字段和值，按参数的顺序排列，不包含不存在的字段
      */
-    public Long hdel(String key, String... fields) throws RedisException
+    public Map<String, String> hmget(String key, String... fields) throws RedisException
     {
+        if (fields.length == 0)
+        {
+            return Collections.emptyMap();
+        }
         Jedis jedis = null;
-        long result = 0;
+        Map<String, String> result = new LinkedHashMap<>(fields.length * 4 / 3 + 1);
         try
         {
-            jedis = jedisPool.getResource();
-            result = jedis.hdel(key,fields);
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
+            byte[][] binaryFields = new byte[fields.length][];
+            for (int i = 0; i < fields.length; i++)
+            {
+                binaryFields[i] = SafeEncoder.encode(fields[i]);
+            }
+            List<String> values = redisValueCompressor.decode(jedis.hmget(SafeEncoder.encode(key), binaryFields));
+            redisMetrics.recordCommand(RedisCommandType.HMGET, startTime);
+            for (int i = 0; i < fields.length; i++)
+            {
+                if (values.get(i) != null)
+                {
+                    result.put(fields[i], values.get(i));
+                }
+            }
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HMGET, ex);
             throw new RedisException(ex);
         }
         finally
@@ -633,35 +1230,174 @@ public class RedisUtils
 
     /**
      * 哈希（Hash）操作：
-     * 批量删除所有哈希表字段
-     * 支持通配符*号等
+     * 使用HSCAN命令迭代哈希表的字段和值
+     * 每页单独借用连接，内存占用与每页的数量有关，与哈希表大小无关；
+     * 迭代过程中出现异常时抛出 RedisRuntimeException
      * @param key 键
-     * @return 成功删除字段的数量
-     * @author pan_junbiao
+     * @param count 每次迭代的建议返回数量（COUNT）
+     * @return 字段和值的迭代器，可能包含重复的字段
      */
-    public Long hdelAllByKey(String key) throws RedisException
+    public Iterator<Map.Entry<String, String>> hscanIterator(String key, int count)
     {
-        Jedis jedis = null;
-        long result = 0;
-        try
+        byte[] binaryKey = SafeEncoder.encode(key);
+        ScanParams scanParams = new ScanParams().count(count);
+        return new RedisScanIterator<>(this, this.redisMetrics, RedisCommandType.HSCAN, (jedis, cursor) ->
         {
-            jedis = jedisPool.getResource();
-            Set<String> keySet = jedis.keys(key);
-            if (keySet != null && keySet.size() > 0)
+            ScanResult<Map.Entry<byte[], byte[]>> scanResult = jedis.hscan(binaryKey, SafeEncoder.encode(cursor), scanParams);
+            List<Map.Entry<String, String>> entries = new ArrayList<>(scanResult.getResult().size());
+            for (Map.Entry<byte[], byte[]> entry : scanResult.getResult())
             {
-                for (String itemKey : keySet)
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(SafeEncoder.encode(entry.getKey()),
+                        redisValueCompressor.decode(entry.getValue())));
+            }
+            return new ScanResult<>(scanResult.getCursorAsBytes(), entries);
+        });
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 使用HSCAN命令流式获取哈希表的字段和值，用于代替大哈希表的 hgetAll()
+     * @param key 键
+     * @return 字段和值的流，可能包含重复的字段
+     */
+    public Stream<Map.Entry<String, String>> hscan(String key)
+    {
+        return hscan(key, this.redisScanCount);
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 使用HSCAN命令流式获取哈希表的字段和值，用于代替大哈希表的 hgetAll()
+     * @param key 键
+     * @param count 每次迭代的建议返回数量（COUNT）
+     * @return 字段和值的流，可能包含重复的字段
+     */
+    public Stream<Map.Entry<String, String>> hscan(String key, int count)
+    {
+        Spliterator<Map.Entry<String, String>> spliterator = Spliterators.spliteratorUnknownSize(hscanIterator(key, count), Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 使用HSCAN命令流式获取哈希表的字段名，用于代替大哈希表的 hkeys()
+     * HSCAN会同时返回值，值不解压，在每页中直接丢弃，不会累积在内存中
+     * @param key 键
+     * @return 字段名的流，可能包含重复的字段
+     */
+    public Stream<String> hscanKeys(String key)
+    {
+        byte[] binaryKey = SafeEncoder.encode(key);
+        ScanParams scanParams = new ScanParams().count(this.redisScanCount);
+        Iterator<String> iterator = new RedisScanIterator<>(this, this.redisMetrics, RedisCommandType.HSCAN, (jedis, cursor) ->
+        {
+            ScanResult<Map.Entry<byte[], byte[]>> scanResult = jedis.hscan(binaryKey, SafeEncoder.encode(cursor), scanParams);
+            List<String> fields = new ArrayList<>(scanResult.getResult().size());
+            for (Map.Entry<byte[], byte[]> entry : scanResult.getResult())
+            {
+                fields.add(SafeEncoder.encode(entry.getKey()));
+            }
+            return new ScanResult<>(scanResult.getCursorAsBytes(), fields);
+        });
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false);
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 删除一个或多个哈希表字段
+     * @param key 键
+     * @param fields 域
+     * @return 成功删除字段的数量
+     */
+    public Long hdel(String key, String... fields) throws RedisException
+    {
+        Jedis jedis = null;
+        long result = 0;
+        try
+        {
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            result = jedis.hdel(key,fields);
+            redisMetrics.recordCommand(RedisCommandType.HDEL, startTime);
+            redisNearCache.invalidate(jedis, key);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HDEL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /**
+     * 哈希（Hash）操作：
+     * 批量删除所有哈希表字段
+     * 支持通配符*号等
+     * 边使用SCAN命令迭代，边通过管道先用TYPE确认类型，再对每个哈希表执行HLEN与UNLINK，
+     * 整个哈希表一次删除，无需先读取所有字段；匹配到的其他类型的键不会被删除
+     * @param key 键
+     * @return 成功删除字段的数量
+     * @author pan_junbiao
+     */
+    public Long hdelAllByKey(String key) throws RedisException
+    {
+        Jedis jedis = null;
+        long result = 0;
+        try
+        {
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            ScanParams scanParams = new ScanParams().match(key).count(this.redisScanCount);
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do
+            {
+                ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+                cursor = scanResult.getCursor();
+                List<String> keyList = scanResult.getResult();
+                if (keyList.size() > 0)
                 {
-                    Map<String, String> fieldMap = jedis.hgetAll(itemKey);
-                    if (fieldMap != null && fieldMap.size() > 0)
+                    //先确认类型，只删除哈希表，其他类型的键保持不变
+                    Pipeline typePipeline = jedis.pipelined();
+                    List<Response<String>> types = new ArrayList<>(keyList.size());
+                    for (String itemKey : keyList)
                     {
-                        String[] fieldArray = fieldMap.keySet().toArray(new String[0]);
-                        result += jedis.hdel(itemKey, fieldArray);
+                        types.add(typePipeline.type(itemKey));
+                    }
+                    typePipeline.sync();
+
+                    Pipeline pipeline = jedis.pipelined();
+                    List<Response<Long>> fieldCounts = new ArrayList<>(keyList.size());
+                    for (int i = 0; i < keyList.size(); i++)
+                    {
+                        if ("hash".equals(types.get(i).get()))
+                        {
+                            fieldCounts.add(pipeline.hlen(keyList.get(i)));
+                            pipeline.unlink(keyList.get(i));
+                            redisNearCache.invalidate(pipeline, keyList.get(i));
+                        }
+                    }
+                    if (fieldCounts.isEmpty())
+                    {
+                        continue;
+                    }
+                    pipeline.sync();
+                    for (Response<Long> fieldCount : fieldCounts)
+                    {
+                        result += fieldCount.get();
                     }
                 }
             }
+            while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+            redisMetrics.recordCommand(RedisCommandType.HDEL_BY_PATTERN, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HDEL_BY_PATTERN, ex);
             throw new RedisException(ex);
         }
         finally
@@ -685,11 +1421,14 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
             result = jedis.hlen(key);
+            redisMetrics.recordCommand(RedisCommandType.HLEN, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HLEN, ex);
             throw new RedisException(ex);
         }
         finally
@@ -712,11 +1451,14 @@ public class RedisUtils
         Set<String> result = null;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
             result = jedis.hkeys(key);
+            redisMetrics.recordCommand(RedisCommandType.HKEYS, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.HKEYS, ex);
             throw new RedisException(ex);
         }
         finally
@@ -756,11 +1498,14 @@ public class RedisUtils
 
             String[] stringArray = stringList.toArray(new String[0]);
 
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.sadd(key,stringArray);
+            redisMetrics.recordCommand(RedisCommandType.SADD, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.SADD, ex);
             throw new RedisException(ex);
         }
         finally
@@ -783,11 +1528,14 @@ public class RedisUtils
         String result = "";
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
             result = jedis.srandmember(key);
+            redisMetrics.recordCommand(RedisCommandType.SRANDMEMBER, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.SRANDMEMBER, ex);
             throw new RedisException(ex);
         }
         finally
@@ -820,11 +1568,15 @@ public class RedisUtils
                 valueStr = value.toString();
             }
 
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.zadd(key, score, valueStr);
+            redisMetrics.recordCommand(RedisCommandType.ZADD, startTime);
+            redisMetrics.recordPayload(RedisCommandType.ZADD, valueStr);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.ZADD, ex);
             throw new RedisException(ex);
         }
         finally
@@ -849,11 +1601,14 @@ public class RedisUtils
         Set<String> result = null;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
             result = jedis.zrange(key, start, end);
+            redisMetrics.recordCommand(RedisCommandType.ZRANGE, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.ZRANGE, ex);
             throw new RedisException(ex);
         }
         finally
@@ -878,11 +1633,14 @@ public class RedisUtils
         Set<String> result = null;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
             result = jedis.zrevrange(key, start, end);
+            redisMetrics.recordCommand(RedisCommandType.ZREVRANGE, startTime);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.ZREVRANGE, ex);
             throw new RedisException(ex);
         }
         finally
@@ -907,11 +1665,435 @@ public class RedisUtils
         long result = 0;
         try
         {
-            jedis = jedisPool.getResource();
+            jedis = getJedis();
+            long startTime = System.nanoTime();
             result = jedis.zremrangeByRank(key, start, stop);
+            redisMetrics.recordCommand(RedisCommandType.ZREMRANGEBYRANK, startTime);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.ZREMRANGEBYRANK, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /************************ 对象（Object） *************************/
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器设置值（SET）
+     * @param key 键
+     * @param value 值
+     * @param codecType 编解码器类型
+     * @return 返回 OK 表示执行成功
+     */
+    public String setObject(String key, Object value, RedisCodecType codecType) throws RedisException
+    {
+        return setObject(SafeEncoder.encode(key), key, value, codecType);
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器设置值（SET）
+     * @param keyBytes 键的字节
+     * @param key 键，用于近端缓存失效；不使用近端缓存时可以为 null
+     */
+    private String setObject(byte[] keyBytes, String key, Object value, RedisCodecType codecType) throws RedisException
+    {
+        Jedis jedis = null;
+        String result = "";
+        try
+        {
+            byte[] valueBytes = codecType.getCodec().encode(value);
+
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            result = jedis.set(keyBytes, valueBytes);
+            redisMetrics.recordCommand(RedisCommandType.SET, startTime);
+            redisMetrics.recordPayload(RedisCommandType.SET, valueBytes.length);
+            if (key != null)
+            {
+                redisNearCache.invalidate(jedis, key);
+            }
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.SET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器获取值（GET）
+     * @param key 键
+     * @param type 值的类型
+     * @param codecType 编解码器类型
+     * @return 值，键不存在时返回 null
+     */
+    public <T> T getObject(String key, Class<T> type, RedisCodecType codecType) throws RedisException
+    {
+        return getObject(SafeEncoder.encode(key), type, codecType);
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器获取值（GET）
+     */
+    private <T> T getObject(byte[] keyBytes, Class<T> type, RedisCodecType codecType) throws RedisException
+    {
+        Jedis jedis = null;
+        T result = null;
+        try
+        {
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            byte[] valueBytes = jedis.get(keyBytes);
+            redisMetrics.recordCommand(RedisCommandType.GET, startTime);
+            if (valueBytes != null)
+            {
+                redisMetrics.recordPayload(RedisCommandType.GET, valueBytes.length);
+                result = codecType.getCodec().decode(valueBytes, type);
+            }
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.GET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器将哈希表 key 中的字段 field 的值设为 value（HSET）
+     * @param key 键
+     * @param field 域
+     * @param value 值
+     * @param codecType 编解码器类型
+     * @return 如果字段是哈希表中的一个新建字段，并且值设置成功，返回 1 。
+     * 如果哈希表中域字段已经存在且旧值已被新值覆盖，返回 0 。
+     */
+    public Long hsetObject(String key, String field, Object value, RedisCodecType codecType) throws RedisException
+    {
+        return hsetObject(SafeEncoder.encode(key), key, field, value, codecType);
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器将哈希表 key 中的字段 field 的值设为 value（HSET）
+     * @param keyBytes 键的字节
+     * @param key 键，用于近端缓存失效；不使用近端缓存时可以为 null
+     */
+    private Long hsetObject(byte[] keyBytes, String key, String field, Object value, RedisCodecType codecType) throws RedisException
+    {
+        Jedis jedis = null;
+        long result = 0;
+        try
+        {
+            byte[] valueBytes = codecType.getCodec().encode(value);
+
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            result = jedis.hset(keyBytes, SafeEncoder.encode(field), valueBytes);
+            redisMetrics.recordCommand(RedisCommandType.HSET, startTime);
+            redisMetrics.recordPayload(RedisCommandType.HSET, valueBytes.length);
+            if (key != null)
+            {
+                redisNearCache.invalidate(jedis, key);
+            }
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HSET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器获取存储在哈希表中指定字段的值（HGET）
+     * @param key 键
+     * @param field 域
+     * @param type 值的类型
+     * @param codecType 编解码器类型
+     * @return 值，字段或 key 不存在时返回 null
+     */
+    public <T> T hgetObject(String key, String field, Class<T> type, RedisCodecType codecType) throws RedisException
+    {
+        return hgetObject(SafeEncoder.encode(key), field, type, codecType);
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用指定的编解码器获取存储在哈希表中指定字段的值（HGET）
+     */
+    private <T> T hgetObject(byte[] keyBytes, String field, Class<T> type, RedisCodecType codecType) throws RedisException
+    {
+        Jedis jedis = null;
+        T result = null;
+        try
+        {
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            byte[] valueBytes = jedis.hget(keyBytes, SafeEncoder.encode(field));
+            redisMetrics.recordCommand(RedisCommandType.HGET, startTime);
+            if (valueBytes != null)
+            {
+                redisMetrics.recordPayload(RedisCommandType.HGET, valueBytes.length);
+                result = codecType.getCodec().decode(valueBytes, type);
+            }
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.HGET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用业务键配置的编解码器设置值
+     * @param businessKey 业务键
+     * @param id 业务ID
+     * @param value 值
+     * @return 返回 OK 表示执行成功
+     */
+    public String set(RedisKeyEnum businessKey, Object id, Object value) throws RedisException
+    {
+        String key = businessKey.isNearCache() ? getRedisKey(businessKey, id) : null;
+        return setObject(getRedisKeyBytes(businessKey, id), key, value, businessKey.getCodecType());
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用业务键配置的编解码器获取值
+     * @param businessKey 业务键
+     * @param id 业务ID
+     * @param type 值的类型
+     * @return 值，键不存在时返回 null
+     */
+    public <T> T get(RedisKeyEnum businessKey, Object id, Class<T> type) throws RedisException
+    {
+        return getObject(getRedisKeyBytes(businessKey, id), type, businessKey.getCodecType());
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用业务键配置的编解码器设置哈希表字段的值
+     * @param businessKey 业务键
+     * @param id 业务ID
+     * @param field 域
+     * @param value 值
+     * @return 新建字段返回 1，覆盖已有字段返回 0
+     */
+    public Long hset(RedisKeyEnum businessKey, Object id, String field, Object value) throws RedisException
+    {
+        String key = businessKey.isNearCache() ? getRedisKey(businessKey, id) : null;
+        return hsetObject(getRedisKeyBytes(businessKey, id), key, field, value, businessKey.getCodecType());
+    }
+
+    /**
+     * 对象（Object）操作：
+     * 使用业务键配置的编解码器获取哈希表字段的值
+     * @param businessKey 业务键
+     * @param id 业务ID
+     * @param field 域
+     * @param type 值的类型
+     * @return 值，字段或 key 不存在时返回 null
+     */
+    public <T> T hget(RedisKeyEnum businessKey, Object id, String field, Class<T> type) throws RedisException
+    {
+        return hgetObject(getRedisKeyBytes(businessKey, id), field, type, businessKey.getCodecType());
+    }
+
+    /************************ 原子操作（Lua脚本） *************************/
+
+    /**
+     * 原子操作：
+     * 向有序集合添加成员，并只保留分数最高的 maxSize 个成员
+     * 代替 zadd + zremrangeByRank 两次往返
+     * @param key 键
+     * @param score 分数
+     * @param value 成员
+     * @param maxSize 最大成员数量
+     * @return 被移除的成员数量
+     */
+    public Long zaddCapped(String key, double score, Object value, long maxSize) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = getJedis();
+            return (Long) redisScriptRegistry.eval(jedis, RedisScriptRegistry.CAPPED_ZADD, Collections.singletonList(key),
+                    Arrays.asList(Double.toString(score), toValueString(value), Long.toString(maxSize)));
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+    }
+
+    /**
+     * 原子操作：
+     * 根据增量数自增，键没有过期时间（新建）时设置过期时间
+     * 代替 incrBy + expire 两次往返，并避免两条命令之间进程退出导致键永不过期
+     * @param key 键
+     * @param increment 增量
+     * @param seconds 过期时间（秒）
+     * @return 自增后的值
+     */
+    public Long incrWithTtl(String key, long increment, int seconds) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = getJedis();
+            Long result = (Long) redisScriptRegistry.eval(jedis, RedisScriptRegistry.INCR_WITH_TTL, Collections.singletonList(key),
+                    Arrays.asList(Long.toString(increment), Integer.toString(seconds)));
+            redisNearCache.invalidate(jedis, key);
+            return result;
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+    }
+
+    /**
+     * 原子操作：
+     * 比较并设置，当前值等于期望值时设置为新值，保留原有的过期时间
+     * 代替 get + set 两次往返，并避免两条命令之间被其他客户端修改
+     * 按原始值比较，当前值已压缩时（与当前的压缩设置无关）解压后比较
+     * @param key 键
+     * @param expected 期望值
+     * @param value 新值
+     * @return true：设置成功；false：当前值与期望值不一致
+     */
+    public boolean compareAndSet(String key, Object expected, Object value) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = getJedis();
+            //当前值未压缩时在脚本中直接比较；已压缩时（可能由不同的压缩设置写入）解压后比较
+            String expectedStr = toValueString(expected);
+            byte[] valueBytes = redisValueCompressor.encode(toValueString(value));
+            Object result = redisScriptRegistry.evalBinary(jedis, RedisScriptRegistry.COMPARE_AND_SET,
+                    Collections.singletonList(SafeEncoder.encode(key)),
+                    Arrays.asList(SafeEncoder.encode(expectedStr), valueBytes));
+            boolean success = Long.valueOf(-1).equals(result)
+                    ? compareAndSetCompressed(jedis, key, expectedStr, valueBytes)
+                    : Long.valueOf(1).equals(result);
+            if (success)
+            {
+                redisNearCache.invalidate(jedis, key);
+            }
+            return success;
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+    }
+
+    /**
+     * 当前值是压缩的值时，使用 WATCH 事务解压后比较并设置，事务期间键被修改时重试
+     */
+    private boolean compareAndSetCompressed(Jedis jedis, String key, String expected, byte[] valueBytes)
+    {
+        byte[] binaryKey = SafeEncoder.encode(key);
+        while (true)
+        {
+            jedis.watch(binaryKey);
+            if (!expected.equals(redisValueCompressor.decode(jedis.get(binaryKey))))
+            {
+                jedis.unwatch();
+                return false;
+            }
+            long ttl = jedis.pttl(binaryKey);
+            Transaction transaction = jedis.multi();
+            transaction.set(binaryKey, valueBytes);
+            if (ttl > 0)
+            {
+                transaction.pexpire(binaryKey, ttl);
+            }
+            if (transaction.exec() != null)
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 原子操作：
+     * 获取字符串值，并刷新过期时间（滑动过期）
+     * 代替 get + expire 两次往返
+     * @param key 键
+     * @param seconds 过期时间（秒）
+     * @return 字符串值，键不存在时返回 null
+     */
+    public String getAndRefreshTtl(String key, int seconds) throws RedisException
+    {
+        Jedis jedis = null;
+        try
+        {
+            jedis = getJedis();
+            Object result = redisScriptRegistry.evalBinary(jedis, RedisScriptRegistry.GET_AND_REFRESH_TTL,
+                    Collections.singletonList(SafeEncoder.encode(key)),
+                    Collections.singletonList(SafeEncoder.encode(Integer.toString(seconds))));
+            return redisValueCompressor.decode((byte[]) result);
         }
         catch (Exception ex)
         {
+            redisMetrics.recordError(RedisCommandType.EVAL, ex);
             throw new RedisException(ex);
         }
         finally
@@ -919,6 +2101,199 @@ public class RedisUtils
             //释放资源
             closeResource(jedis);
         }
+    }
+
+    /************************ 排行榜（Leaderboard） *************************/
+
+    /**
+     * 排行榜：
+     * 创建排行榜，本地缓存前N名的有效期使用默认配置
+     * @param key 键
+     * @param maxSize 最多保留的成员数量，0表示不限制
+     * @return 排行榜
+     */
+    public RedisLeaderboard leaderboard(String key, long maxSize)
+    {
+        return leaderboard(key, maxSize, this.leaderboardTopCacheTtl);
+    }
+
+    /**
+     * 排行榜：
+     * 创建排行榜
+     * @param key 键
+     * @param maxSize 最多保留的成员数量，0表示不限制
+     * @param topCacheTtl 本地缓存前N名的有效期，null或0表示不缓存
+     * @return 排行榜
+     */
+    public RedisLeaderboard leaderboard(String key, long maxSize, Duration topCacheTtl)
+    {
+        return new RedisLeaderboard(this, this.redisMetrics, this.redisScriptRegistry, key, maxSize, topCacheTtl);
+    }
+
+    /************************ 批量操作（Batch） *************************/
+
+    /**
+     * 批量操作：
+     * 创建批量操作构建器，所有命令在同一个连接上通过管道一次性发送
+     * @return 批量操作构建器
+     */
+    public RedisBatch batch()
+    {
+        return new RedisBatch(this, this.redisNearCache, this.redisMetrics, this.redisValueCompressor, this.redisBatchSize);
+    }
+
+    /**
+     * 批量操作：
+     * 批量获取字符串值，超过批次大小时分批执行MGET
+     * @param keys 键集合
+     * @return 字符串值列表，顺序与键的顺序一致，键不存在时对应位置为 null
+     */
+    public List<String> mget(List<String> keys) throws RedisException
+    {
+        Jedis jedis = null;
+        List<String> result = new ArrayList<>(keys.size());
+        if (keys.isEmpty())
+        {
+            return result;
+        }
+        try
+        {
+            jedis = getReadJedis();
+            long startTime = System.nanoTime();
+            int batchSize = Math.max(1, this.redisBatchSize);
+            for (int from = 0; from < keys.size(); from += batchSize)
+            {
+                List<String> chunk = keys.subList(from, Math.min(from + batchSize, keys.size()));
+                result.addAll(redisValueCompressor.decode(jedis.mget(SafeEncoder.encodeMany(chunk.toArray(new String[0])))));
+            }
+            redisMetrics.recordCommand(RedisCommandType.MGET, startTime);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.MGET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /**
+     * 批量操作：
+     * 批量设置字符串值，超过批次大小时分批执行MSET
+     * @param keyValueMap 键-值集合
+     * @return 返回 OK 表示执行成功
+     */
+    public String mset(Map<String, ?> keyValueMap) throws RedisException
+    {
+        Jedis jedis = null;
+        String result = "";
+        if (keyValueMap.isEmpty())
+        {
+            return "OK";
+        }
+        try
+        {
+            jedis = getJedis();
+            long startTime = System.nanoTime();
+            int batchSize = Math.max(1, this.redisBatchSize);
+            List<String> keysValues = new ArrayList<>(Math.min(batchSize, keyValueMap.size()) * 2);
+            for (Map.Entry<String, ?> entry : keyValueMap.entrySet())
+            {
+                keysValues.add(entry.getKey());
+                keysValues.add(toValueString(entry.getValue()));
+                if (keysValues.size() >= batchSize * 2)
+                {
+                    result = jedis.mset(keysValues.toArray(new String[0]));
+                    keysValues.clear();
+                }
+            }
+            if (keysValues.size() > 0)
+            {
+                result = jedis.mset(keysValues.toArray(new String[0]));
+            }
+            for (String key : keyValueMap.keySet())
+            {
+                redisNearCache.invalidate(jedis, key);
+            }
+            redisMetrics.recordCommand(RedisCommandType.MSET, startTime);
+        }
+        catch (Exception ex)
+        {
+            redisMetrics.recordError(RedisCommandType.MSET, ex);
+            throw new RedisException(ex);
+        }
+        finally
+        {
+            //释放资源
+            closeResource(jedis);
+        }
+        return result;
+    }
+
+    /**
+     * 批量操作：
+     * 批量写入多个哈希表，每个哈希表使用一次HMSET，所有命令通过管道发送
+     * @param hashMap 键-哈希表集合
+     * @return 成功写入的哈希表数量
+     */
+    public int hmsetAll(Map<String, ? extends Map<String, ?>> hashMap) throws RedisException
+    {
+        RedisBatch batch = batch();
+        for (Map.Entry<String, ? extends Map<String, ?>> entry : hashMap.entrySet())
+        {
+            if (entry.getValue() != null && entry.getValue().size() > 0)
+            {
+                batch.hmset(entry.getKey(), entry.getValue());
+            }
+        }
+        batch.execute();
+        return batch.size();
+    }
+
+    /**
+     * 批量操作：
+     * 批量获取多个哈希表的所有字段和值，所有命令通过管道发送
+     * @param keys 键集合
+     * @return 哈希表列表，顺序与键的顺序一致，键不存在时对应位置为空Map
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, String>> multiGet(List<String> keys) throws RedisException
+    {
+        RedisBatch batch = batch();
+        for (String key : keys)
+        {
+            batch.hgetAll(key);
+        }
+        List<Map<String, String>> result = new ArrayList<>(keys.size());
+        for (Object item : batch.execute())
+        {
+            result.add((Map<String, String>) item);
+        }
+        return result;
+    }
+
+    /**
+     * 将值转换为字符串，null 转换为空字符串
+     */
+    static String toValueString(Object value)
+    {
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * 将字段-值集合的值转换为字符串
+     */
+    static Map<String, String> toValueStringMap(Map<String, ?> fieldMap)
+    {
+        Map<String, String> result = new HashMap<>(fieldMap.size() * 4 / 3 + 1);
+        for (Map.Entry<String, ?> entry : fieldMap.entrySet())
+        {
+            result.put(entry.getKey(), toValueString(entry.getValue()));
+        }
         return result;
     }
 }
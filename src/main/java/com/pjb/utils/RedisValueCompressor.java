@@ -0,0 +1,225 @@
+package com.pjb.utils;
+
+import com.pjb.metrics.RedisMetrics;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.util.SafeEncoder;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis值压缩器
+ * RedisUtils.set()/hset() 写入的值超过阈值时自动压缩，读取时根据首字节自动解压。
+ * 压缩格式：1字节头 + 4字节原始长度（大端） + 压缩数据，头为 0xFF 表示LZ4，0xFE 表示Deflate；
+ * 这两个字节不会出现在UTF-8文本中，因此未压缩的值（包括开启压缩之前写入的旧值）原样读取。
+ * 压缩后体积没有减小时保存原值。
+ * @author pan_junbiao
+ **/
+@Component
+public class RedisValueCompressor
+{
+    private static final byte HEADER_LZ4 = (byte) 0xFF;
+
+    private static final byte HEADER_DEFLATE = (byte) 0xFE;
+
+    //头部长度：1字节头 + 4字节原始长度
+    private static final int HEADER_LENGTH = 5;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    //是否启用压缩
+    @Value("${myenvironment.redis-compression.enabled:false}")
+    private boolean enabled;
+
+    //压缩算法：lz4 或 deflate
+    @Value("${myenvironment.redis-compression.algorithm:lz4}")
+    private String algorithm;
+
+    //压缩阈值（字节），值的UTF-8编码长度达到阈值时压缩
+    @Value("${myenvironment.redis-compression.threshold:1024}")
+    private int threshold;
+
+    //Deflate压缩级别（1~9）
+    @Value("${myenvironment.redis-compression.deflate-level:6}")
+    private int deflateLevel;
+
+    private byte header;
+
+    private LZ4Compressor lz4Compressor;
+
+    private LZ4FastDecompressor lz4Decompressor;
+
+    @PostConstruct
+    public void init()
+    {
+        this.header = "deflate".equalsIgnoreCase(this.algorithm) ? HEADER_DEFLATE : HEADER_LZ4;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.lz4Compressor = factory.fastCompressor();
+        this.lz4Decompressor = factory.fastDecompressor();
+    }
+
+    /**
+     * 是否启用压缩
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * 编码值：UTF-8编码，达到阈值时压缩
+     */
+    public byte[] encode(String value)
+    {
+        byte[] raw = SafeEncoder.encode(value);
+        if (!this.enabled || raw.length < this.threshold)
+        {
+            return raw;
+        }
+        long startTime = System.nanoTime();
+        byte[] compressed = this.header == HEADER_DEFLATE ? deflate(raw) : lz4(raw);
+        boolean smaller = compressed.length < raw.length;
+        redisMetrics.recordCompression(raw.length, smaller ? compressed.length : raw.length, startTime);
+        return smaller ? compressed : raw;
+    }
+
+    /**
+     * 解码值：压缩的值先解压，再按UTF-8解码
+     * @param bytes Redis中的值，可以为 null
+     */
+    public String decode(byte[] bytes)
+    {
+        if (bytes == null)
+        {
+            return null;
+        }
+        if (!isCompressed(bytes))
+        {
+            return SafeEncoder.encode(bytes);
+        }
+        long startTime = System.nanoTime();
+        int length = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16) | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+        byte[] raw = bytes[0] == HEADER_DEFLATE ? inflate(bytes, length) : lz4Decompressor.decompress(bytes, HEADER_LENGTH, length);
+        redisMetrics.recordDecompression(startTime);
+        return SafeEncoder.encode(raw);
+    }
+
+    /**
+     * 解码值列表
+     */
+    public List<String> decode(List<byte[]> values)
+    {
+        String[] result = new String[values.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = decode(values.get(i));
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * 解码哈希表
+     */
+    public Map<String, String> decode(Map<byte[], byte[]> hash)
+    {
+        Map<String, String> result = new HashMap<>(hash.size() * 4 / 3 + 1);
+        for (Map.Entry<byte[], byte[]> entry : hash.entrySet())
+        {
+            result.put(SafeEncoder.encode(entry.getKey()), decode(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 是否为压缩的值
+     */
+    public static boolean isCompressed(byte[] bytes)
+    {
+        return bytes.length >= HEADER_LENGTH && (bytes[0] == HEADER_LZ4 || bytes[0] == HEADER_DEFLATE);
+    }
+
+    private byte[] lz4(byte[] raw)
+    {
+        byte[] buffer = new byte[HEADER_LENGTH + lz4Compressor.maxCompressedLength(raw.length)];
+        int compressedLength = lz4Compressor.compress(raw, 0, raw.length, buffer, HEADER_LENGTH);
+        writeHeader(buffer, HEADER_LZ4, raw.length);
+        return Arrays.copyOf(buffer, HEADER_LENGTH + compressedLength);
+    }
+
+    private byte[] deflate(byte[] raw)
+    {
+        Deflater deflater = new Deflater(this.deflateLevel);
+        try
+        {
+            deflater.setInput(raw);
+            deflater.finish();
+            //压缩后超过原始长度时没有意义，缓冲区大小与原值相同即可
+            byte[] buffer = new byte[raw.length];
+            int position = HEADER_LENGTH;
+            while (!deflater.finished() && position < buffer.length)
+            {
+                position += deflater.deflate(buffer, position, buffer.length - position);
+            }
+            if (!deflater.finished())
+            {
+                return raw;
+            }
+            writeHeader(buffer, HEADER_DEFLATE, raw.length);
+            return Arrays.copyOf(buffer, position);
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int length)
+    {
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            byte[] raw = new byte[length];
+            int position = 0;
+            while (position < length && !inflater.finished())
+            {
+                int count = inflater.inflate(raw, position, length - position);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    throw new IllegalStateException("Deflate数据不完整");
+                }
+                position += count;
+            }
+            return raw;
+        }
+        catch (DataFormatException ex)
+        {
+            throw new IllegalStateException("Deflate解压失败", ex);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private static void writeHeader(byte[] buffer, byte header, int length)
+    {
+        buffer[0] = header;
+        buffer[1] = (byte) (length >>> 24);
+        buffer[2] = (byte) (length >>> 16);
+        buffer[3] = (byte) (length >>> 8);
+        buffer[4] = (byte) length;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pjb;
+
+import com.pjb.common.RedisKeyEnum;
+import com.pjb.utils.AsyncRedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Redis异步操作的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class AsyncTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis异步工具类
+     */
+    @Autowired
+    private AsyncRedisUtils asyncRedisUtils;
+
+    /**
+     * 同时发起多个相互独立的查询，再统一等待结果
+     * @author pan_junbiao
+     */
+    @Test
+    public void fanOutTest()
+    {
+        String key1 = "PJB_" + RedisKeyEnum.USER_INFO + "::1";
+        String key2 = "PJB_" + RedisKeyEnum.USER_INFO + "::2";
+
+        CompletableFuture<String> blogName = asyncRedisUtils.get("USER::1");
+        CompletableFuture<Map<String, String>> user1 = asyncRedisUtils.hgetAll(key1);
+        CompletableFuture<Map<String, String>> user2 = asyncRedisUtils.hgetAll(key2);
+        CompletableFuture<Set<String>> ranking = asyncRedisUtils.zrevrange("RANKING", 0, 9);
+
+        CompletableFuture.allOf(blogName, user1, user2, ranking).join();
+
+        System.out.println("博客名称：" + blogName.join());
+        System.out.println("用户1：" + user1.join());
+        System.out.println("用户2：" + user2.join());
+        System.out.println("排行榜：" + ranking.join());
+    }
+}
@@ -0,0 +1,104 @@
+package com.pjb;
+
+import com.pjb.common.RedisKeyEnum;
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.*;
+
+/**
+ * Redis批量操作（管道）的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class BatchTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * 使用管道批量执行多个命令
+     * @author pan_junbiao
+     */
+    @Test
+    public void batchTest() throws RedisException
+    {
+        List<Object> resultList = redisUtils.batch()
+                .set("USER::1", "pan_junbiao的博客_01")
+                .set("USER::2", "pan_junbiao的博客_02")
+                .get("USER::1")
+                .get("USER::2")
+                .execute();
+
+        for (Object result : resultList)
+        {
+            System.out.println("执行结果：" + result);
+        }
+    }
+
+    /**
+     * 批量设置与获取字符串值
+     * @author pan_junbiao
+     */
+    @Test
+    public void msetAndMgetTest() throws RedisException
+    {
+        Map<String, Object> keyValueMap = new LinkedHashMap<>();
+        keyValueMap.put("USER::1", "pan_junbiao的博客_01");
+        keyValueMap.put("USER::2", "pan_junbiao的博客_02");
+        keyValueMap.put("USER::3", "pan_junbiao的博客_03");
+        redisUtils.mset(keyValueMap);
+
+        List<String> valueList = redisUtils.mget(Arrays.asList("USER::1", "USER::2", "USER::3", "USER::4"));
+        System.out.println("批量获取的结果：" + valueList);
+    }
+
+    /**
+     * 批量保存与读取用户信息，使用哈希（Hash）数据类型
+     * @author pan_junbiao
+     */
+    @Test
+    public void hmsetAllTest() throws RedisException
+    {
+        Map<String, Map<String, Object>> userMap = new LinkedHashMap<>();
+        List<String> keyList = new ArrayList<>();
+        for (int userId = 1; userId <= 3; userId++)
+        {
+            //构建Redis键（格式：PJB_USER_INFO_::用户ID）
+            String key = redisUtils.getRedisKey(RedisKeyEnum.USER_INFO, userId);
+            Map<String, Object> fieldMap = new HashMap<>();
+            fieldMap.put("userId", userId);
+            fieldMap.put("userName", "pan_junbiao的博客");
+            fieldMap.put("blogUrl", "https://blog.csdn.net/pan_junbiao");
+            userMap.put(key, fieldMap);
+            keyList.add(key);
+        }
+        redisUtils.hmsetAll(userMap);
+
+        List<Map<String, String>> resultList = redisUtils.multiGet(keyList);
+        for (Map<String, String> user : resultList)
+        {
+            System.out.println("用户信息：" + user);
+        }
+    }
+}
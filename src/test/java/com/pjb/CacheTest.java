@@ -0,0 +1,142 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisCacheLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis缓存管理器的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class CacheTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * 缓存管理器
+     */
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * 缓存键生成器
+     */
+    @Autowired
+    private KeyGenerator keyGenerator;
+
+    /**
+     * 缓存加载器
+     */
+    @Autowired
+    private RedisCacheLoader redisCacheLoader;
+
+    /**
+     * 按缓存名称配置的过期时间写入与读取缓存，不缓存 null 值
+     * @author pan_junbiao
+     */
+    @Test
+    public void cacheTest()
+    {
+        Cache cache = cacheManager.getCache("userCache");
+        cache.put(1, "pan_junbiao的博客");
+        cache.put(2, null);
+
+        System.out.println("用户1：" + cache.get(1, String.class));
+        System.out.println("用户2：" + cache.get(2));
+        Assertions.assertEquals("pan_junbiao的博客", cache.get(1, String.class));
+        Assertions.assertNull(cache.get(2));
+
+        //缓存统计
+        RedisCache redisCache = (RedisCache) cache;
+        System.out.println("命中次数：" + redisCache.getStatistics().getHits());
+        System.out.println("未命中次数：" + redisCache.getStatistics().getMisses());
+        cache.evict(1);
+    }
+
+    /**
+     * 缓存键生成器：参数使用分隔符与转义，不产生拼接歧义
+     * @author pan_junbiao
+     */
+    @Test
+    public void keyGeneratorTest() throws NoSuchMethodException
+    {
+        Method method = String.class.getMethod("concat", String.class);
+        Object key1 = keyGenerator.generate(this, method, "a:b", "c");
+        Object key2 = keyGenerator.generate(this, method, "a", "b:c");
+        Object key3 = keyGenerator.generate(this, method, 1, 23);
+        Object key4 = keyGenerator.generate(this, method, 12, 3);
+
+        System.out.println("缓存键：" + key1 + "，" + key2 + "，" + key3 + "，" + key4);
+        Assertions.assertNotEquals(key1, key2);
+        Assertions.assertNotEquals(key3, key4);
+        Assertions.assertEquals(key1, keyGenerator.generate(this, method, "a:b", "c"));
+    }
+
+    /**
+     * 缓存加载器：并发未命中时只执行一次加载
+     * @author pan_junbiao
+     */
+    @Test
+    public void cacheLoaderTest() throws Exception
+    {
+        String key = "PJB_USER_LOADER::1";
+        redisCacheLoader.evict(key);
+
+        AtomicInteger loadCount = new AtomicInteger();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+        {
+            futures.add(CompletableFuture.supplyAsync(() ->
+            {
+                try
+                {
+                    return redisCacheLoader.get(key, Duration.ofMinutes(1), () ->
+                    {
+                        loadCount.incrementAndGet();
+                        Thread.sleep(200); //模拟查询数据库
+                        return "pan_junbiao的博客";
+                    });
+                }
+                catch (RedisException ex)
+                {
+                    throw new CompletionException(ex);
+                }
+            }));
+        }
+        for (CompletableFuture<String> future : futures)
+        {
+            Assertions.assertEquals("pan_junbiao的博客", future.get());
+        }
+        System.out.println("加载次数：" + loadCount.get());
+        Assertions.assertEquals(1, loadCount.get());
+        redisCacheLoader.evict(key);
+    }
+}
@@ -0,0 +1,150 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisReadCoalescer;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Redis读请求合并的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest(properties = "myenvironment.redis-coalescing.enabled=true")
+public class CoalescerTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * Redis读请求合并器
+     */
+    @Autowired
+    private RedisReadCoalescer redisReadCoalescer;
+
+    /**
+     * 并发的读请求合并发送，各调用方得到各自的结果
+     * @author pan_junbiao
+     */
+    @Test
+    public void coalesceTest() throws RedisException
+    {
+        redisUtils.set("COALESCE::1", "pan_junbiao的博客_01");
+        redisUtils.hset("COALESCE::2", "userName", "pan_junbiao的博客_02");
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+        {
+            String key = i % 2 == 0 ? "COALESCE::1" : "COALESCE::none";
+            futures.add(CompletableFuture.supplyAsync(() -> get(key)));
+        }
+        for (int i = 0; i < futures.size(); i++)
+        {
+            Assertions.assertEquals(i % 2 == 0 ? "pan_junbiao的博客_01" : null, futures.get(i).join());
+        }
+        Assertions.assertEquals("pan_junbiao的博客_02", redisReadCoalescer.hget("COALESCE::2", "userName"));
+
+        redisUtils.del("COALESCE::1");
+        redisUtils.del("COALESCE::2");
+    }
+
+    /**
+     * 类型错误只影响对应的读请求，与不合并时一致
+     * @author pan_junbiao
+     */
+    @Test
+    public void wrongTypeTest() throws RedisException
+    {
+        redisUtils.hset("COALESCE::hash", "userName", "pan_junbiao的博客");
+        redisUtils.set("COALESCE::string", "pan_junbiao的博客");
+
+        Assertions.assertThrows(RedisException.class, () -> redisReadCoalescer.get("COALESCE::hash"));
+        Assertions.assertEquals("pan_junbiao的博客", redisReadCoalescer.get("COALESCE::string"));
+
+        redisUtils.del("COALESCE::hash");
+        redisUtils.del("COALESCE::string");
+    }
+
+    /**
+     * 关闭之后的读请求立即失败，不会一直等待
+     * @author pan_junbiao
+     */
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    public void destroyTest()
+    {
+        redisReadCoalescer.destroy();
+        RedisException ex = Assertions.assertThrows(RedisException.class, () -> redisReadCoalescer.get("COALESCE::1"));
+        System.out.println("关闭之后读取：" + ex.getMessage());
+    }
+
+    /**
+     * 在截止时间内调用时，等待合并读取结果不超过截止时间
+     * @author pan_junbiao
+     */
+    @Test
+    public void deadlineTest() throws Exception
+    {
+        redisUtils.set("COALESCE::1", "pan_junbiao的博客_01");
+
+        //暂停Redis处理客户端命令1秒，合并的读请求无法返回结果
+        Jedis jedis = redisUtils.getJedis();
+        try
+        {
+            jedis.clientPause(1000);
+        }
+        finally
+        {
+            redisUtils.closeResource(jedis);
+        }
+        long startTime = System.currentTimeMillis();
+        RedisException ex = Assertions.assertThrows(RedisException.class,
+                () -> redisUtils.withDeadline(Duration.ofMillis(100), () -> redisUtils.get("COALESCE::1")));
+        long elapsed = System.currentTimeMillis() - startTime;
+        System.out.println("等待耗时：" + elapsed + "ms，" + ex.getCause());
+        Assertions.assertTrue(elapsed < 1000);
+
+        //等待暂停结束
+        Thread.sleep(1000);
+        Assertions.assertEquals("pan_junbiao的博客_01", redisUtils.get("COALESCE::1"));
+        redisUtils.del("COALESCE::1");
+    }
+
+    private String get(String key)
+    {
+        try
+        {
+            return redisReadCoalescer.get(key);
+        }
+        catch (RedisException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
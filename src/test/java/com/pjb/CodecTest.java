@@ -0,0 +1,106 @@
+package com.pjb;
+
+import com.pjb.codec.CborRedisSerializer;
+import com.pjb.common.RedisCodecType;
+import com.pjb.common.RedisKeyEnum;
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.net.URL;
+import java.util.Collections;
+
+/**
+ * Redis值编解码器的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class CodecTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * 使用CBOR编解码器保存与读取对象
+     * @author pan_junbiao
+     */
+    @Test
+    public void cborTest() throws RedisException
+    {
+        UserInfo userInfo = new UserInfo();
+        userInfo.userId = 1;
+        userInfo.userName = "pan_junbiao的博客";
+        userInfo.blogUrl = "https://blog.csdn.net/pan_junbiao";
+
+        redisUtils.setObject("USER_CBOR::1", userInfo, RedisCodecType.CBOR);
+        UserInfo result = redisUtils.getObject("USER_CBOR::1", UserInfo.class, RedisCodecType.CBOR);
+        System.out.println("用户ID：" + result.userId);
+        System.out.println("用户名称：" + result.userName);
+        System.out.println("博客地址：" + result.blogUrl);
+    }
+
+    /**
+     * 使用业务键配置的编解码器读写类型化的值
+     * @author pan_junbiao
+     */
+    @Test
+    public void businessKeyTest() throws RedisException
+    {
+        redisUtils.hset(RedisKeyEnum.USER_INFO, 1, "userId", 1L);
+        Long userId = redisUtils.hget(RedisKeyEnum.USER_INFO, 1, "userId", Long.class);
+        System.out.println("用户ID：" + userId);
+    }
+
+    /**
+     * Spring缓存的CBOR序列化器：Long等final类型还原为原始类型，不受信任的类型拒绝实例化
+     * @author pan_junbiao
+     */
+    @Test
+    public void cborSerializerTest() throws Exception
+    {
+        CborRedisSerializer serializer = new CborRedisSerializer();
+        Object userId = serializer.deserialize(serializer.serialize(1L));
+        Assertions.assertEquals(Long.class, userId.getClass());
+
+        UserInfo userInfo = new UserInfo();
+        userInfo.userId = 1;
+        userInfo.userName = "pan_junbiao的博客";
+        UserInfo result = (UserInfo) serializer.deserialize(serializer.serialize(userInfo));
+        Assertions.assertEquals("pan_junbiao的博客", result.userName);
+
+        //java.net 中的类型不受信任，拒绝实例化
+        byte[] untrusted = serializer.serialize(Collections.singletonMap("url", new URL("https://blog.csdn.net/pan_junbiao")));
+        Assertions.assertThrows(SerializationException.class, () -> serializer.deserialize(untrusted));
+    }
+
+    /**
+     * 用户信息
+     */
+    public static class UserInfo
+    {
+        private long userId;
+        private String userName;
+        private String blogUrl;
+    }
+}
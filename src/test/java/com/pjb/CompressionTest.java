@@ -0,0 +1,127 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisUtils;
+import com.pjb.utils.RedisValueCompressor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Redis值压缩的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest(properties = "myenvironment.redis-compression.enabled=true")
+public class CompressionTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * Redis值压缩器
+     */
+    @Autowired
+    private RedisValueCompressor redisValueCompressor;
+
+    /**
+     * 超过阈值的值自动压缩，读取时自动解压
+     * @author pan_junbiao
+     */
+    @Test
+    public void compressionTest() throws RedisException
+    {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++)
+        {
+            json.append("{\"userId\":").append(i).append(",\"userName\":\"pan_junbiao的博客\"},");
+        }
+        String value = json.append("{}]").toString();
+
+        redisUtils.set("USER_JSON::1", value);
+        redisUtils.hset("USER_JSON::2", "users", value);
+        Assertions.assertEquals(value, redisUtils.get("USER_JSON::1"));
+        Assertions.assertEquals(value, redisUtils.hget("USER_JSON::2", "users"));
+
+        byte[] encoded = redisValueCompressor.encode(value);
+        System.out.println("原始大小：" + value.length() + " 压缩后大小：" + encoded.length);
+        Assertions.assertTrue(RedisValueCompressor.isCompressed(encoded));
+
+        //小于阈值的值不压缩
+        redisUtils.set("USER_JSON::3", "pan_junbiao的博客");
+        Assertions.assertEquals("pan_junbiao的博客", redisUtils.get("USER_JSON::3"));
+
+        redisUtils.del("USER_JSON::1");
+        redisUtils.del("USER_JSON::2");
+        redisUtils.del("USER_JSON::3");
+    }
+
+    /**
+     * 压缩的值拼接字符串与获取长度时按原始值处理
+     * @author pan_junbiao
+     */
+    @Test
+    public void appendAndStrLenTest() throws RedisException
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+        {
+            builder.append("pan_junbiao的博客_").append(i).append(";");
+        }
+        String value = builder.toString();
+        String key = "USER_JSON::append";
+
+        redisUtils.set(key, value);
+        Assertions.assertEquals(value.getBytes(StandardCharsets.UTF_8).length, (long) redisUtils.getStrLen(key));
+
+        long length = redisUtils.append(key, "您好");
+        Assertions.assertEquals(value + "您好", redisUtils.get(key));
+        Assertions.assertEquals(length, redisUtils.getStrLen(key));
+        redisUtils.del(key);
+    }
+
+    /**
+     * 比较并设置：当前值是压缩的值时按原始值比较
+     * @author pan_junbiao
+     */
+    @Test
+    public void compareAndSetTest() throws RedisException
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+        {
+            builder.append("pan_junbiao的博客_").append(i).append(";");
+        }
+        String value = builder.toString();
+        String key = "USER_JSON::cas";
+
+        redisUtils.set(key, value);
+        Assertions.assertFalse(redisUtils.compareAndSet(key, "other", "pan_junbiao"));
+        Assertions.assertTrue(redisUtils.compareAndSet(key, value, "pan_junbiao"));
+        Assertions.assertEquals("pan_junbiao", redisUtils.get(key));
+
+        //新值较大时压缩写入，之后仍可按原始值比较
+        Assertions.assertTrue(redisUtils.compareAndSet(key, "pan_junbiao", value));
+        Assertions.assertEquals(value, redisUtils.get(key));
+        redisUtils.del(key);
+    }
+}
@@ -0,0 +1,133 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisCounterAggregator;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis计数器本地聚合的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class CounterTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * Redis计数器本地聚合
+     */
+    @Autowired
+    private RedisCounterAggregator redisCounterAggregator;
+
+    /**
+     * 本地累加，读取时合并尚未写入的增量，写入后Redis中的值一致
+     * @author pan_junbiao
+     */
+    @Test
+    public void incrTest() throws RedisException
+    {
+        String key = "COUNTER::PAGE_VIEW";
+        String hashKey = "COUNTER::ARTICLE";
+        redisUtils.del(key);
+        redisUtils.del(hashKey);
+
+        redisCounterAggregator.incr(key);
+        redisCounterAggregator.incrBy(key, 9);
+        redisCounterAggregator.hincrBy(hashKey, "1", 5);
+        redisCounterAggregator.hincrBy(hashKey, "2", -2);
+        Assertions.assertEquals(10, redisCounterAggregator.get(key));
+        Assertions.assertEquals(5, redisCounterAggregator.hget(hashKey, "1"));
+        Assertions.assertEquals(-2, redisCounterAggregator.hget(hashKey, "2"));
+
+        redisCounterAggregator.flush();
+        Assertions.assertEquals("10", redisUtils.get(key));
+        Assertions.assertEquals("5", redisUtils.hget(hashKey, "1"));
+        Assertions.assertEquals(10, redisCounterAggregator.get(key));
+        System.out.println("计数器：" + redisUtils.get(key));
+    }
+
+    /**
+     * 多线程并发累加，写入后计数不丢失
+     * @author pan_junbiao
+     */
+    @Test
+    public void concurrentIncrTest() throws Exception
+    {
+        String key = "COUNTER::CONCURRENT";
+        redisUtils.del(key);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+        {
+            Thread thread = new Thread(() ->
+            {
+                for (int j = 0; j < 10000; j++)
+                {
+                    redisCounterAggregator.incr(key);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        redisCounterAggregator.flush();
+        Assertions.assertEquals("80000", redisUtils.get(key));
+        System.out.println("计数器：" + redisUtils.get(key));
+    }
+
+    /**
+     * 单个计数器的类型错误（WRONGTYPE）时丢弃该增量，同批次的其他增量正常写入
+     * @author pan_junbiao
+     */
+    @Test
+    public void wrongTypeTest() throws RedisException
+    {
+        String key = "COUNTER::PAGE_VIEW";
+        String wrongKey = "COUNTER::WRONG_TYPE";
+        redisUtils.del(key);
+        redisUtils.del(wrongKey);
+        redisUtils.hset(wrongKey, "userName", "pan_junbiao的博客");
+
+        redisCounterAggregator.incrBy(key, 3);
+        redisCounterAggregator.incr(wrongKey);
+        redisCounterAggregator.flush();
+        Assertions.assertEquals("3", redisUtils.get(key));
+        Assertions.assertEquals("pan_junbiao的博客", redisUtils.hget(wrongKey, "userName"));
+
+        //出错的增量不会重试，再次写入时计数不变
+        redisCounterAggregator.flush();
+        Assertions.assertEquals("3", redisUtils.get(key));
+
+        redisUtils.del(key);
+        redisUtils.del(wrongKey);
+    }
+}
@@ -0,0 +1,122 @@
+package com.pjb;
+
+import com.pjb.common.RedisKeyEnum;
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisHashMapper;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Redis对象-哈希表映射器的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class HashMapperTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * Redis对象-哈希表映射器
+     */
+    @Autowired
+    private RedisHashMapper redisHashMapper;
+
+    /**
+     * 一次写入整个用户对象，整体读取与部分读取
+     * @author pan_junbiao
+     */
+    @Test
+    public void saveAndLoadTest() throws RedisException
+    {
+        //构建Redis键（格式：PJB_USER_INFO_::用户ID）
+        String key = redisUtils.getRedisKey(RedisKeyEnum.USER_INFO,11);
+        redisUtils.del(key);
+
+        redisHashMapper.save(key, new UserInfo(11, "pan_junbiao的博客", "https://blog.csdn.net/pan_junbiao", "您好，欢迎访问 pan_junbiao的博客"));
+
+        UserInfo userInfo = redisHashMapper.load(key, UserInfo.class);
+        System.out.println("用户信息：" + userInfo);
+        Assertions.assertEquals(11, userInfo.userId);
+        Assertions.assertEquals("https://blog.csdn.net/pan_junbiao", userInfo.blogUrl);
+
+        UserInfo partial = redisHashMapper.load(key, UserInfo.class, "userName");
+        Assertions.assertEquals("pan_junbiao的博客", partial.userName);
+        Assertions.assertNull(partial.blogUrl);
+        redisUtils.del(key);
+    }
+
+    /**
+     * 只保存修改过的字段
+     * @author pan_junbiao
+     */
+    @Test
+    public void saveChangesTest() throws RedisException
+    {
+        String key = redisUtils.getRedisKey(RedisKeyEnum.USER_INFO,12);
+        redisUtils.del(key);
+        redisHashMapper.save(key, new UserInfo(12, "pan_junbiao的博客", "https://blog.csdn.net/pan_junbiao", "备注"));
+
+        RedisHashMapper.Tracked<UserInfo> tracked = redisHashMapper.loadTracked(key, UserInfo.class);
+        tracked.get().blogRemark = "新的备注";
+        tracked.get().blogUrl = null;
+        Assertions.assertEquals(2, redisHashMapper.saveChanges(key, tracked));
+        Assertions.assertEquals(0, redisHashMapper.saveChanges(key, tracked));
+
+        Assertions.assertEquals("新的备注", redisUtils.hget(key, "blogRemark"));
+        Assertions.assertNull(redisUtils.hget(key, "blogUrl"));
+        redisUtils.del(key);
+    }
+
+    /**
+     * 用户信息
+     */
+    public static class UserInfo
+    {
+        private int userId;
+
+        private String userName;
+
+        private String blogUrl;
+
+        private String blogRemark;
+
+        public UserInfo()
+        {
+        }
+
+        public UserInfo(int userId, String userName, String blogUrl, String blogRemark)
+        {
+            this.userId = userId;
+            this.userName = userName;
+            this.blogUrl = blogUrl;
+            this.blogRemark = blogRemark;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "UserInfo{userId=" + userId + ", userName='" + userName + "', blogUrl='" + blogUrl + "', blogRemark='" + blogRemark + "'}";
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.pjb;
+
+import com.pjb.metrics.RedisHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Redis指标直方图的百分位与分桶边界
+ * 直方图不依赖Redis，无需启动Spring容器
+ * @author pan_junbiao
+ **/
+public class HistogramTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * 小于8的值每个值一个桶，百分位精确
+     * @author pan_junbiao
+     */
+    @Test
+    public void exactBucketTest()
+    {
+        RedisHistogram histogram = new RedisHistogram();
+        Assertions.assertEquals(0, histogram.getPercentile(50));
+
+        for (int i = 0; i < 8; i++)
+        {
+            histogram.record(i);
+        }
+        Assertions.assertEquals(8, histogram.getCount());
+        Assertions.assertEquals(28, histogram.getSum());
+        Assertions.assertEquals(7, histogram.getMax());
+        Assertions.assertEquals(3.5, histogram.getMean());
+        Assertions.assertEquals(0, histogram.getPercentile(0));
+        Assertions.assertEquals(3, histogram.getPercentile(50));
+        Assertions.assertEquals(7, histogram.getPercentile(100));
+
+        //负数按0处理
+        histogram.record(-5);
+        Assertions.assertEquals(9, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getPercentile(0));
+    }
+
+    /**
+     * 2的幂区间线性划分为8个子桶，百分位返回所在桶的下界，且不超过最大值
+     * @author pan_junbiao
+     */
+    @Test
+    public void bucketBoundaryTest()
+    {
+        RedisHistogram histogram = new RedisHistogram();
+        //[16, 18) 为同一个桶
+        histogram.record(16);
+        histogram.record(17);
+        Assertions.assertEquals(16, histogram.getPercentile(100));
+        histogram.record(18);
+        Assertions.assertEquals(16, histogram.getPercentile(50));
+        Assertions.assertEquals(18, histogram.getPercentile(100));
+
+        //[960, 1024) 为同一个桶，下界960
+        histogram.reset();
+        histogram.record(1000);
+        Assertions.assertEquals(960, histogram.getPercentile(100));
+        histogram.record(1024);
+        Assertions.assertEquals(1024, histogram.getPercentile(100));
+
+        //long 的最大值也有对应的桶
+        histogram.record(Long.MAX_VALUE);
+        Assertions.assertEquals(Long.MAX_VALUE, histogram.getMax());
+        Assertions.assertEquals(15L << 59, histogram.getPercentile(100));
+    }
+
+    /**
+     * 1~100均匀分布的百分位，误差不超过桶宽度
+     * @author pan_junbiao
+     */
+    @Test
+    public void percentileTest()
+    {
+        RedisHistogram histogram = new RedisHistogram();
+        for (int i = 1; i <= 100; i++)
+        {
+            histogram.record(i);
+        }
+        Assertions.assertEquals(1, histogram.getPercentile(0));
+        Assertions.assertEquals(48, histogram.getPercentile(50));
+        Assertions.assertEquals(88, histogram.getPercentile(90));
+        Assertions.assertEquals(96, histogram.getPercentile(99));
+        Assertions.assertEquals(96, histogram.getPercentile(100));
+        System.out.println("P50：" + histogram.getPercentile(50) + " P99：" + histogram.getPercentile(99));
+
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getPercentile(99));
+    }
+}
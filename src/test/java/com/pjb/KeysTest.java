@@ -1,8 +1,10 @@
 package com.pjb;
 
 import com.pjb.common.RedisKeyEnum;
+import com.pjb.utils.RedisClusterUtils;
 import com.pjb.utils.RedisUtils;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -70,6 +72,48 @@ public class KeysTest
 
 
 
+    /**
+     * Redis使用SCAN命令流式查询
+     * @author pan_junbiao
+     */
+    @Test
+    public void scanTest()
+    {
+        try
+        {
+            //Reids中添加数据，键格式：USER::用户ID
+            redisUtils.set("USER::1","pan_junbiao的博客_01");
+            redisUtils.set("USER::2","pan_junbiao的博客_02");
+            redisUtils.set("USER::3","pan_junbiao的博客_03");
+
+            //使用SCAN命令逐页获取匹配的key，不会阻塞Redis服务器
+            redisUtils.scan("USER::*", 100)
+                    .distinct()
+                    .forEach(key -> System.out.println("Key键：" + key));
+        }
+        catch (Exception ex)
+        {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * 集群模式下使用哈希标签，使同一ID的不同键位于同一槽位
+     * @author pan_junbiao
+     */
+    @Test
+    public void hashTagTest()
+    {
+        //构建Redis键（格式：PJB_USER_INFO::{用户ID}）
+        String key1 = redisUtils.getRedisKey(RedisKeyEnum.USER_INFO, 1, true); //键：PJB_USER_INFO::{1}
+        String key2 = redisUtils.getRedisKey(RedisKeyEnum.USER_INFO, 1, false); //键：PJB_USER_INFO::1
+
+        //只对花括号内的ID计算哈希槽
+        System.out.println("Key键：" + key1 + " 哈希槽：" + RedisClusterUtils.getSlot(key1));
+        System.out.println("Key键：" + key2 + " 哈希槽：" + RedisClusterUtils.getSlot(key2));
+        Assertions.assertEquals(RedisClusterUtils.getSlot("1"), RedisClusterUtils.getSlot(key1));
+    }
+
     /**
      * Redis中字符串（String）的批量删除
      * @author pan_junbiao
@@ -149,4 +193,24 @@ public class KeysTest
             ex.printStackTrace();
         }
     }
+
+    /**
+     * 批量删除哈希表时，匹配到的其他类型的键保持不变
+     * @author pan_junbiao
+     */
+    @Test
+    public void delHashSkipOtherTypeTest() throws Exception
+    {
+        String hashKey = "HDEL_TYPE::hash";
+        String stringKey = "HDEL_TYPE::string";
+        redisUtils.hset(hashKey, "userName", "pan_junbiao的博客");
+        redisUtils.hset(hashKey, "blogUrl", "https://blog.csdn.net/pan_junbiao");
+        redisUtils.set(stringKey, "pan_junbiao的博客");
+
+        long result = redisUtils.hdelAllByKey("HDEL_TYPE::*");
+        Assertions.assertEquals(2, result);
+        Assertions.assertEquals(0, (long) redisUtils.hlen(hashKey));
+        Assertions.assertEquals("pan_junbiao的博客", redisUtils.get(stringKey));
+        redisUtils.del(stringKey);
+    }
 }
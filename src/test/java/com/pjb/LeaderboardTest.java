@@ -0,0 +1,107 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisLeaderboard;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis排行榜的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class LeaderboardTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * 批量更新分数、前N名、成员排名、排名附近的成员
+     * @author pan_junbiao
+     */
+    @Test
+    public void leaderboardTest() throws RedisException
+    {
+        String key = "LEADERBOARD::1";
+        redisUtils.del(key);
+        RedisLeaderboard leaderboard = redisUtils.leaderboard(key, 5, Duration.ofMillis(300));
+
+        Map<String, Double> increments = new HashMap<>();
+        for (int i = 1; i <= 10; i++)
+        {
+            increments.put("user_" + i, (double) i);
+        }
+        leaderboard.incrementScores(increments);
+        leaderboard.incrementScore("user_6", 10);
+
+        List<RedisLeaderboard.Entry> top = leaderboard.top(3);
+        System.out.println("前3名：" + top);
+        Assertions.assertEquals("user_6", top.get(0).getMember());
+        Assertions.assertEquals(16.0, top.get(0).getScore());
+        Assertions.assertEquals(Long.valueOf(1), leaderboard.rank("user_10"));
+        Assertions.assertNull(leaderboard.rank("user_1"));
+
+        List<RedisLeaderboard.Entry> around = leaderboard.around("user_9", 1);
+        System.out.println("排名附近：" + around);
+        Assertions.assertEquals(3, around.size());
+        Assertions.assertEquals(2, around.get(1).getRank());
+        redisUtils.del(key);
+    }
+
+    /**
+     * 游标分页
+     * @author pan_junbiao
+     */
+    @Test
+    public void pageTest() throws RedisException
+    {
+        String key = "LEADERBOARD::2";
+        redisUtils.del(key);
+        RedisLeaderboard leaderboard = redisUtils.leaderboard(key, 0);
+        for (int i = 1; i <= 7; i++)
+        {
+            leaderboard.setScore("user_" + i, i);
+        }
+
+        List<String> members = new ArrayList<>();
+        String cursor = null;
+        do
+        {
+            RedisLeaderboard.Page page = leaderboard.page(cursor, 3);
+            page.getEntries().forEach(entry -> members.add(entry.getMember()));
+            cursor = page.getNextCursor();
+        }
+        while (cursor != null);
+        System.out.println("分页结果：" + members);
+        Assertions.assertEquals(7, members.size());
+        Assertions.assertEquals("user_7", members.get(0));
+        Assertions.assertEquals("user_1", members.get(6));
+        redisUtils.del(key);
+    }
+}
@@ -0,0 +1,96 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisLockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Redis分布式锁的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class LockTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis分布式锁服务
+     */
+    @Autowired
+    private RedisLockService redisLockService;
+
+    /**
+     * 加锁、互斥、栅栏令牌递增
+     * @author pan_junbiao
+     */
+    @Test
+    public void tryLockTest() throws RedisException
+    {
+        String key = "LOCK::job";
+        long firstToken;
+        try (RedisLockService.RedisLock lock = redisLockService.tryLock(key, Duration.ofSeconds(10)))
+        {
+            Assertions.assertNotNull(lock);
+            firstToken = lock.getFencingToken();
+            Assertions.assertNull(redisLockService.tryLock(key, Duration.ofSeconds(10)));
+        }
+        try (RedisLockService.RedisLock lock = redisLockService.tryLock(key, Duration.ofSeconds(10)))
+        {
+            Assertions.assertNotNull(lock);
+            System.out.println("栅栏令牌：" + firstToken + " -> " + lock.getFencingToken());
+            Assertions.assertTrue(lock.getFencingToken() > firstToken);
+        }
+    }
+
+    /**
+     * 等待者在解锁通知后获得锁，租期较短时由后台续期保持持有
+     * @author pan_junbiao
+     */
+    @Test
+    public void waitAndRenewTest() throws Exception
+    {
+        String key = "LOCK::rebuild";
+        RedisLockService.RedisLock lock = redisLockService.tryLock(key, Duration.ofMillis(600));
+        Assertions.assertNotNull(lock);
+
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() ->
+        {
+            long startTime = System.currentTimeMillis();
+            try (RedisLockService.RedisLock acquired = redisLockService.tryLock(key, Duration.ofSeconds(10), Duration.ofSeconds(5)))
+            {
+                Assertions.assertNotNull(acquired);
+                return System.currentTimeMillis() - startTime;
+            }
+            catch (RedisException ex)
+            {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        //超过租期仍然持有
+        Thread.sleep(1500);
+        Assertions.assertTrue(lock.isHeld());
+        Assertions.assertTrue(lock.unlock());
+        long waited = waiter.get();
+        System.out.println("等待时间：" + waited + "毫秒");
+        Assertions.assertTrue(waited >= 1500);
+    }
+}
@@ -0,0 +1,93 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+/**
+ * Redis分布式限流器的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class RateLimiterTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis分布式限流器
+     */
+    @Autowired
+    private RedisRateLimiter redisRateLimiter;
+
+    /**
+     * 固定窗口、滑动日志、滑动窗口计数：超过限额后拒绝
+     * @author pan_junbiao
+     */
+    @Test
+    public void windowTest() throws RedisException
+    {
+        String[] keys = {"RATE_LIMIT::fixed", "RATE_LIMIT::log", "RATE_LIMIT::window"};
+        for (String key : keys)
+        {
+            redisRateLimiter.reset(key);
+        }
+        Duration window = Duration.ofMinutes(1);
+        for (int i = 0; i < 5; i++)
+        {
+            Assertions.assertTrue(redisRateLimiter.fixedWindow(keys[0], 5, window).isAllowed());
+            Assertions.assertTrue(redisRateLimiter.slidingLog(keys[1], 5, window).isAllowed());
+            Assertions.assertTrue(redisRateLimiter.slidingWindow(keys[2], 5, window).isAllowed());
+        }
+        RedisRateLimiter.Result result = redisRateLimiter.fixedWindow(keys[0], 5, window);
+        System.out.println("固定窗口：" + result);
+        Assertions.assertFalse(result.isAllowed());
+        Assertions.assertTrue(result.getRetryAfterMillis() > 0);
+        Assertions.assertFalse(redisRateLimiter.slidingLog(keys[1], 5, window).isAllowed());
+        Assertions.assertFalse(redisRateLimiter.slidingWindow(keys[2], 5, window).isAllowed());
+        for (String key : keys)
+        {
+            redisRateLimiter.reset(key);
+        }
+    }
+
+    /**
+     * 令牌桶：允许突发到桶容量，之后按速率补充
+     * @author pan_junbiao
+     */
+    @Test
+    public void tokenBucketTest() throws RedisException
+    {
+        String key = "RATE_LIMIT::bucket";
+        redisRateLimiter.reset(key);
+        int allowed = 0;
+        for (int i = 0; i < 20; i++)
+        {
+            if (redisRateLimiter.tryAcquire(key, 10, 1))
+            {
+                allowed++;
+            }
+        }
+        System.out.println("放行数量：" + allowed);
+        Assertions.assertTrue(allowed >= 10 && allowed <= 11);
+        RedisRateLimiter.Result result = redisRateLimiter.tokenBucket(key, 10, 1, 1);
+        Assertions.assertTrue(result.isAllowed() || result.getRetryAfterMillis() > 0);
+        redisRateLimiter.reset(key);
+    }
+}
@@ -0,0 +1,87 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.ReactiveRedisUtils;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Mono;
+
+/**
+ * Redis响应式操作的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest(properties = {"myenvironment.redis-reactive.enabled=true", "myenvironment.redis-compression.enabled=true"})
+public class ReactiveTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis响应式工具类
+     */
+    @Autowired
+    private ReactiveRedisUtils reactiveRedisUtils;
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * 在同一个多路复用连接上并发执行多个命令
+     * @author pan_junbiao
+     */
+    @Test
+    public void reactiveTest()
+    {
+        String key = "PJB_USER_INFO::1";
+
+        Mono.when(
+                reactiveRedisUtils.hset(key, "userId", 1),
+                reactiveRedisUtils.hset(key, "userName", "pan_junbiao的博客"),
+                reactiveRedisUtils.hset(key, "blogUrl", "https://blog.csdn.net/pan_junbiao"))
+                .block();
+
+        //哈希表的所有字段和值以流的形式返回
+        reactiveRedisUtils.hgetAll(key)
+                .doOnNext(keyValue -> System.out.println(keyValue.getKey() + "：" + keyValue.getValue()))
+                .blockLast();
+    }
+
+    /**
+     * 压缩的值返回原始长度，与 RedisUtils.getStrLen() 一致
+     * @author pan_junbiao
+     */
+    @Test
+    public void getStrLenTest() throws RedisException
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+        {
+            builder.append("pan_junbiao的博客_").append(i).append(";");
+        }
+        String key = "PJB_USER_JSON::1";
+        redisUtils.set(key, builder.toString());
+
+        Long length = reactiveRedisUtils.getStrLen(key).block();
+        System.out.println("原始长度：" + length);
+        Assertions.assertEquals(redisUtils.getStrLen(key), length);
+        Assertions.assertEquals(0L, reactiveRedisUtils.getStrLen("PJB_USER_JSON::none").block());
+        redisUtils.del(key);
+    }
+}
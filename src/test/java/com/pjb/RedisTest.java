@@ -5,10 +5,14 @@ import com.pjb.exception.RedisException;
 import com.pjb.utils.RedisUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.Map;
+import java.util.stream.Collectors;
+
 /**
  * Redis测试类
  * @author pan_junbiao
@@ -71,4 +75,49 @@ public class RedisTest
         long result = redisUtils.delAllByKey(key);
         System.out.println("Redis删除结果：" + result);
     }
+
+    /**
+     * 写入后强制从主节点读取（读己之写），未配置只读副本时与普通读取相同
+     * @author pan_junbiao
+     */
+    @Test
+    public void readFromPrimaryTest() throws RedisException
+    {
+        //构建Redis键（格式：PJB_USER_INFO_::用户ID）
+        String key = redisUtils.getRedisKey(RedisKeyEnum.USER_INFO,2);
+
+        //写入主节点后立即读取
+        redisUtils.hset(key,"userName","pan_junbiao的博客");
+        String userName = redisUtils.readFromPrimary(() -> redisUtils.hget(key,"userName"));
+        System.out.println("用户名称：" + userName);
+        Assertions.assertEquals("pan_junbiao的博客", userName);
+    }
+
+    /**
+     * 大哈希表：使用HSCAN流式读取，使用HMGET只读取需要的字段
+     * @author pan_junbiao
+     */
+    @Test
+    public void hscanTest() throws RedisException
+    {
+        //构建Redis键（格式：PJB_USER_INFO_::用户ID）
+        String key = redisUtils.getRedisKey(RedisKeyEnum.USER_INFO,3);
+        redisUtils.del(key);
+        for (int i = 0; i < 100; i++)
+        {
+            redisUtils.hset(key,"field_" + i,"value_" + i);
+        }
+
+        //流式读取，每页10个字段
+        Map<String, String> all = redisUtils.hscan(key,10).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a));
+        Assertions.assertEquals(100, all.size());
+        Assertions.assertEquals(100, redisUtils.hscanKeys(key).distinct().count());
+
+        //只读取需要的字段，不存在的字段不返回
+        Map<String, String> projection = redisUtils.hmget(key,"field_1","field_2","none");
+        System.out.println("部分字段：" + projection);
+        Assertions.assertEquals(2, projection.size());
+        Assertions.assertEquals("value_2", projection.get("field_2"));
+        redisUtils.del(key);
+    }
 }
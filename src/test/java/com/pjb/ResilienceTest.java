@@ -0,0 +1,179 @@
+package com.pjb;
+
+import com.pjb.common.RedisCommandType;
+import com.pjb.exception.RedisException;
+import com.pjb.exception.RedisFailFastException;
+import com.pjb.metrics.RedisMetrics;
+import com.pjb.pool.RedisCircuitBreaker;
+import com.pjb.utils.RedisHedgedReader;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Redis截止时间、断路器与对冲读取的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest(properties = "myenvironment.redis-circuit-breaker.enabled=true")
+public class ResilienceTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * Redis对冲读取
+     */
+    @Autowired
+    private RedisHedgedReader redisHedgedReader;
+
+    /**
+     * Redis指标统计
+     */
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    /**
+     * Redis断路器
+     */
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    /**
+     * 截止时间内正常执行，超过截止时间后直接失败
+     * @author pan_junbiao
+     */
+    @Test
+    public void deadlineTest() throws RedisException
+    {
+        String key = "DEADLINE::1";
+        redisUtils.set(key, "pan_junbiao的博客");
+        String value = redisUtils.withDeadline(Duration.ofSeconds(1), () -> redisUtils.get(key));
+        Assertions.assertEquals("pan_junbiao的博客", value);
+
+        RedisException ex = Assertions.assertThrows(RedisException.class, () -> redisUtils.withDeadline(Duration.ofMillis(1), () ->
+        {
+            LockSupport.parkNanos(5_000_000L);
+            return redisUtils.get(key);
+        }));
+        System.out.println("超过截止时间：" + ex.getCause());
+        Assertions.assertTrue(ex.getCause() instanceof RedisFailFastException);
+        redisUtils.del(key);
+    }
+
+    /**
+     * 失败率达到阈值时打开，打开时间结束后半开，试探调用成功后关闭
+     * @author pan_junbiao
+     */
+    @Test
+    public void circuitBreakerTest() throws InterruptedException
+    {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(10, 4, 0.5, 1.0, 1000, 100, 2);
+        for (int i = 0; i < 4; i++)
+        {
+            Assertions.assertTrue(breaker.tryAcquire());
+            breaker.onError(new JedisConnectionException("Read timed out"));
+        }
+        Assertions.assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(150);
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertEquals(RedisCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(1000);
+        Assertions.assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(1000);
+        Assertions.assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+        System.out.println("打开次数：" + breaker.getOpenCount() + "，拒绝次数：" + breaker.getRejectedCount());
+    }
+
+    /**
+     * 半开状态：命令错误计为试探成功，试探结果超时未返回时重新放行试探调用
+     * @author pan_junbiao
+     */
+    @Test
+    public void circuitBreakerHalfOpenTest() throws InterruptedException
+    {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(10, 2, 0.5, 1.0, 1000, 100, 2);
+        breaker.onError(new JedisConnectionException("Read timed out"));
+        breaker.onError(new JedisConnectionException("Read timed out"));
+        Assertions.assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+
+        //两次试探调用均未返回结果，许可用完后拒绝调用
+        Thread.sleep(150);
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertFalse(breaker.tryAcquire());
+        Assertions.assertEquals(RedisCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        //超时后重新放行，命令错误说明Redis已正常响应
+        Thread.sleep(150);
+        Assertions.assertTrue(breaker.tryAcquire());
+        breaker.onError(new JedisDataException("WRONGTYPE Operation against a key holding the wrong kind of value"));
+        Assertions.assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(1000);
+        Assertions.assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * 只读副本连接上的异常不计入主节点的断路器
+     * @author pan_junbiao
+     */
+    @Test
+    public void replicaErrorTest() throws RedisException
+    {
+        redisMetrics.replicaAcquired();
+        try
+        {
+            for (int i = 0; i < 200; i++)
+            {
+                redisMetrics.recordError(RedisCommandType.GET, new JedisConnectionException("Read timed out"));
+            }
+        }
+        finally
+        {
+            redisMetrics.replicaReleased();
+        }
+        Assertions.assertEquals(RedisCircuitBreaker.State.CLOSED, redisCircuitBreaker.getState());
+        redisUtils.set("BREAKER::1", "pan_junbiao的博客");
+        Assertions.assertEquals("pan_junbiao的博客", redisUtils.get("BREAKER::1"));
+        redisUtils.del("BREAKER::1");
+    }
+
+    /**
+     * 对冲读取与普通读取的结果相同
+     * @author pan_junbiao
+     */
+    @Test
+    public void hedgedReadTest() throws RedisException
+    {
+        String key = "HEDGE::1";
+        redisUtils.set(key, "pan_junbiao的博客");
+        Assertions.assertEquals("pan_junbiao的博客", redisHedgedReader.get(key));
+        Assertions.assertNull(redisHedgedReader.get("HEDGE::none"));
+        redisUtils.del(key);
+    }
+}
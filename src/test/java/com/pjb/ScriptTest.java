@@ -0,0 +1,80 @@
+package com.pjb;
+
+import com.pjb.exception.RedisException;
+import com.pjb.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Set;
+
+/**
+ * Redis Lua脚本原子操作的使用
+ * @author pan_junbiao
+ **/
+@SpringBootTest
+public class ScriptTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        System.out.println("\n\n");
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.out.println("\n\n");
+    }
+
+    /**
+     * Redis工具类
+     */
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * 有序集合只保留分数最高的成员
+     * @author pan_junbiao
+     */
+    @Test
+    public void zaddCappedTest() throws RedisException
+    {
+        String key = "USER_TOP::1";
+        redisUtils.del(key);
+        for (int i = 1; i <= 10; i++)
+        {
+            redisUtils.zaddCapped(key, i, "user_" + i, 3);
+        }
+        Set<String> members = redisUtils.zrevrange(key, 0, -1);
+        System.out.println("排行榜：" + members);
+        Assertions.assertEquals(3, members.size());
+        redisUtils.del(key);
+    }
+
+    /**
+     * 自增并设置过期时间、比较并设置、获取并刷新过期时间
+     * @author pan_junbiao
+     */
+    @Test
+    public void compoundTest() throws RedisException
+    {
+        String counterKey = "USER_COUNTER::1";
+        redisUtils.del(counterKey);
+        Assertions.assertEquals(1L, redisUtils.incrWithTtl(counterKey, 1, 60));
+        Assertions.assertEquals(3L, redisUtils.incrWithTtl(counterKey, 2, 60));
+
+        String key = "USER_NAME::1";
+        redisUtils.set(key, "pan_junbiao");
+        Assertions.assertFalse(redisUtils.compareAndSet(key, "other", "pan_junbiao的博客"));
+        Assertions.assertTrue(redisUtils.compareAndSet(key, "pan_junbiao", "pan_junbiao的博客"));
+        Assertions.assertEquals("pan_junbiao的博客", redisUtils.getAndRefreshTtl(key, 60));
+        Assertions.assertNull(redisUtils.getAndRefreshTtl("USER_NAME::none", 60));
+
+        redisUtils.del(counterKey);
+        redisUtils.del(key);
+    }
+}